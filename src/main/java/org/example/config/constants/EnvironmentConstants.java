@@ -11,4 +11,50 @@ public class EnvironmentConstants {
     public static final String ENV_DB_PASS_FIELD = "DATABASE_PASSWORD";
     public static final Path PUBLIC_KEY_FILENAME = Paths.get("pub.key");
     public static final String ENV_PUBLIC_KEY_URI_FIELD = "PUBLIC_KEY_URI";
+    public static final Path KEYRING_FILENAME = Paths.get("keyring.json");
+    public static final Path PUBLIC_KEY_REFETCH_STATE_FILENAME = Paths.get("pub.key.refetch");
+    public static final String ENV_PUBLIC_KEY_REFETCH_COOLDOWN_SECONDS_FIELD = "PUBLIC_KEY_REFETCH_COOLDOWN_SECONDS";
+    public static final long DEFAULT_PUBLIC_KEY_REFETCH_COOLDOWN_SECONDS = 30;
+    public static final String ENV_PUBLIC_KEY_REFETCH_FAILURE_THRESHOLD_FIELD = "PUBLIC_KEY_REFETCH_FAILURE_THRESHOLD";
+    public static final long DEFAULT_PUBLIC_KEY_REFETCH_FAILURE_THRESHOLD = 3;
+    public static final String ENV_PUBLIC_KEY_REFETCH_OPEN_SECONDS_FIELD = "PUBLIC_KEY_REFETCH_OPEN_SECONDS";
+    public static final long DEFAULT_PUBLIC_KEY_REFETCH_OPEN_SECONDS = 60;
+    public static final String ENV_ED25519_VERIFIER_FIELD = "ED25519_VERIFIER";
+    public static final String DEFAULT_ED25519_VERIFIER = "jca";
+    public static final String ENV_TOKEN_CLOCK_SKEW_SECONDS_FIELD = "TOKEN_CLOCK_SKEW_SECONDS";
+    public static final long DEFAULT_TOKEN_CLOCK_SKEW_SECONDS = 300;
+    public static final String ENV_TOKEN_MAX_LIFETIME_SECONDS_FIELD = "TOKEN_MAX_LIFETIME_SECONDS";
+    public static final long DEFAULT_TOKEN_MAX_LIFETIME_SECONDS = 0;
+    public static final Path EXECUTOR_SOCKET_PATH = Paths.get("/run/" + APP_NAME + "/executor.sock");
+    public static final int DEFAULT_EXECUTOR_MAX_REQUESTS = 64;
+    public static final int DEFAULT_SESSION_MAX_IN_FLIGHT = 16;
+    public static final int DEFAULT_BATCH_PARALLELISM = 8;
+    public static final String ENV_OPERATION_CONCURRENCY_LIMITS_FIELD = "OPERATION_CONCURRENCY_LIMITS";
+    public static final String DEFAULT_OPERATION_CONCURRENCY_LIMITS = "PLESK.GET_LOGIN_LINK=2";
+    public static final String ENV_OPERATION_DEFAULT_CONCURRENCY_FIELD = "OPERATION_DEFAULT_CONCURRENCY";
+    public static final long DEFAULT_OPERATION_DEFAULT_CONCURRENCY = 8;
+    public static final String ENV_OPERATION_PER_TARGET_CONCURRENCY_FIELD = "OPERATION_PER_TARGET_CONCURRENCY";
+    public static final long DEFAULT_OPERATION_PER_TARGET_CONCURRENCY = 2;
+    public static final String ENV_OPERATION_TIMEOUT_SECONDS_FIELD = "OPERATION_TIMEOUT_SECONDS";
+    public static final String DEFAULT_OPERATION_TIMEOUT_SECONDS =
+            "PLESK.GET_TESTMAIL_CREDENTIALS=60,PLESK.RESTART_DNS_SERVICE=60";
+    public static final String ENV_OPERATION_DEFAULT_TIMEOUT_SECONDS_FIELD = "OPERATION_DEFAULT_TIMEOUT_SECONDS";
+    public static final long DEFAULT_OPERATION_DEFAULT_TIMEOUT_SECONDS = 30;
+    public static final String ENV_RESULT_CACHE_MAX_ENTRIES_FIELD = "RESULT_CACHE_MAX_ENTRIES";
+    public static final long DEFAULT_RESULT_CACHE_MAX_ENTRIES = 4096;
+    public static final String ENV_RESULT_CACHE_TTL_SECONDS_FIELD = "RESULT_CACHE_TTL_SECONDS";
+    public static final String DEFAULT_RESULT_CACHE_TTL_SECONDS =
+            "DNS.GET_ZONE_MASTER=60,PLESK.GET_SUBSCRIPTION_ID_BY_DOMAIN=300,PLESK.FETCH_SUBSCRIPTION_INFO=30";
+    public static final String ENV_RESULT_CACHE_DISK_FIELD = "RESULT_CACHE_DISK";
+    public static final String ENV_USED_TOKEN_AUDIT_LOG_FIELD = "USED_TOKEN_AUDIT_LOG";
+    public static final String ENV_USED_TOKEN_BLOOM_EXPECTED_TOKENS_FIELD = "USED_TOKEN_BLOOM_EXPECTED_TOKENS";
+    public static final String ENV_USED_TOKEN_BLOOM_FP_RATE_FIELD = "USED_TOKEN_BLOOM_FP_RATE";
+    public static final long DEFAULT_USED_TOKEN_BLOOM_EXPECTED_TOKENS = 10_000;
+    public static final double DEFAULT_USED_TOKEN_BLOOM_FP_RATE = 0.001;
+    public static final String ENV_USED_TOKEN_STORE_DIR_FIELD = "USED_TOKEN_STORE_DIR";
+    public static final Path DEFAULT_USED_TOKEN_STORE_DIR = Paths.get("/var/lib/" + APP_NAME);
+    public static final String ENV_USED_TOKEN_DURABILITY_FIELD = "USED_TOKEN_DURABILITY";
+    public static final String DEFAULT_USED_TOKEN_DURABILITY = "group_commit";
+    public static final String ENV_USED_TOKEN_GROUP_COMMIT_WINDOW_MS_FIELD = "USED_TOKEN_GROUP_COMMIT_WINDOW_MS";
+    public static final long DEFAULT_USED_TOKEN_GROUP_COMMIT_WINDOW_MS = 2;
 }
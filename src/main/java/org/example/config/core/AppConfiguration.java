@@ -1,13 +1,23 @@
 package org.example.config.core;
 
 import org.example.config.AppConfigException;
+import org.example.config.constants.EnvironmentConstants;
+import org.example.config.key_ed25519.Ed25519SelfTest;
+import org.example.config.key_ed25519.Ed25519Verifier;
 import org.example.config.key_ed25519.KeyManager;
 import org.example.config.key_ed25519.KeyManagerException;
+import org.example.config.key_ed25519.KeyRefetchGuard;
+import org.example.config.key_ed25519.Keyring;
+import org.example.config.key_ed25519.KeyringHolder;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
+import org.example.operations.AvailableOperation;
 
+import java.io.IOException;
 import java.net.URI;
-import java.security.PublicKey;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.example.utils.Utils.generatePassword;
@@ -17,16 +27,21 @@ public class AppConfiguration {
     private final EnvironmentConfig environmentConfig;
     private final ConfigBootstrapper bootstrapper;
     private final KeyManager keyManager;
+    private final KeyringHolder keyringHolder;
+    private KeyRefetchGuard keyRefetchGuard;
+    private Ed25519Verifier.Provider verifierProvider;
 
 
     private AppConfiguration() {
         this.environmentConfig = new EnvironmentConfig();
         this.bootstrapper = new ConfigBootstrapper(environmentConfig);
-        this.keyManager = new KeyManager(environmentConfig.getPublicKeyPath());
+        this.keyManager = new KeyManager(environmentConfig.getPublicKeyPath(), environmentConfig.getKeyringPath());
+        this.keyringHolder = new KeyringHolder(environmentConfig.getPublicKeyPath(), environmentConfig.getKeyringPath(),
+                keyManager);
     }
 
 
-    public static AppConfiguration getInstance() {
+    public static synchronized AppConfiguration getInstance() {
         if (instance == null) {
             instance = new AppConfiguration();
         }
@@ -68,26 +83,117 @@ public class AppConfiguration {
     }
 
 
+    public boolean isUsedTokenAuditLogEnabled() {
+        return environmentConfig.isUsedTokenAuditLogEnabled();
+    }
+
+    public long getUsedTokenBloomExpectedTokens() {
+        return environmentConfig.getUsedTokenBloomExpectedTokens();
+    }
+
+    public double getUsedTokenBloomFalsePositiveRate() {
+        return environmentConfig.getUsedTokenBloomFalsePositiveRate();
+    }
+
+    public Path getUsedTokenStoreDir() {
+        return environmentConfig.getUsedTokenStoreDir();
+    }
+
+    public String getUsedTokenDurability() {
+        return environmentConfig.getUsedTokenDurability();
+    }
+
+    public long getUsedTokenGroupCommitWindowMillis() {
+        return environmentConfig.getUsedTokenGroupCommitWindowMillis();
+    }
+
+    /**
+     * How far a token's timestamp may lie in the future, to tolerate clock drift between issuer and executor.
+     */
+    public long getTokenClockSkewSeconds() {
+        return environmentConfig.getTokenClockSkewSeconds();
+    }
+
+    /**
+     * Longest accepted span between a token's timestamp and expiry, 0 for no limit.
+     */
+    public long getTokenMaxLifetimeSeconds() {
+        return environmentConfig.getTokenMaxLifetimeSeconds();
+    }
+
+    /**
+     * Concurrency limits for operations that differ from {@link #getOperationDefaultConcurrency()}.
+     */
+    public Map<AvailableOperation, Integer> getOperationConcurrencyLimits() {
+        return environmentConfig.getOperationConcurrencyLimits();
+    }
+
+    public int getOperationDefaultConcurrency() {
+        return atLeastOne(EnvironmentConstants.ENV_OPERATION_DEFAULT_CONCURRENCY_FIELD,
+                environmentConfig.getOperationDefaultConcurrency(),
+                EnvironmentConstants.DEFAULT_OPERATION_DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * Operations allowed to run at once against the same domain or subscription.
+     */
+    public int getOperationPerTargetConcurrency() {
+        return atLeastOne(EnvironmentConstants.ENV_OPERATION_PER_TARGET_CONCURRENCY_FIELD,
+                environmentConfig.getOperationPerTargetConcurrency(),
+                EnvironmentConstants.DEFAULT_OPERATION_PER_TARGET_CONCURRENCY);
+    }
+
+    /**
+     * Run time budgets for operations that differ from {@link #getOperationDefaultTimeoutSeconds()}. An operation is
+     * stopped once it has run that long or its token expires, whichever comes first.
+     */
+    public Map<AvailableOperation, Integer> getOperationTimeoutSeconds() {
+        return environmentConfig.getOperationTimeoutSeconds();
+    }
+
+    public int getOperationDefaultTimeoutSeconds() {
+        return atLeastOne(EnvironmentConstants.ENV_OPERATION_DEFAULT_TIMEOUT_SECONDS_FIELD,
+                environmentConfig.getOperationDefaultTimeoutSeconds(),
+                EnvironmentConstants.DEFAULT_OPERATION_DEFAULT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * Results kept by the {@code serve} result cache; 0 disables it.
+     */
+    public int getResultCacheMaxEntries() {
+        return atLeast(0, EnvironmentConstants.ENV_RESULT_CACHE_MAX_ENTRIES_FIELD,
+                environmentConfig.getResultCacheMaxEntries(),
+                EnvironmentConstants.DEFAULT_RESULT_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * How long the result caches keep a read-only operation's result.
+     */
+    public Map<AvailableOperation, Integer> getResultCacheTtlSeconds() {
+        return environmentConfig.getResultCacheTtlSeconds();
+    }
+
+    /**
+     * Whether one-shot {@code execute} reuses read-only results stored on disk by earlier invocations.
+     */
+    public boolean isResultCacheDiskEnabled() {
+        return environmentConfig.isResultCacheDiskEnabled();
+    }
+
     public ConfigBootstrapper getBootstrapper() {
         return bootstrapper;
     }
 
-    public PublicKey getPublicKey() {
+    /**
+     * Keys tokens may be signed with. The key files are decoded once and only re-read when they change; a key is
+     * fetched from the configured URI only if there is no usable key file.
+     */
+    public Keyring getKeyring() {
+        getVerifierProvider();
         try {
-            Optional<String> fileKey = keyManager.readKeyFromFile();
-            if (fileKey.isPresent()) {
-                getLogger().infoEntry()
-                        .message("Using existing public key from file")
-                        .log();
-
-                try {
-                    return keyManager.convertToPublicKey(fileKey.get());
-                } catch (KeyManagerException e) {
-                    getLogger().errorEntry()
-                            .message("Failed to process existing key file")
-                            .exception(e)
-                            .log();
-                }
+            Optional<Keyring> keyring = keyringHolder.current();
+            if (keyring.isPresent()) {
+                return keyring.get();
             }
 
             URI uri = getPublicKeyURI();
@@ -98,12 +204,62 @@ public class AppConfiguration {
                 throw new AppConfigException("No public key available: file not found and URI not configured");
             }
 
-            return keyManager.getPublicKeyOrFetch(uri);
+            keyManager.fetchKeyAndSave(uri);
+            keyringHolder.invalidate();
+            return keyringHolder.current()
+                    .orElseThrow(() -> new AppConfigException("Fetched public key could not be loaded"));
         } catch (KeyManagerException e) {
             throw new AppConfigException("Failed to retrieve public key", e);
         }
     }
 
+    /**
+     * Lets long-running processes pick up key file changes from a file watch instead of a {@code stat} per token.
+     */
+    public void watchPublicKey() {
+        try {
+            keyringHolder.watch();
+        } catch (IOException e) {
+            getLogger().warnEntry()
+                    .message("Could not watch public key file, checking it on every lookup")
+                    .exception(e)
+                    .log();
+        }
+    }
+
+    /**
+     * The Ed25519 implementation selected by {@code ED25519_VERIFIER}. The built-in verifier is only used once it has
+     * passed the RFC 8032 test vectors in this process; otherwise the JCA provider is used.
+     */
+    public synchronized Ed25519Verifier.Provider getVerifierProvider() {
+        if (verifierProvider != null) {
+            return verifierProvider;
+        }
+        Ed25519Verifier.Provider selected;
+        try {
+            selected = Ed25519Verifier.Provider.parse(environmentConfig.getEd25519Verifier());
+        } catch (IllegalArgumentException e) {
+            getLogger().warnEntry()
+                    .message("Invalid Ed25519 verifier setting, using JCA")
+                    .exception(e)
+                    .log();
+            selected = Ed25519Verifier.Provider.JCA;
+        }
+        if (selected == Ed25519Verifier.Provider.BUILTIN) {
+            Optional<String> failure = Ed25519SelfTest.checkKnownAnswers(selected);
+            if (failure.isPresent()) {
+                getLogger().errorEntry()
+                        .message("Built-in Ed25519 verifier failed its self-test, using JCA")
+                        .field("Failure", failure.get())
+                        .log();
+                selected = Ed25519Verifier.Provider.JCA;
+            }
+        }
+        keyManager.setVerifierProvider(selected);
+        verifierProvider = selected;
+        return selected;
+    }
+
     private CliLogger getLogger() {
         return LogManager.getInstance().getLogger();
     }
@@ -115,15 +271,80 @@ public class AppConfiguration {
     public void setPublicKeyURI(String keyURI) throws KeyManagerException {
         environmentConfig.setPublicKeyURI(keyURI);
         keyManager.fetchKeyAndSave(getPublicKeyURI());
+        keyringHolder.invalidate();
     }
 
-    public void refetchPublicKey() {
-        try {
-            keyManager.fetchKeyAndSave(getPublicKeyURI());
-        } catch (KeyManagerException e) {
+    /**
+     * Refetches the public key after a failed verification. Refetches are coalesced across processes and limited by
+     * a cool-down and a circuit breaker, so only {@link KeyRefetchGuard.RefetchOutcome#REFRESHED} warrants verifying
+     * the token again.
+     */
+    public KeyRefetchGuard.RefetchOutcome refetchPublicKey() {
+        KeyRefetchGuard.RefetchOutcome outcome = getKeyRefetchGuard().refetch(() -> {
+            URI uri = getPublicKeyURI();
+            if (uri == null) {
+                throw new KeyManagerException("Public key URI is not configured");
+            }
+            return keyManager.fetchKeyAndSaveIfChanged(uri);
+        });
+        if (outcome == KeyRefetchGuard.RefetchOutcome.REFRESHED) {
+            keyringHolder.invalidate();
+        }
+        return outcome;
+    }
+
+    private synchronized KeyRefetchGuard getKeyRefetchGuard() {
+        if (keyRefetchGuard == null) {
+            keyRefetchGuard = new KeyRefetchGuard(environmentConfig.getPublicKeyRefetchStatePath(),
+                    getKeyRefetchPolicy());
+        }
+        return keyRefetchGuard;
+    }
+
+    /**
+     * A limit or timeout of zero would hold back every operation, so values outside {@code 1..Integer.MAX_VALUE} fall
+     * back to the default.
+     */
+    private int atLeastOne(String key,
+                           long value,
+                           long defaultValue) {
+        return atLeast(1, key, value, defaultValue);
+    }
+
+    /**
+     * @return {@code value} if it lies between {@code min} and {@link Integer#MAX_VALUE}, otherwise {@code defaultValue}
+     */
+    private int atLeast(long min,
+                        String key,
+                        long value,
+                        long defaultValue) {
+        if (value < min || value > Integer.MAX_VALUE) {
+            getLogger().warnEntry()
+                    .message("Invalid " + key + ", using default")
+                    .field("Value", value)
+                    .field("Default", defaultValue)
+                    .log();
+            return (int) defaultValue;
+        }
+        return (int) value;
+    }
 
-            throw new RuntimeException(e);
+    private KeyRefetchGuard.Policy getKeyRefetchPolicy() {
+        long cooldown = environmentConfig.getPublicKeyRefetchCooldownSeconds();
+        long threshold = environmentConfig.getPublicKeyRefetchFailureThreshold();
+        long open = environmentConfig.getPublicKeyRefetchOpenSeconds();
+        if (cooldown < 0 || threshold < 1 || threshold > Integer.MAX_VALUE || open < 0) {
+            getLogger().warnEntry()
+                    .message("Invalid public key refetch settings, using defaults")
+                    .field("CooldownSeconds", cooldown)
+                    .field("FailureThreshold", threshold)
+                    .field("OpenSeconds", open)
+                    .log();
+            cooldown = EnvironmentConstants.DEFAULT_PUBLIC_KEY_REFETCH_COOLDOWN_SECONDS;
+            threshold = EnvironmentConstants.DEFAULT_PUBLIC_KEY_REFETCH_FAILURE_THRESHOLD;
+            open = EnvironmentConstants.DEFAULT_PUBLIC_KEY_REFETCH_OPEN_SECONDS;
         }
+        return new KeyRefetchGuard.Policy(Duration.ofSeconds(cooldown), (int) threshold, Duration.ofSeconds(open));
     }
 
-}
\ No newline at end of file
+}
@@ -80,8 +80,8 @@ public class ConfigBootstrapper {
 
     private void ensurePublicKey() {
         logger.debugEntry().message("Ensuring public key is present.").log();
-        KeyManager km = new KeyManager(environmentConfig.getPublicKeyPath());
-        if (km.readKeyFromFile().isEmpty()) {
+        KeyManager km = new KeyManager(environmentConfig.getPublicKeyPath(), environmentConfig.getKeyringPath());
+        if (km.readKeyFromFile().isEmpty() && km.readKeyringFromFile().isEmpty()) {
             try {
                 km.fetchKeyAndSave(environmentConfig.getPublicKeyURI());
             } catch (AppConfigException e) {
@@ -8,6 +8,7 @@ import org.example.config.constants.EnvironmentConstants;
 import org.example.config.security.FileAccessPolicy;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
+import org.example.operations.AvailableOperation;
 import org.example.utils.ShellUtils;
 import org.example.utils.Utils;
 
@@ -58,6 +59,183 @@ public class EnvironmentConfig {
         return configMap.get(key);
     }
 
+    public boolean isUsedTokenAuditLogEnabled() {
+        return getBoolean(EnvironmentConstants.ENV_USED_TOKEN_AUDIT_LOG_FIELD, true);
+    }
+
+    public long getUsedTokenBloomExpectedTokens() {
+        return getLong(EnvironmentConstants.ENV_USED_TOKEN_BLOOM_EXPECTED_TOKENS_FIELD,
+                EnvironmentConstants.DEFAULT_USED_TOKEN_BLOOM_EXPECTED_TOKENS);
+    }
+
+    public double getUsedTokenBloomFalsePositiveRate() {
+        return getDouble(EnvironmentConstants.ENV_USED_TOKEN_BLOOM_FP_RATE_FIELD,
+                EnvironmentConstants.DEFAULT_USED_TOKEN_BLOOM_FP_RATE);
+    }
+
+    public Path getUsedTokenStoreDir() {
+        String value = getValue(EnvironmentConstants.ENV_USED_TOKEN_STORE_DIR_FIELD);
+        if (value == null || value.isBlank()) {
+            return EnvironmentConstants.DEFAULT_USED_TOKEN_STORE_DIR;
+        }
+        return Paths.get(value.trim());
+    }
+
+    public String getUsedTokenDurability() {
+        String value = getValue(EnvironmentConstants.ENV_USED_TOKEN_DURABILITY_FIELD);
+        if (value == null || value.isBlank()) {
+            return EnvironmentConstants.DEFAULT_USED_TOKEN_DURABILITY;
+        }
+        return value.trim();
+    }
+
+    public long getUsedTokenGroupCommitWindowMillis() {
+        return getLong(EnvironmentConstants.ENV_USED_TOKEN_GROUP_COMMIT_WINDOW_MS_FIELD,
+                EnvironmentConstants.DEFAULT_USED_TOKEN_GROUP_COMMIT_WINDOW_MS);
+    }
+
+    public long getPublicKeyRefetchCooldownSeconds() {
+        return getLong(EnvironmentConstants.ENV_PUBLIC_KEY_REFETCH_COOLDOWN_SECONDS_FIELD,
+                EnvironmentConstants.DEFAULT_PUBLIC_KEY_REFETCH_COOLDOWN_SECONDS);
+    }
+
+    public long getPublicKeyRefetchFailureThreshold() {
+        return getLong(EnvironmentConstants.ENV_PUBLIC_KEY_REFETCH_FAILURE_THRESHOLD_FIELD,
+                EnvironmentConstants.DEFAULT_PUBLIC_KEY_REFETCH_FAILURE_THRESHOLD);
+    }
+
+    public long getPublicKeyRefetchOpenSeconds() {
+        return getLong(EnvironmentConstants.ENV_PUBLIC_KEY_REFETCH_OPEN_SECONDS_FIELD,
+                EnvironmentConstants.DEFAULT_PUBLIC_KEY_REFETCH_OPEN_SECONDS);
+    }
+
+    public String getEd25519Verifier() {
+        String value = getValue(EnvironmentConstants.ENV_ED25519_VERIFIER_FIELD);
+        if (value == null || value.isBlank()) {
+            return EnvironmentConstants.DEFAULT_ED25519_VERIFIER;
+        }
+        return value.trim();
+    }
+
+    public long getTokenClockSkewSeconds() {
+        return getLong(EnvironmentConstants.ENV_TOKEN_CLOCK_SKEW_SECONDS_FIELD,
+                EnvironmentConstants.DEFAULT_TOKEN_CLOCK_SKEW_SECONDS);
+    }
+
+    public long getTokenMaxLifetimeSeconds() {
+        return getLong(EnvironmentConstants.ENV_TOKEN_MAX_LIFETIME_SECONDS_FIELD,
+                EnvironmentConstants.DEFAULT_TOKEN_MAX_LIFETIME_SECONDS);
+    }
+
+    /**
+     * Parses {@code OPERATION_CONCURRENCY_LIMITS}, a comma-separated list of {@code OPERATION=LIMIT} pairs such as
+     * {@code PLESK.GET_LOGIN_LINK=2,DNS.REMOVE_ZONE=1}.
+     */
+    public Map<AvailableOperation, Integer> getOperationConcurrencyLimits() {
+        return getOperationValues(EnvironmentConstants.ENV_OPERATION_CONCURRENCY_LIMITS_FIELD,
+                EnvironmentConstants.DEFAULT_OPERATION_CONCURRENCY_LIMITS, 1);
+    }
+
+    public long getOperationDefaultConcurrency() {
+        return getLong(EnvironmentConstants.ENV_OPERATION_DEFAULT_CONCURRENCY_FIELD,
+                EnvironmentConstants.DEFAULT_OPERATION_DEFAULT_CONCURRENCY);
+    }
+
+    public long getOperationPerTargetConcurrency() {
+        return getLong(EnvironmentConstants.ENV_OPERATION_PER_TARGET_CONCURRENCY_FIELD,
+                EnvironmentConstants.DEFAULT_OPERATION_PER_TARGET_CONCURRENCY);
+    }
+
+    /**
+     * Parses {@code OPERATION_TIMEOUT_SECONDS}, {@code OPERATION=SECONDS} pairs in the format of
+     * {@link #getOperationConcurrencyLimits()}.
+     */
+    public Map<AvailableOperation, Integer> getOperationTimeoutSeconds() {
+        return getOperationValues(EnvironmentConstants.ENV_OPERATION_TIMEOUT_SECONDS_FIELD,
+                EnvironmentConstants.DEFAULT_OPERATION_TIMEOUT_SECONDS, 1);
+    }
+
+    public long getOperationDefaultTimeoutSeconds() {
+        return getLong(EnvironmentConstants.ENV_OPERATION_DEFAULT_TIMEOUT_SECONDS_FIELD,
+                EnvironmentConstants.DEFAULT_OPERATION_DEFAULT_TIMEOUT_SECONDS);
+    }
+
+    public long getResultCacheMaxEntries() {
+        return getLong(EnvironmentConstants.ENV_RESULT_CACHE_MAX_ENTRIES_FIELD,
+                EnvironmentConstants.DEFAULT_RESULT_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * Parses {@code RESULT_CACHE_TTL_SECONDS}, {@code OPERATION=SECONDS} pairs in the format of
+     * {@link #getOperationConcurrencyLimits()}. A TTL of 0 disables caching for that operation.
+     */
+    public Map<AvailableOperation, Integer> getResultCacheTtlSeconds() {
+        return getOperationValues(EnvironmentConstants.ENV_RESULT_CACHE_TTL_SECONDS_FIELD,
+                EnvironmentConstants.DEFAULT_RESULT_CACHE_TTL_SECONDS, 0);
+    }
+
+    public boolean isResultCacheDiskEnabled() {
+        return getBoolean(EnvironmentConstants.ENV_RESULT_CACHE_DISK_FIELD, true);
+    }
+
+    private Map<AvailableOperation, Integer> getOperationValues(String key,
+                                                                String defaultValue,
+                                                                int minimum) {
+        String value = getValue(key);
+        if (value == null || value.isBlank()) {
+            value = defaultValue;
+        }
+        Map<AvailableOperation, Integer> values = new HashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            try {
+                int number = Integer.parseInt(parts[1].trim());
+                if (number < minimum) {
+                    throw new IllegalArgumentException("Value must be at least " + minimum);
+                }
+                values.put(AvailableOperation.valueOf(parts[0].trim()), number);
+            } catch (RuntimeException e) {
+                throw new AppConfigException("Invalid entry in " + key + ": " + entry, e);
+            }
+        }
+        return values;
+    }
+
+    private long getLong(String key,
+                         long defaultValue) {
+        String value = getValue(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new AppConfigException("Invalid integer value for " + key + ": " + value, e);
+        }
+    }
+
+    private double getDouble(String key,
+                             double defaultValue) {
+        String value = getValue(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new AppConfigException("Invalid number value for " + key + ": " + value, e);
+        }
+    }
+
+    private boolean getBoolean(String key,
+                               boolean defaultValue) {
+        String value = getValue(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
     public String getEnvDbPassFieldName() {
         return EnvironmentConstants.ENV_DB_PASS_FIELD;
     }
@@ -166,6 +344,14 @@ public class EnvironmentConfig {
                 new EnvironmentConfig().getConfigDir().toString() + "/" + EnvironmentConstants.PUBLIC_KEY_FILENAME);
     }
 
+    public Path getKeyringPath() {
+        return getPublicKeyPath().resolveSibling(EnvironmentConstants.KEYRING_FILENAME);
+    }
+
+    public Path getPublicKeyRefetchStatePath() {
+        return getPublicKeyPath().resolveSibling(EnvironmentConstants.PUBLIC_KEY_REFETCH_STATE_FILENAME);
+    }
+
     public URI getPublicKeyURI() throws AppConfigException {
         String uriString = configMap.get(EnvironmentConstants.ENV_PUBLIC_KEY_URI_FIELD);
 
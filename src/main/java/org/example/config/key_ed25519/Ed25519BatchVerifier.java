@@ -0,0 +1,231 @@
+package org.example.config.key_ed25519;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies many Ed25519 signatures at once with the randomized batch equation
+ * <pre>
+ * [8] ( [-sum z_i S_i] B + sum [z_i] R_i + sum [z_i h_i] A_i ) = 0
+ * </pre>
+ * for random 128-bit z_i, evaluated as one multi-scalar multiplication that shares its doublings across all
+ * signatures and merges the terms of signatures made with the same key. If the equation does not hold the batch is
+ * split in halves until the invalid signatures are isolated; groups below {@value #MIN_BATCH_SIZE} signatures, and
+ * signatures whose R or key does not decode, are checked one by one with the key's own {@link Ed25519Verifier}.
+ * <p>
+ * Only keys verified by {@link Ed25519Builtin} take part, so the batch never bypasses the verifier the configuration
+ * selected, and only keys without a small-order component. The batch equation is the cofactored one, the
+ * single-signature check is not: signatures whose R is of small order are therefore checked one by one, so that a
+ * batch does not accept them where a single check rejects them. An R with both a prime-order and a small-order part
+ * would still pass a batch only; producing a valid signature with one takes the private key.
+ */
+public final class Ed25519BatchVerifier {
+    static final int MIN_BATCH_SIZE = 4;
+    private static final int R_WIDTH = 5;
+    private static final int Z_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<MessageDigest> SHA_512 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-512");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-512 is not available", e);
+        }
+    });
+
+    private Ed25519BatchVerifier() {
+    }
+
+    /**
+     * @return per item, whether its signature is valid for its message and key
+     */
+    public static boolean[] verify(List<Item> items) {
+        boolean[] results = new boolean[items.size()];
+        EdwardsPoint.Scratch scratch = new EdwardsPoint.Scratch();
+        List<Prepared> batchable = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Prepared prepared = prepare(i, items.get(i), scratch);
+            if (prepared == null) {
+                results[i] = verifySingle(items.get(i));
+            } else {
+                batchable.add(prepared);
+            }
+        }
+        verifyGroup(batchable, results, scratch);
+        return results;
+    }
+
+    private static void verifyGroup(List<Prepared> group,
+                                    boolean[] results,
+                                    EdwardsPoint.Scratch scratch) {
+        if (group.size() < MIN_BATCH_SIZE) {
+            for (Prepared prepared : group) {
+                results[prepared.index()] = verifySingle(prepared.item());
+            }
+            return;
+        }
+        if (batchEquationHolds(group, scratch)) {
+            for (Prepared prepared : group) {
+                results[prepared.index()] = true;
+            }
+            return;
+        }
+        int half = group.size() / 2;
+        verifyGroup(group.subList(0, half), results, scratch);
+        verifyGroup(group.subList(half, group.size()), results, scratch);
+    }
+
+    private static boolean verifySingle(Item item) {
+        try {
+            return item.key().verify(item.message(), item.signature());
+        } catch (SignatureException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodes R, checks that S is canonical and hashes the message.
+     *
+     * @return null if the signature cannot take part in a batch
+     */
+    private static Prepared prepare(int index,
+                                    Item item,
+                                    EdwardsPoint.Scratch scratch) {
+        byte[] signature = item.signature();
+        if (signature == null || signature.length != Ed25519Builtin.SIGNATURE_LENGTH ||
+                !Scalar25519.isCanonical(signature, 32) || !item.key().isBatchable()) {
+            return null;
+        }
+        EdwardsPoint r = new EdwardsPoint();
+        if (!r.decode(signature, 0, scratch) || hasSmallOrder(r, scratch)) {
+            return null;
+        }
+        MessageDigest sha512 = SHA_512.get();
+        sha512.update(signature, 0, 32);
+        sha512.update(item.key().encodedPoint());
+        sha512.update(item.message());
+        BigInteger h = Scalar25519.toBigInteger(sha512.digest(), 0, 64).mod(Scalar25519.L);
+        BigInteger s = Scalar25519.toBigInteger(signature, 32, 32);
+        return new Prepared(index, item, r, s, h);
+    }
+
+    private static boolean batchEquationHolds(List<Prepared> group,
+                                              EdwardsPoint.Scratch scratch) {
+        int count = group.size();
+        List<EdwardsPoint.Cached[]> tables = new ArrayList<>(count + 2);
+        List<byte[]> digits = new ArrayList<>(count + 2);
+
+        BigInteger sumS = BigInteger.ZERO;
+        Map<Ed25519Verifier, BigInteger> keyScalars = new IdentityHashMap<>();
+        byte[] zBytes = new byte[Z_BYTES];
+        for (Prepared prepared : group) {
+            RANDOM.nextBytes(zBytes);
+            BigInteger z = Scalar25519.toBigInteger(zBytes, 0, Z_BYTES);
+            if (z.signum() == 0) {
+                z = BigInteger.ONE;
+            }
+            sumS = sumS.add(z.multiply(prepared.s()));
+            keyScalars.merge(prepared.item().key(), z.multiply(prepared.h()), BigInteger::add);
+
+            tables.add(EdwardsPoint.oddMultiples(prepared.r(), R_WIDTH, scratch));
+            digits.add(slide(z, R_WIDTH));
+        }
+        for (Map.Entry<Ed25519Verifier, BigInteger> entry : keyScalars.entrySet()) {
+            tables.add(entry.getKey().table());
+            digits.add(slide(entry.getValue().mod(Scalar25519.L), Ed25519Verifier.TABLE_WIDTH));
+        }
+        tables.add(Ed25519Builtin.BASE_TABLE);
+        digits.add(slide(sumS.negate().mod(Scalar25519.L), Ed25519Builtin.BASE_WIDTH));
+
+        EdwardsPoint result = new EdwardsPoint();
+        multiScalarMultiply(result, tables, digits, scratch);
+        EdwardsPoint.dbl(result, result, scratch);
+        EdwardsPoint.dbl(result, result, scratch);
+        EdwardsPoint.dbl(result, result, scratch);
+        return result.isIdentity(scratch);
+    }
+
+    /**
+     * @return whether {@code [8] point} is the identity
+     */
+    private static boolean hasSmallOrder(EdwardsPoint point,
+                                         EdwardsPoint.Scratch scratch) {
+        EdwardsPoint multiple = new EdwardsPoint();
+        EdwardsPoint.dbl(multiple, point, scratch);
+        EdwardsPoint.dbl(multiple, multiple, scratch);
+        EdwardsPoint.dbl(multiple, multiple, scratch);
+        return multiple.isIdentity(scratch);
+    }
+
+    /**
+     * @param table odd multiples of the point for {@code width}-bit windows
+     * @return whether {@code [L] point} is the identity, i.e. the point lies in the prime-order subgroup
+     */
+    static boolean isTorsionFree(EdwardsPoint.Cached[] table,
+                                 int width) {
+        EdwardsPoint.Scratch scratch = new EdwardsPoint.Scratch();
+        EdwardsPoint result = new EdwardsPoint();
+        List<EdwardsPoint.Cached[]> tables = List.<EdwardsPoint.Cached[]>of(table);
+        multiScalarMultiply(result, tables, List.of(slide(Scalar25519.L, width)), scratch);
+        return result.isIdentity(scratch);
+    }
+
+    private static byte[] slide(BigInteger scalar,
+                                int width) {
+        byte[] digits = new byte[256];
+        Scalar25519.slide(digits, Scalar25519.toBytes(scalar), width);
+        return digits;
+    }
+
+    /**
+     * Interleaved sliding-window evaluation of {@code sum digits_j * P_j}: one doubling per bit shared by all
+     * points, one addition per non-zero digit.
+     */
+    static void multiScalarMultiply(EdwardsPoint result,
+                                    List<EdwardsPoint.Cached[]> tables,
+                                    List<byte[]> digits,
+                                    EdwardsPoint.Scratch scratch) {
+        result.setIdentity();
+        int top = 255;
+        while (top >= 0 && allZero(digits, top)) {
+            top--;
+        }
+        for (int i = top; i >= 0; i--) {
+            EdwardsPoint.dbl(result, result, scratch);
+            for (int j = 0; j < digits.size(); j++) {
+                int digit = digits.get(j)[i];
+                if (digit > 0) {
+                    EdwardsPoint.add(result, result, tables.get(j)[digit >> 1], scratch);
+                } else if (digit < 0) {
+                    EdwardsPoint.subtract(result, result, tables.get(j)[-digit >> 1], scratch);
+                }
+            }
+        }
+    }
+
+    private static boolean allZero(List<byte[]> digits,
+                                   int position) {
+        for (byte[] scalarDigits : digits) {
+            if (scalarDigits[position] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param key       the key the signature should verify with
+     * @param signature the 64-byte signature R || S
+     */
+    public record Item(Ed25519Verifier key, byte[] message, byte[] signature) {
+    }
+
+    private record Prepared(int index, Item item, EdwardsPoint r, BigInteger s, BigInteger h) {
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.config.key_ed25519;
+
+import java.math.BigInteger;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Pure-Java Ed25519 signature check per RFC 8032, section 5.1.7, used instead of the JCA provider when
+ * {@link Ed25519Verifier.Provider#BUILTIN} is selected.
+ * <p>
+ * The key is decompressed once into a table of odd multiples (see {@link Ed25519Verifier}); a check then recodes S and
+ * h = SHA-512(R || A || M) mod L into sliding windows and evaluates [S]B - [h]A in a single pass over 253 bits with a
+ * fixed {@value #BASE_WIDTH}-bit table for B, then compares its encoding with R. All buffers live in a per-thread
+ * {@link Workspace}, so a check allocates nothing once the thread has verified its first signature.
+ */
+final class Ed25519Builtin {
+    static final int SIGNATURE_LENGTH = 64;
+    static final int BASE_WIDTH = 8;
+    static final EdwardsPoint.Cached[] BASE_TABLE;
+    private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+    static {
+        // RFC 8032: B = (x, 4/5) with x even.
+        byte[] encodedBase = Scalar25519.toBytes(BigInteger.valueOf(4)
+                .multiply(BigInteger.valueOf(5).modInverse(Field25519.P)).mod(Field25519.P));
+        EdwardsPoint.Scratch scratch = new EdwardsPoint.Scratch();
+        EdwardsPoint base = new EdwardsPoint();
+        if (!base.decode(encodedBase, 0, scratch)) {
+            throw new IllegalStateException("Cannot decode the Ed25519 base point");
+        }
+        BASE_TABLE = EdwardsPoint.oddMultiples(base, BASE_WIDTH, scratch);
+    }
+
+    private Ed25519Builtin() {
+    }
+
+    /**
+     * @param encodedKey the key's 32-byte point encoding
+     * @param keyTable   odd multiples of the key's point for {@link Ed25519Verifier#TABLE_WIDTH}-bit windows
+     */
+    static boolean verify(byte[] encodedKey,
+                          EdwardsPoint.Cached[] keyTable,
+                          byte[] message,
+                          byte[] signature) {
+        if (signature == null || signature.length != SIGNATURE_LENGTH || !Scalar25519.isCanonical(signature, 32)) {
+            return false;
+        }
+        Workspace w = WORKSPACE.get();
+        MessageDigest sha512 = w.sha512;
+        sha512.update(signature, 0, 32);
+        sha512.update(encodedKey);
+        sha512.update(message);
+        try {
+            sha512.digest(w.hash, 0, w.hash.length);
+        } catch (DigestException e) {
+            throw new IllegalStateException("SHA-512 digest buffer too small", e);
+        }
+        Scalar25519.reduce(w.h, w.hash, w.limbs);
+        System.arraycopy(signature, 32, w.s, 0, 32);
+        Scalar25519.slide(w.hDigits, w.h, Ed25519Verifier.TABLE_WIDTH);
+        Scalar25519.slide(w.sDigits, w.s, BASE_WIDTH);
+
+        // R' = [S]B - [h]A
+        EdwardsPoint r = w.point;
+        EdwardsPoint.Scratch scratch = w.scratch;
+        r.setIdentity();
+        int top = 255;
+        while (top >= 0 && w.hDigits[top] == 0 && w.sDigits[top] == 0) {
+            top--;
+        }
+        for (int i = top; i >= 0; i--) {
+            EdwardsPoint.dbl(r, r, scratch);
+            int s = w.sDigits[i];
+            if (s > 0) {
+                EdwardsPoint.add(r, r, BASE_TABLE[s >> 1], scratch);
+            } else if (s < 0) {
+                EdwardsPoint.subtract(r, r, BASE_TABLE[-s >> 1], scratch);
+            }
+            int h = w.hDigits[i];
+            if (h > 0) {
+                EdwardsPoint.subtract(r, r, keyTable[h >> 1], scratch);
+            } else if (h < 0) {
+                EdwardsPoint.add(r, r, keyTable[-h >> 1], scratch);
+            }
+        }
+        r.encode(w.encoded, 0, scratch);
+        int diff = 0;
+        for (int i = 0; i < 32; i++) {
+            diff |= w.encoded[i] ^ signature[i];
+        }
+        return diff == 0;
+    }
+
+    private static final class Workspace {
+        final MessageDigest sha512;
+        final byte[] hash = new byte[64];
+        final long[] limbs = new long[Scalar25519.REDUCE_LIMBS];
+        final byte[] h = new byte[32];
+        final byte[] s = new byte[32];
+        final byte[] hDigits = new byte[256];
+        final byte[] sDigits = new byte[256];
+        final byte[] encoded = new byte[32];
+        final EdwardsPoint point = new EdwardsPoint();
+        final EdwardsPoint.Scratch scratch = new EdwardsPoint.Scratch();
+
+        Workspace() {
+            try {
+                sha512 = MessageDigest.getInstance("SHA-512");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-512 is not available", e);
+            }
+        }
+    }
+}
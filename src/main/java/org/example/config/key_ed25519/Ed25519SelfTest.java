@@ -0,0 +1,155 @@
+package org.example.config.key_ed25519;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * Cross-checks {@link Ed25519Verifier} providers: the RFC 8032, section 7.1 test vectors, and a differential run
+ * comparing the built-in verifier with the JCA provider on random keys, messages and corrupted signatures.
+ */
+public final class Ed25519SelfTest {
+    private static final String X509_PREFIX = "302a300506032b6570032100";
+    private static final String[][] RFC8032_VECTORS = {
+            // TEST 1
+            {"d75a980182b10ab7d54bfed3c964073a0ee172f3daa62325af021a68f707511a",
+                    "",
+                    "e5564300c360ac729086e2cc806e828a84877f1eb8e5d974d873e06522490155"
+                            + "5fb8821590a33bacc61e39701cf9b46bd25bf5f0595bbe24655141438e7a100b"},
+            // TEST 2
+            {"3d4017c3e843895a92b70aa74d1b7ebc9c982ccf2ec4968cc0cd55f12af4660c",
+                    "72",
+                    "92a009a9f0d4cab8720e820b5f642540a2b27b5416503f8fb3762223ebdb69da"
+                            + "085ac1e43e15996e458f3613d0f11d8c387b2eaeb4302aeeb00d291612bb0c00"},
+            // TEST 3
+            {"fc51cd8e6218a1a38da47ed00230f0580816ed13ba3303ac5deb911548908025",
+                    "af82",
+                    "6291d657deec24024827e69c3abe01a30ce548a284743a445e3680d7db5ac3ac"
+                            + "18ff9b538d16f290ae67f760984dc6594a7c15e9716ed28dc027beceea1ec40a"},
+    };
+    private static final int ROUNDS_PER_KEY = 16;
+
+    private Ed25519SelfTest() {
+    }
+
+    /**
+     * Verifies the RFC 8032 vectors and corrupted copies of them.
+     *
+     * @return a description of the first failure, empty if all vectors behave as specified
+     */
+    public static Optional<String> checkKnownAnswers(Ed25519Verifier.Provider provider) {
+        HexFormat hex = HexFormat.of();
+        for (int i = 0; i < RFC8032_VECTORS.length; i++) {
+            String[] vector = RFC8032_VECTORS[i];
+            try {
+                Ed25519Verifier verifier = new Ed25519Verifier(rawKey(hex.parseHex(vector[0])), provider);
+                byte[] message = hex.parseHex(vector[1]);
+                byte[] signature = hex.parseHex(vector[2]);
+                if (!verifier.verify(message, signature)) {
+                    return Optional.of("RFC 8032 test " + (i + 1) + " was rejected");
+                }
+                signature[i] ^= 1;
+                if (verifyQuietly(verifier, message, signature)) {
+                    return Optional.of("RFC 8032 test " + (i + 1) + " with a corrupted R was accepted");
+                }
+                signature[i] ^= 1;
+                signature[32 + i] ^= 1;
+                if (verifyQuietly(verifier, message, signature)) {
+                    return Optional.of("RFC 8032 test " + (i + 1) + " with a corrupted S was accepted");
+                }
+            } catch (KeyManagerException | GeneralSecurityException e) {
+                return Optional.of("RFC 8032 test " + (i + 1) + " failed: " + e.getMessage());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Compares the built-in verifier with the JCA provider on {@code rounds} random messages, each checked with its
+     * valid signature, a bit-flipped signature, a bit-flipped message and a non-canonical S.
+     */
+    public static DifferentialResult checkAgainstJca(int rounds,
+                                                     Random random) throws GeneralSecurityException,
+            KeyManagerException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("Ed25519");
+        Signature signer = Signature.getInstance("Ed25519");
+        KeyPair keyPair = null;
+        Ed25519Verifier jca = null;
+        Ed25519Verifier builtin = null;
+        int checks = 0;
+        int mismatches = 0;
+        String firstMismatch = null;
+        for (int round = 0; round < rounds; round++) {
+            if (round % ROUNDS_PER_KEY == 0) {
+                keyPair = generator.generateKeyPair();
+                jca = new Ed25519Verifier(keyPair.getPublic(), Ed25519Verifier.Provider.JCA);
+                builtin = new Ed25519Verifier(keyPair.getPublic(), Ed25519Verifier.Provider.BUILTIN);
+            }
+            byte[] message = new byte[random.nextInt(257)];
+            random.nextBytes(message);
+            signer.initSign(keyPair.getPrivate());
+            signer.update(message);
+            byte[] signature = signer.sign();
+
+            byte[][] signatures = {signature.clone(), signature.clone(), signature.clone(), nonCanonicalS(signature)};
+            signatures[1][random.nextInt(64)] ^= (byte) (1 << random.nextInt(8));
+            byte[] otherMessage = message.length == 0 ? new byte[]{0} : message.clone();
+            otherMessage[random.nextInt(otherMessage.length)] ^= 1;
+            byte[][] messages = {message, message, otherMessage, message};
+
+            for (int i = 0; i < signatures.length; i++) {
+                checks++;
+                boolean expected = verifyQuietly(jca, messages[i], signatures[i]);
+                if (verifyQuietly(builtin, messages[i], signatures[i]) != expected) {
+                    mismatches++;
+                    if (firstMismatch == null) {
+                        firstMismatch = "round " + round + ", case " + i + ": JCA " + (expected ? "accepted" :
+                                "rejected") + " signature " + HexFormat.of().formatHex(signatures[i]);
+                    }
+                }
+            }
+        }
+        return new DifferentialResult(checks, mismatches, Optional.ofNullable(firstMismatch));
+    }
+
+    /**
+     * The signature with L added to S, which encodes the same scalar but must be rejected.
+     */
+    private static byte[] nonCanonicalS(byte[] signature) {
+        byte[] corrupted = signature.clone();
+        byte[] l = Scalar25519.toBytes(Scalar25519.L);
+        int carry = 0;
+        for (int i = 0; i < 32; i++) {
+            int sum = (corrupted[32 + i] & 0xff) + (l[i] & 0xff) + carry;
+            corrupted[32 + i] = (byte) sum;
+            carry = sum >> 8;
+        }
+        return corrupted;
+    }
+
+    private static boolean verifyQuietly(Ed25519Verifier verifier,
+                                         byte[] message,
+                                         byte[] signature) {
+        try {
+            return verifier.verify(message, signature);
+        } catch (SignatureException e) {
+            return false;
+        }
+    }
+
+    private static PublicKey rawKey(byte[] key) throws GeneralSecurityException {
+        byte[] encoded = HexFormat.of().parseHex(X509_PREFIX + HexFormat.of().formatHex(key));
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+
+    public record DifferentialResult(int checks, int mismatches, Optional<String> firstMismatch) {
+    }
+}
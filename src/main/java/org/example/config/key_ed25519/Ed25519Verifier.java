@@ -0,0 +1,157 @@
+package org.example.config.key_ed25519;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.Arrays;
+
+/**
+ * Ed25519 verifier bound to one public key, backed by the JCA provider or by {@link Ed25519Builtin}.
+ * <p>
+ * {@link Signature} is not thread safe, so with the JCA provider each thread keeps its own instance, initialised once;
+ * {@link Signature#verify(byte[])} resets it for the next message. The built-in verifier decompresses the key into its
+ * window table when the verifier is created.
+ */
+public final class Ed25519Verifier {
+    private static final String ED25519_ALGORITHM = "Ed25519";
+    private static final int X509_PREFIX_LENGTH = 12;
+    static final int KEY_LENGTH = 32;
+    static final int TABLE_WIDTH = 6;
+    private final PublicKey publicKey;
+    private final Provider provider;
+    private final byte[] encodedPoint;
+    private final ThreadLocal<Signature> signatures;
+    private volatile EdwardsPoint.Cached[] table;
+    private volatile boolean pointInvalid;
+    private volatile Boolean batchable;
+
+    public Ed25519Verifier(PublicKey publicKey) throws KeyManagerException {
+        this(publicKey, Provider.JCA);
+    }
+
+    public Ed25519Verifier(PublicKey publicKey,
+                           Provider provider) throws KeyManagerException {
+        this.publicKey = publicKey;
+        this.provider = provider;
+        this.signatures = ThreadLocal.withInitial(this::newSignature);
+        byte[] encoded = publicKey.getEncoded();
+        if (encoded == null || encoded.length != X509_PREFIX_LENGTH + KEY_LENGTH) {
+            throw new KeyManagerException("Unexpected Ed25519 public key encoding");
+        }
+        this.encodedPoint = Arrays.copyOfRange(encoded, X509_PREFIX_LENGTH, encoded.length);
+
+        if (provider == Provider.BUILTIN) {
+            if (table() == null) {
+                throw new KeyManagerException("Public key is not a valid Ed25519 point");
+            }
+            return;
+        }
+        try {
+            newSignature(publicKey);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new KeyManagerException("Public key cannot be used for Ed25519 verification", e);
+        }
+    }
+
+    public boolean verify(byte[] message,
+                          byte[] signature) throws SignatureException {
+        if (provider == Provider.BUILTIN) {
+            return Ed25519Builtin.verify(encodedPoint, table, message, signature);
+        }
+        Signature verifier = signatures.get();
+        try {
+            verifier.update(message);
+            return verifier.verify(signature);
+        } catch (SignatureException e) {
+            // A failed verify may leave the message buffered; start the next one from a fresh instance.
+            signatures.remove();
+            throw e;
+        }
+    }
+
+    public PublicKey publicKey() {
+        return publicKey;
+    }
+
+    public Provider provider() {
+        return provider;
+    }
+
+    /**
+     * The key as the 32-byte point encoding of RFC 8032.
+     */
+    byte[] encodedPoint() {
+        return encodedPoint;
+    }
+
+    /**
+     * Odd multiples of the key's point for {@link #TABLE_WIDTH}-bit windows, computed on first use.
+     *
+     * @return null if the key does not decode to a curve point
+     */
+    EdwardsPoint.Cached[] table() {
+        EdwardsPoint.Cached[] current = table;
+        if (current == null && !pointInvalid) {
+            EdwardsPoint.Scratch scratch = new EdwardsPoint.Scratch();
+            EdwardsPoint point = new EdwardsPoint();
+            if (point.decode(encodedPoint, 0, scratch)) {
+                current = EdwardsPoint.oddMultiples(point, TABLE_WIDTH, scratch);
+                table = current;
+            } else {
+                pointInvalid = true;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Whether signatures for this key may go through {@link Ed25519BatchVerifier}: the key is verified by
+     * {@link Ed25519Builtin}, whose arithmetic the batch shares, and its point has no small-order component, on which
+     * the cofactored batch equation and the cofactorless single check would disagree. Decided once per key.
+     */
+    boolean isBatchable() {
+        Boolean current = batchable;
+        if (current == null) {
+            EdwardsPoint.Cached[] points = provider == Provider.BUILTIN ? table() : null;
+            current = points != null && Ed25519BatchVerifier.isTorsionFree(points, TABLE_WIDTH);
+            batchable = current;
+        }
+        return current;
+    }
+
+    private Signature newSignature() {
+        try {
+            return newSignature(publicKey);
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Public key was validated on construction", e);
+        }
+    }
+
+    private static Signature newSignature(PublicKey publicKey) throws NoSuchAlgorithmException, InvalidKeyException {
+        Signature signature = Signature.getInstance(ED25519_ALGORITHM);
+        signature.initVerify(publicKey);
+        return signature;
+    }
+
+    public enum Provider {
+        /**
+         * The JDK's {@code Signature("Ed25519")}.
+         */
+        JCA,
+        /**
+         * {@link Ed25519Builtin}, which needs no JCA signature provider at run time.
+         */
+        BUILTIN;
+
+        public static Provider parse(String value) {
+            for (Provider provider : values()) {
+                if (provider.name().equalsIgnoreCase(value.trim())) {
+                    return provider;
+                }
+            }
+            throw new IllegalArgumentException("Unknown Ed25519 verifier: " + value + ", expected jca or builtin");
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.example.config.key_ed25519;
+
+import java.math.BigInteger;
+
+/**
+ * A mutable point on edwards25519 in extended coordinates (X:Y:Z:T), x = X/Z, y = Y/Z, xy = T/Z, with the
+ * addition and doubling formulas of RFC 8032, section 5.1.4. Operations write into a result point, which may alias an
+ * input, and take their temporaries from a {@link Scratch}, so no arithmetic allocates.
+ */
+final class EdwardsPoint {
+    static final long[] D = Field25519.of(BigInteger.valueOf(-121665)
+            .multiply(BigInteger.valueOf(121666).modInverse(Field25519.P)));
+    static final long[] D2 = Field25519.of(new BigInteger(1, toBigEndian(D)).shiftLeft(1));
+    static final long[] SQRT_M1 = Field25519.of(BigInteger.TWO.modPow(
+            Field25519.P.subtract(BigInteger.ONE).shiftRight(2), Field25519.P));
+
+    final long[] x = Field25519.create();
+    final long[] y = Field25519.create();
+    final long[] z = Field25519.create();
+    final long[] t = Field25519.create();
+
+    EdwardsPoint() {
+        setIdentity();
+    }
+
+    void setIdentity() {
+        Field25519.zero(x);
+        Field25519.one(y);
+        Field25519.one(z);
+        Field25519.zero(t);
+    }
+
+    void set(EdwardsPoint p) {
+        Field25519.copy(x, p.x);
+        Field25519.copy(y, p.y);
+        Field25519.copy(z, p.z);
+        Field25519.copy(t, p.t);
+    }
+
+    /**
+     * Decompresses a 32-byte point encoding per RFC 8032, section 5.1.3.
+     *
+     * @return false if the encoding is not canonical or not a point on the curve; the point is then unspecified
+     */
+    boolean decode(byte[] bytes,
+                   int offset,
+                   Scratch s) {
+        if (!Field25519.isCanonical(bytes, offset)) {
+            return false;
+        }
+        boolean sign = (bytes[offset + 31] & 0x80) != 0;
+        Field25519.decode(y, bytes, offset);
+        Field25519.one(z);
+
+        long[] u = s.a;
+        long[] v = s.b;
+        long[] v3 = s.c;
+        long[] check = s.d;
+        Field25519.square(u, y);
+        Field25519.mul(v, u, D);
+        Field25519.sub(u, u, z);
+        Field25519.add(v, v, z);
+
+        // x = u v^3 (u v^7)^((p - 5) / 8)
+        Field25519.square(v3, v);
+        Field25519.mul(v3, v3, v);
+        Field25519.square(x, v3);
+        Field25519.mul(x, x, v);
+        Field25519.mul(x, x, u);
+        Field25519.pow22523(x, x, s.e, s.f, s.g);
+        Field25519.mul(x, x, v3);
+        Field25519.mul(x, x, u);
+
+        Field25519.square(check, x);
+        Field25519.mul(check, check, v);
+        Field25519.sub(s.e, check, u);
+        if (!Field25519.isZero(s.e, s.bytes)) {
+            Field25519.add(s.e, check, u);
+            if (!Field25519.isZero(s.e, s.bytes)) {
+                return false;
+            }
+            Field25519.mul(x, x, SQRT_M1);
+        }
+
+        if (Field25519.isZero(x, s.bytes) && sign) {
+            return false;
+        }
+        if (Field25519.isNegative(x, s.bytes) != sign) {
+            Field25519.negate(x, x);
+        }
+        Field25519.mul(t, x, y);
+        return true;
+    }
+
+    void encode(byte[] out,
+                int offset,
+                Scratch s) {
+        Field25519.invert(s.a, z, s.b, s.c, s.d, s.e);
+        Field25519.mul(s.f, x, s.a);
+        Field25519.mul(s.g, y, s.a);
+        Field25519.encode(out, offset, s.g);
+        if (Field25519.isNegative(s.f, s.bytes)) {
+            out[offset + 31] |= (byte) 0x80;
+        }
+    }
+
+    boolean isIdentity(Scratch s) {
+        Field25519.sub(s.a, y, z);
+        return Field25519.isZero(x, s.bytes) && Field25519.isZero(s.a, s.bytes);
+    }
+
+    static void dbl(EdwardsPoint r,
+                    EdwardsPoint p,
+                    Scratch s) {
+        long[] a = s.a;
+        long[] b = s.b;
+        long[] c = s.c;
+        long[] e = s.e;
+        long[] f = s.f;
+        long[] g = s.g;
+        long[] h = s.h;
+        Field25519.square(a, p.x);
+        Field25519.square(b, p.y);
+        Field25519.square(c, p.z);
+        Field25519.add(c, c, c);
+        Field25519.add(h, a, b);
+        Field25519.add(e, p.x, p.y);
+        Field25519.square(e, e);
+        Field25519.sub(e, h, e);
+        Field25519.sub(g, a, b);
+        Field25519.add(f, c, g);
+        Field25519.mul(r.x, e, f);
+        Field25519.mul(r.y, g, h);
+        Field25519.mul(r.t, e, h);
+        Field25519.mul(r.z, f, g);
+    }
+
+    static void add(EdwardsPoint r,
+                    EdwardsPoint p,
+                    Cached q,
+                    Scratch s) {
+        addOrSubtract(r, p, q.yPlusX, q.yMinusX, q, false, s);
+    }
+
+    static void subtract(EdwardsPoint r,
+                         EdwardsPoint p,
+                         Cached q,
+                         Scratch s) {
+        // -(x, y) = (-x, y): Y + X and Y - X swap and T changes sign.
+        addOrSubtract(r, p, q.yMinusX, q.yPlusX, q, true, s);
+    }
+
+    private static void addOrSubtract(EdwardsPoint r,
+                                      EdwardsPoint p,
+                                      long[] qYPlusX,
+                                      long[] qYMinusX,
+                                      Cached q,
+                                      boolean negate,
+                                      Scratch s) {
+        long[] a = s.a;
+        long[] b = s.b;
+        long[] c = s.c;
+        long[] d = s.d;
+        long[] e = s.e;
+        long[] f = s.f;
+        long[] g = s.g;
+        long[] h = s.h;
+        Field25519.sub(a, p.y, p.x);
+        Field25519.mul(a, a, qYMinusX);
+        Field25519.add(b, p.y, p.x);
+        Field25519.mul(b, b, qYPlusX);
+        Field25519.mul(c, p.t, q.t2d);
+        Field25519.mul(d, p.z, q.z2);
+        Field25519.sub(e, b, a);
+        Field25519.add(h, b, a);
+        if (negate) {
+            Field25519.add(f, d, c);
+            Field25519.sub(g, d, c);
+        } else {
+            Field25519.sub(f, d, c);
+            Field25519.add(g, d, c);
+        }
+        Field25519.mul(r.x, e, f);
+        Field25519.mul(r.y, g, h);
+        Field25519.mul(r.t, e, h);
+        Field25519.mul(r.z, f, g);
+    }
+
+    /**
+     * Odd multiples P, 3P, 5P, ... of a point for signed sliding windows of the given width.
+     */
+    static Cached[] oddMultiples(EdwardsPoint p,
+                                 int width,
+                                 Scratch s) {
+        Cached[] table = new Cached[1 << (width - 2)];
+        EdwardsPoint current = new EdwardsPoint();
+        EdwardsPoint doubled = new EdwardsPoint();
+        Cached twice = new Cached();
+        current.set(p);
+        dbl(doubled, p, s);
+        twice.set(doubled);
+        for (int i = 0; i < table.length; i++) {
+            table[i] = new Cached();
+            table[i].set(current);
+            if (i + 1 < table.length) {
+                add(current, current, twice, s);
+            }
+        }
+        return table;
+    }
+
+    private static byte[] toBigEndian(long[] f) {
+        byte[] littleEndian = new byte[32];
+        Field25519.encode(littleEndian, 0, f);
+        byte[] bigEndian = new byte[32];
+        for (int i = 0; i < 32; i++) {
+            bigEndian[i] = littleEndian[31 - i];
+        }
+        return bigEndian;
+    }
+
+    /**
+     * A point prepared as an addend: (Y + X, Y - X, 2Z, 2dT).
+     */
+    static final class Cached {
+        final long[] yPlusX = Field25519.create();
+        final long[] yMinusX = Field25519.create();
+        final long[] z2 = Field25519.create();
+        final long[] t2d = Field25519.create();
+
+        void set(EdwardsPoint p) {
+            Field25519.add(yPlusX, p.y, p.x);
+            Field25519.sub(yMinusX, p.y, p.x);
+            Field25519.add(z2, p.z, p.z);
+            Field25519.mul(t2d, p.t, D2);
+        }
+    }
+
+    /**
+     * Temporaries for point arithmetic. Not thread safe; each thread uses its own.
+     */
+    static final class Scratch {
+        final long[] a = Field25519.create();
+        final long[] b = Field25519.create();
+        final long[] c = Field25519.create();
+        final long[] d = Field25519.create();
+        final long[] e = Field25519.create();
+        final long[] f = Field25519.create();
+        final long[] g = Field25519.create();
+        final long[] h = Field25519.create();
+        final byte[] bytes = new byte[32];
+    }
+}
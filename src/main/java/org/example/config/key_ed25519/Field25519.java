@@ -0,0 +1,397 @@
+package org.example.config.key_ed25519;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic in GF(2^255 - 19) on ten signed limbs of alternately 26 and 25 bits, the representation of the
+ * reference Ed25519 implementation. Elements are {@code long[10]}; every operation writes a carried result into its
+ * first argument, which may alias the inputs, and allocates nothing. Carried limbs stay below 2^26 in magnitude, which
+ * keeps every product sum in {@link #mul} within a signed 64-bit accumulator.
+ */
+final class Field25519 {
+    static final int LIMBS = 10;
+    static final BigInteger P = BigInteger.ONE.shiftLeft(255).subtract(BigInteger.valueOf(19));
+    private static final int[] LIMB_OFFSETS = {0, 26, 51, 77, 102, 128, 153, 179, 204, 230};
+
+    private Field25519() {
+    }
+
+    static long[] create() {
+        return new long[LIMBS];
+    }
+
+    static long[] of(BigInteger value) {
+        byte[] bytes = new byte[32];
+        byte[] bigEndian = value.mod(P).toByteArray();
+        for (int i = 0; i < bigEndian.length && i < 32; i++) {
+            bytes[i] = bigEndian[bigEndian.length - 1 - i];
+        }
+        long[] h = create();
+        decode(h, bytes, 0);
+        return h;
+    }
+
+    static void zero(long[] h) {
+        for (int i = 0; i < LIMBS; i++) {
+            h[i] = 0;
+        }
+    }
+
+    static void one(long[] h) {
+        zero(h);
+        h[0] = 1;
+    }
+
+    static void copy(long[] h,
+                     long[] f) {
+        System.arraycopy(f, 0, h, 0, LIMBS);
+    }
+
+    static void add(long[] h,
+                    long[] f,
+                    long[] g) {
+        carry(h, f[0] + g[0], f[1] + g[1], f[2] + g[2], f[3] + g[3], f[4] + g[4],
+                f[5] + g[5], f[6] + g[6], f[7] + g[7], f[8] + g[8], f[9] + g[9]);
+    }
+
+    static void sub(long[] h,
+                    long[] f,
+                    long[] g) {
+        carry(h, f[0] - g[0], f[1] - g[1], f[2] - g[2], f[3] - g[3], f[4] - g[4],
+                f[5] - g[5], f[6] - g[6], f[7] - g[7], f[8] - g[8], f[9] - g[9]);
+    }
+
+    static void negate(long[] h,
+                       long[] f) {
+        for (int i = 0; i < LIMBS; i++) {
+            h[i] = -f[i];
+        }
+    }
+
+    static void mul(long[] h,
+                    long[] f,
+                    long[] g) {
+        long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        long f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9];
+        long g0 = g[0], g1 = g[1], g2 = g[2], g3 = g[3], g4 = g[4];
+        long g5 = g[5], g6 = g[6], g7 = g[7], g8 = g[8], g9 = g[9];
+        long g1_19 = 19 * g1, g2_19 = 19 * g2, g3_19 = 19 * g3, g4_19 = 19 * g4, g5_19 = 19 * g5;
+        long g6_19 = 19 * g6, g7_19 = 19 * g7, g8_19 = 19 * g8, g9_19 = 19 * g9;
+        long f1_2 = 2 * f1, f3_2 = 2 * f3, f5_2 = 2 * f5, f7_2 = 2 * f7, f9_2 = 2 * f9;
+        long h0 = f0 * g0 + f1_2 * g9_19 + f2 * g8_19 + f3_2 * g7_19 + f4 * g6_19 + f5_2 * g5_19 + f6 * g4_19
+                + f7_2 * g3_19 + f8 * g2_19 + f9_2 * g1_19;
+        long h1 = f0 * g1 + f1 * g0 + f2 * g9_19 + f3 * g8_19 + f4 * g7_19 + f5 * g6_19 + f6 * g5_19 + f7 * g4_19
+                + f8 * g3_19 + f9 * g2_19;
+        long h2 = f0 * g2 + f1_2 * g1 + f2 * g0 + f3_2 * g9_19 + f4 * g8_19 + f5_2 * g7_19 + f6 * g6_19 + f7_2 * g5_19
+                + f8 * g4_19 + f9_2 * g3_19;
+        long h3 = f0 * g3 + f1 * g2 + f2 * g1 + f3 * g0 + f4 * g9_19 + f5 * g8_19 + f6 * g7_19 + f7 * g6_19
+                + f8 * g5_19 + f9 * g4_19;
+        long h4 = f0 * g4 + f1_2 * g3 + f2 * g2 + f3_2 * g1 + f4 * g0 + f5_2 * g9_19 + f6 * g8_19 + f7_2 * g7_19
+                + f8 * g6_19 + f9_2 * g5_19;
+        long h5 = f0 * g5 + f1 * g4 + f2 * g3 + f3 * g2 + f4 * g1 + f5 * g0 + f6 * g9_19 + f7 * g8_19 + f8 * g7_19
+                + f9 * g6_19;
+        long h6 = f0 * g6 + f1_2 * g5 + f2 * g4 + f3_2 * g3 + f4 * g2 + f5_2 * g1 + f6 * g0 + f7_2 * g9_19 + f8 * g8_19
+                + f9_2 * g7_19;
+        long h7 = f0 * g7 + f1 * g6 + f2 * g5 + f3 * g4 + f4 * g3 + f5 * g2 + f6 * g1 + f7 * g0 + f8 * g9_19
+                + f9 * g8_19;
+        long h8 = f0 * g8 + f1_2 * g7 + f2 * g6 + f3_2 * g5 + f4 * g4 + f5_2 * g3 + f6 * g2 + f7_2 * g1 + f8 * g0
+                + f9_2 * g9_19;
+        long h9 = f0 * g9 + f1 * g8 + f2 * g7 + f3 * g6 + f4 * g5 + f5 * g4 + f6 * g3 + f7 * g2 + f8 * g1 + f9 * g0;
+        carry(h, h0, h1, h2, h3, h4, h5, h6, h7, h8, h9);
+    }
+
+    static void square(long[] h,
+                       long[] f) {
+        long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4];
+        long f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9];
+        long h0 = f0 * f0 + 76L * f1 * f9 + 38L * f2 * f8 + 76L * f3 * f7 + 38L * f4 * f6 + 38L * f5 * f5;
+        long h1 = 2L * f0 * f1 + 38L * f2 * f9 + 38L * f3 * f8 + 38L * f4 * f7 + 38L * f5 * f6;
+        long h2 = 2L * f0 * f2 + 2L * f1 * f1 + 76L * f3 * f9 + 38L * f4 * f8 + 76L * f5 * f7 + 19L * f6 * f6;
+        long h3 = 2L * f0 * f3 + 2L * f1 * f2 + 38L * f4 * f9 + 38L * f5 * f8 + 38L * f6 * f7;
+        long h4 = 2L * f0 * f4 + 4L * f1 * f3 + f2 * f2 + 76L * f5 * f9 + 38L * f6 * f8 + 38L * f7 * f7;
+        long h5 = 2L * f0 * f5 + 2L * f1 * f4 + 2L * f2 * f3 + 38L * f6 * f9 + 38L * f7 * f8;
+        long h6 = 2L * f0 * f6 + 4L * f1 * f5 + 2L * f2 * f4 + 2L * f3 * f3 + 76L * f7 * f9 + 19L * f8 * f8;
+        long h7 = 2L * f0 * f7 + 2L * f1 * f6 + 2L * f2 * f5 + 2L * f3 * f4 + 38L * f8 * f9;
+        long h8 = 2L * f0 * f8 + 4L * f1 * f7 + 2L * f2 * f6 + 4L * f3 * f5 + f4 * f4 + 38L * f9 * f9;
+        long h9 = 2L * f0 * f9 + 2L * f1 * f8 + 2L * f2 * f7 + 2L * f3 * f6 + 2L * f4 * f5;
+        carry(h, h0, h1, h2, h3, h4, h5, h6, h7, h8, h9);
+    }
+
+    static void square(long[] h,
+                       long[] f,
+                       int times) {
+        square(h, f);
+        for (int i = 1; i < times; i++) {
+            square(h, h);
+        }
+    }
+
+    /**
+     * Reduces limb sums of up to 2^63 in magnitude to carried form.
+     */
+    private static void carry(long[] h,
+                              long h0,
+                              long h1,
+                              long h2,
+                              long h3,
+                              long h4,
+                              long h5,
+                              long h6,
+                              long h7,
+                              long h8,
+                              long h9) {
+        long c;
+        c = (h0 + (1L << 25)) >> 26;
+        h1 += c;
+        h0 -= c << 26;
+        c = (h4 + (1L << 25)) >> 26;
+        h5 += c;
+        h4 -= c << 26;
+        c = (h1 + (1L << 24)) >> 25;
+        h2 += c;
+        h1 -= c << 25;
+        c = (h5 + (1L << 24)) >> 25;
+        h6 += c;
+        h5 -= c << 25;
+        c = (h2 + (1L << 25)) >> 26;
+        h3 += c;
+        h2 -= c << 26;
+        c = (h6 + (1L << 25)) >> 26;
+        h7 += c;
+        h6 -= c << 26;
+        c = (h3 + (1L << 24)) >> 25;
+        h4 += c;
+        h3 -= c << 25;
+        c = (h7 + (1L << 24)) >> 25;
+        h8 += c;
+        h7 -= c << 25;
+        c = (h4 + (1L << 25)) >> 26;
+        h5 += c;
+        h4 -= c << 26;
+        c = (h8 + (1L << 25)) >> 26;
+        h9 += c;
+        h8 -= c << 26;
+        c = (h9 + (1L << 24)) >> 25;
+        h0 += c * 19;
+        h9 -= c << 25;
+        c = (h0 + (1L << 25)) >> 26;
+        h1 += c;
+        h0 -= c << 26;
+        h[0] = h0;
+        h[1] = h1;
+        h[2] = h2;
+        h[3] = h3;
+        h[4] = h4;
+        h[5] = h5;
+        h[6] = h6;
+        h[7] = h7;
+        h[8] = h8;
+        h[9] = h9;
+    }
+
+    /**
+     * @param t0 scratch element
+     * @param t1 scratch element
+     * @param t2 scratch element
+     * @param t3 scratch element
+     */
+    static void invert(long[] h,
+                       long[] z,
+                       long[] t0,
+                       long[] t1,
+                       long[] t2,
+                       long[] t3) {
+        // z^(p - 2) with the addition chain of the reference implementation.
+        square(t0, z);
+        square(t1, t0, 2);
+        mul(t1, z, t1);
+        mul(t0, t0, t1);
+        square(t2, t0);
+        mul(t1, t1, t2);
+        square(t2, t1, 5);
+        mul(t1, t2, t1);
+        square(t2, t1, 10);
+        mul(t2, t2, t1);
+        square(t3, t2, 20);
+        mul(t2, t3, t2);
+        square(t2, t2, 10);
+        mul(t1, t2, t1);
+        square(t2, t1, 50);
+        mul(t2, t2, t1);
+        square(t3, t2, 100);
+        mul(t2, t3, t2);
+        square(t2, t2, 50);
+        mul(t1, t2, t1);
+        square(t1, t1, 5);
+        mul(h, t1, t0);
+    }
+
+    /**
+     * {@code h = z^((p - 5) / 8)}, the exponent used to take square roots during point decompression.
+     */
+    static void pow22523(long[] h,
+                         long[] z,
+                         long[] t0,
+                         long[] t1,
+                         long[] t2) {
+        square(t0, z);
+        square(t1, t0, 2);
+        mul(t1, z, t1);
+        mul(t0, t0, t1);
+        square(t0, t0);
+        mul(t0, t1, t0);
+        square(t1, t0, 5);
+        mul(t0, t1, t0);
+        square(t1, t0, 10);
+        mul(t1, t1, t0);
+        square(t2, t1, 20);
+        mul(t1, t2, t1);
+        square(t1, t1, 10);
+        mul(t0, t1, t0);
+        square(t1, t0, 50);
+        mul(t1, t1, t0);
+        square(t2, t1, 100);
+        mul(t1, t2, t1);
+        square(t1, t1, 50);
+        mul(t0, t1, t0);
+        square(t0, t0, 2);
+        mul(h, t0, z);
+    }
+
+    /**
+     * Loads 32 little-endian bytes, ignoring the top bit. The value is not reduced; see {@link #isCanonical}.
+     */
+    static void decode(long[] h,
+                       byte[] bytes,
+                       int offset) {
+        for (int i = 0; i < LIMBS; i++) {
+            int width = (i & 1) == 0 ? 26 : 25;
+            h[i] = bits(bytes, offset, LIMB_OFFSETS[i], width);
+        }
+        carry(h, h[0], h[1], h[2], h[3], h[4], h[5], h[6], h[7], h[8], h[9]);
+    }
+
+    private static long bits(byte[] bytes,
+                             int offset,
+                             int start,
+                             int width) {
+        long value = 0;
+        int first = start >> 3;
+        int last = Math.min((start + width - 1) >> 3, 31);
+        for (int i = last; i >= first; i--) {
+            value = (value << 8) | (bytes[offset + i] & 0xff);
+        }
+        return (value >>> (start & 7)) & ((1L << width) - 1);
+    }
+
+    /**
+     * Writes the fully reduced value as 32 little-endian bytes.
+     */
+    static void encode(byte[] out,
+                       int offset,
+                       long[] f) {
+        long h0 = f[0], h1 = f[1], h2 = f[2], h3 = f[3], h4 = f[4];
+        long h5 = f[5], h6 = f[6], h7 = f[7], h8 = f[8], h9 = f[9];
+        // q is 1 if the carried value is at least p, else 0.
+        long q = (19 * h9 + (1L << 24)) >> 25;
+        q = (h0 + q) >> 26;
+        q = (h1 + q) >> 25;
+        q = (h2 + q) >> 26;
+        q = (h3 + q) >> 25;
+        q = (h4 + q) >> 26;
+        q = (h5 + q) >> 25;
+        q = (h6 + q) >> 26;
+        q = (h7 + q) >> 25;
+        q = (h8 + q) >> 26;
+        q = (h9 + q) >> 25;
+        h0 += 19 * q;
+        long c;
+        c = h0 >> 26;
+        h1 += c;
+        h0 -= c << 26;
+        c = h1 >> 25;
+        h2 += c;
+        h1 -= c << 25;
+        c = h2 >> 26;
+        h3 += c;
+        h2 -= c << 26;
+        c = h3 >> 25;
+        h4 += c;
+        h3 -= c << 25;
+        c = h4 >> 26;
+        h5 += c;
+        h4 -= c << 26;
+        c = h5 >> 25;
+        h6 += c;
+        h5 -= c << 25;
+        c = h6 >> 26;
+        h7 += c;
+        h6 -= c << 26;
+        c = h7 >> 25;
+        h8 += c;
+        h7 -= c << 25;
+        c = h8 >> 26;
+        h9 += c;
+        h8 -= c << 26;
+        c = h9 >> 25;
+        h9 -= c << 25;
+
+        for (int i = 0; i < 32; i++) {
+            out[offset + i] = 0;
+        }
+        put(out, offset, h0, LIMB_OFFSETS[0]);
+        put(out, offset, h1, LIMB_OFFSETS[1]);
+        put(out, offset, h2, LIMB_OFFSETS[2]);
+        put(out, offset, h3, LIMB_OFFSETS[3]);
+        put(out, offset, h4, LIMB_OFFSETS[4]);
+        put(out, offset, h5, LIMB_OFFSETS[5]);
+        put(out, offset, h6, LIMB_OFFSETS[6]);
+        put(out, offset, h7, LIMB_OFFSETS[7]);
+        put(out, offset, h8, LIMB_OFFSETS[8]);
+        put(out, offset, h9, LIMB_OFFSETS[9]);
+    }
+
+    private static void put(byte[] out,
+                            int offset,
+                            long limb,
+                            int start) {
+        long shifted = limb << (start & 7);
+        for (int b = start >> 3; shifted != 0 && b < 32; b++) {
+            out[offset + b] |= (byte) shifted;
+            shifted >>>= 8;
+        }
+    }
+
+    /**
+     * Whether the 255-bit value in {@code bytes} is below p, i.e. a canonical encoding.
+     */
+    static boolean isCanonical(byte[] bytes,
+                               int offset) {
+        // p = 2^255 - 19: only values from 2^255 - 19 to 2^255 - 1 are non-canonical.
+        if ((bytes[offset + 31] & 0x7f) != 0x7f) {
+            return true;
+        }
+        for (int i = 30; i >= 1; i--) {
+            if ((bytes[offset + i] & 0xff) != 0xff) {
+                return true;
+            }
+        }
+        return (bytes[offset] & 0xff) < 0xed;
+    }
+
+    static boolean isZero(long[] f,
+                          byte[] scratch) {
+        encode(scratch, 0, f);
+        int bits = 0;
+        for (int i = 0; i < 32; i++) {
+            bits |= scratch[i];
+        }
+        return bits == 0;
+    }
+
+    static boolean isNegative(long[] f,
+                              byte[] scratch) {
+        encode(scratch, 0, f);
+        return (scratch[0] & 1) != 0;
+    }
+}
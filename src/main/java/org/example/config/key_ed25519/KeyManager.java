@@ -1,5 +1,7 @@
 package org.example.config.key_ed25519;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.config.security.FileAccessPolicy;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
@@ -11,13 +13,16 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -27,14 +32,25 @@ public class KeyManager {
     private static final String KEYFILE_OWNER = "root";
     private static final String KEYFILE_GROUP = "root";
     private static final int FETCH_TIMEOUT = 5;
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(FETCH_TIMEOUT))
+            .build();
+    private static final ObjectMapper KEYRING_MAPPER = new ObjectMapper();
     private final Path keyPath;
+    private final Path keyringPath;
     private final FileAccessPolicy accessPolicy;
+    private final FileAccessPolicy keyringAccessPolicy;
+    private volatile Ed25519Verifier.Provider verifierProvider = Ed25519Verifier.Provider.JCA;
 
-    public KeyManager(Path keyPath) {
+    public KeyManager(Path keyPath,
+                      Path keyringPath) {
         this.keyPath = keyPath;
+        this.keyringPath = keyringPath;
 
         this.accessPolicy = new FileAccessPolicy(keyPath).permissions(KEYFILE_PERMISSIONS).owner(KEYFILE_OWNER)
                 .group(KEYFILE_GROUP);
+        this.keyringAccessPolicy = new FileAccessPolicy(keyringPath).permissions(KEYFILE_PERMISSIONS)
+                .owner(KEYFILE_OWNER).group(KEYFILE_GROUP);
         getLogger().debugEntry()
                 .message("KeyManager initialized")
                 .log();
@@ -44,6 +60,17 @@ public class KeyManager {
         return LogManager.getInstance().getLogger();
     }
 
+    /**
+     * Selects the signature implementation for verifiers created from now on.
+     */
+    public void setVerifierProvider(Ed25519Verifier.Provider verifierProvider) {
+        this.verifierProvider = verifierProvider;
+    }
+
+    public Ed25519Verifier createVerifier(PublicKey publicKey) throws KeyManagerException {
+        return new Ed25519Verifier(publicKey, verifierProvider);
+    }
+
 
     public PublicKey getPublicKeyOrFetch(URI keyURI) throws KeyManagerException {
         getLogger().debugEntry()
@@ -191,7 +218,8 @@ public class KeyManager {
                 .message("Fetching public key from server")
                 .field("URI", uri)
                 .log();
-        HttpRequest request = HttpRequest.newBuilder().uri(uri).GET().build();
+        HttpRequest request = HttpRequest.newBuilder().uri(uri).timeout(Duration.ofSeconds(FETCH_TIMEOUT)).GET()
+                .build();
 
         try {
             getLogger().debugEntry()
@@ -199,10 +227,7 @@ public class KeyManager {
                     .field("Method", request.method())
                     .field("URI", request.uri())
                     .log();
-            HttpResponse<String> response = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(FETCH_TIMEOUT))
-                    .build()
-                    .send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
 
             getLogger().debugEntry()
                     .message("Received HTTP response")
@@ -261,9 +286,7 @@ public class KeyManager {
             throw new KeyManagerException("Cannot save empty or null public key");
         }
 
-        String keyWithoutPem = keyStr.replace("-----BEGIN PUBLIC KEY-----", "")
-                .replaceAll(System.lineSeparator(), "")
-                .replace("-----END PUBLIC KEY-----", "");
+        String keyWithoutPem = stripPem(keyStr);
 
 
         getLogger().infoEntry()
@@ -285,6 +308,13 @@ public class KeyManager {
 
             Files.writeString(keyPath, keyWithoutPem);
             accessPolicy.enforce();
+            // A keyring file would take precedence over the key just fetched.
+            if (Files.deleteIfExists(keyringPath)) {
+                getLogger().infoEntry()
+                        .message("Removed keyring file replaced by a single public key")
+                        .field("KeyringPath", keyringPath)
+                        .log();
+            }
 
             getLogger().infoEntry()
                     .message("Public key successfully saved to file")
@@ -303,6 +333,152 @@ public class KeyManager {
 
     public void fetchKeyAndSave(URI keyURI) throws KeyManagerException {
         String newKeyStr = fetchPublicKey(keyURI);
+        if (isKeyring(newKeyStr)) {
+            saveKeyring(newKeyStr);
+        } else {
+            savePublicKey(newKeyStr);
+        }
+    }
+
+    /**
+     * Fetches the key and saves it only if it differs from the key file, so an unchanged key keeps cached verifiers.
+     *
+     * @return whether the key file changed
+     */
+    public boolean fetchKeyAndSaveIfChanged(URI keyURI) throws KeyManagerException {
+        String newKeyStr = fetchPublicKey(keyURI);
+        if (isKeyring(newKeyStr)) {
+            Optional<String> currentKeyring = readKeyringFromFile();
+            if (currentKeyring.isPresent() && currentKeyring.get().equals(newKeyStr.trim())) {
+                getLogger().infoEntry()
+                        .message("Fetched keyring matches keyring file")
+                        .field("KeyringPath", keyringPath)
+                        .log();
+                return false;
+            }
+            saveKeyring(newKeyStr);
+            return true;
+        }
+        Optional<String> current = readKeyFromFile();
+        if (current.isPresent() && current.get().equals(stripPem(newKeyStr).trim())) {
+            getLogger().infoEntry()
+                    .message("Fetched public key matches key file")
+                    .field("KeyPath", keyPath)
+                    .log();
+            return false;
+        }
         savePublicKey(newKeyStr);
+        return true;
+    }
+
+    /**
+     * A key server may publish a keyring document instead of a single key, see {@link #parseKeyring(String)}.
+     */
+    private static boolean isKeyring(String body) {
+        return body.trim().startsWith("{");
+    }
+
+    public Optional<String> readKeyringFromFile() {
+        try {
+            if (!Files.exists(keyringPath)) {
+                return Optional.empty();
+            }
+            String keyring = Files.readString(keyringPath).trim();
+            return keyring.isEmpty() ? Optional.empty() : Optional.of(keyring);
+        } catch (IOException e) {
+            getLogger().warnEntry()
+                    .message("Failed to read keyring file")
+                    .field("KeyringPath", keyringPath)
+                    .exception(e)
+                    .log();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parses a keyring document:
+     * <pre>
+     * {"keys": [{"kid": "2025-06", "key": "MCowBQYDK2VwAyEA...", "notBefore": 1748736000, "notAfter": 1767225599}]}
+     * </pre>
+     * {@code key} is a Base64 X.509 Ed25519 public key, PEM armour allowed. {@code notBefore} and {@code notAfter} are
+     * optional epoch seconds.
+     */
+    public List<Keyring.Key> parseKeyring(String json) throws KeyManagerException {
+        JsonNode root;
+        try {
+            root = KEYRING_MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new KeyManagerException("Invalid keyring JSON", e);
+        }
+        JsonNode keys = root == null ? null : root.get("keys");
+        if (keys == null || !keys.isArray()) {
+            throw new KeyManagerException("Keyring must contain a \"keys\" array");
+        }
+        List<Keyring.Key> parsed = new ArrayList<>();
+        for (JsonNode node : keys) {
+            JsonNode kid = node.get("kid");
+            JsonNode key = node.get("key");
+            if (kid == null || !kid.isTextual() || kid.asText().isBlank() || key == null || !key.isTextual()) {
+                throw new KeyManagerException("Keyring entries need a non-empty \"kid\" and a \"key\"");
+            }
+            PublicKey publicKey = convertToPublicKey(stripPem(key.asText()).trim());
+            parsed.add(new Keyring.Key(kid.asText(),
+                    createVerifier(publicKey),
+                    epochSeconds(node, "notBefore", Long.MIN_VALUE),
+                    epochSeconds(node, "notAfter", Long.MAX_VALUE)));
+        }
+        return parsed;
+    }
+
+    private static long epochSeconds(JsonNode entry,
+                                     String field,
+                                     long defaultValue) throws KeyManagerException {
+        JsonNode value = entry.get(field);
+        if (value == null || value.isNull()) {
+            return defaultValue;
+        }
+        if (!value.canConvertToLong()) {
+            throw new KeyManagerException("Keyring field " + field + " must be epoch seconds");
+        }
+        return value.asLong();
+    }
+
+    private void saveKeyring(String keyringJson) throws KeyManagerException {
+        List<Keyring.Key> keys = parseKeyring(keyringJson);
+        getLogger().infoEntry()
+                .message("Saving keyring to file")
+                .field("KeyringPath", keyringPath)
+                .field("Keys", keys.size())
+                .log();
+        try {
+            Path parentDir = keyringPath.getParent();
+            if (parentDir != null && !Files.exists(parentDir)) {
+                Files.createDirectories(parentDir);
+            }
+            Path tmp = keyringPath.resolveSibling(keyringPath.getFileName() + ".tmp");
+            Files.writeString(tmp, keyringJson.trim());
+            Files.move(tmp, keyringPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            keyringAccessPolicy.enforce();
+            // The keyring replaces the single key, which must not stay valid beyond the keyring's windows.
+            if (Files.deleteIfExists(keyPath)) {
+                getLogger().infoEntry()
+                        .message("Removed public key file replaced by the keyring")
+                        .field("KeyPath", keyPath)
+                        .log();
+            }
+        } catch (IOException e) {
+            getLogger().errorEntry()
+                    .message("Failed to save keyring to file")
+                    .field("KeyringPath", keyringPath)
+                    .exception(e)
+                    .log();
+            throw new KeyManagerException("Failed to save keyring to file: " + keyringPath, e);
+        }
+    }
+
+    private static String stripPem(String keyStr) {
+        return keyStr.replace("-----BEGIN PUBLIC KEY-----", "")
+                .replaceAll(System.lineSeparator(), "")
+                .replace("-----END PUBLIC KEY-----", "");
     }
-}
\ No newline at end of file
+}
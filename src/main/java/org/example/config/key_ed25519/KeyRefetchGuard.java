@@ -0,0 +1,205 @@
+package org.example.config.key_ed25519;
+
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * Coalesces and rate-limits public key refetches across all executor processes.
+ * <p>
+ * The outcome of the last attempt is kept in a small state file next to the key file, and attempts run while holding
+ * a lock on it. A caller that waited for the lock while another process was fetching gets that fetch's outcome
+ * instead of fetching again. After an attempt, further refetches are refused for the cool-down period; after
+ * {@link Policy#failureThreshold()} consecutive failures the circuit opens and refetches are refused for
+ * {@link Policy#openDuration()}, doubling with every further failure up to {@value #MAX_OPEN_DOUBLINGS} times.
+ * If the state file cannot be used the same rules are applied within the process only.
+ */
+public class KeyRefetchGuard {
+    private static final int STATE_SIZE = 64;
+    private static final int MAGIC = 0x4b524647; // "KRFG"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int LAST_ATTEMPT_OFFSET = 8;
+    private static final int OUTCOME_OFFSET = 16;
+    private static final int FAILURES_OFFSET = 20;
+    private static final int OPEN_UNTIL_OFFSET = 24;
+    private static final int MAX_OPEN_DOUBLINGS = 4;
+
+    private final Path statePath;
+    private final Policy policy;
+    private State localState = State.INITIAL;
+
+    public KeyRefetchGuard(Path statePath,
+                           Policy policy) {
+        this.statePath = statePath;
+        this.policy = policy;
+    }
+
+    /**
+     * Runs {@code fetch} unless a recent attempt, an attempt finished while waiting, or an open circuit makes it
+     * pointless.
+     */
+    public synchronized RefetchOutcome refetch(Fetch fetch) {
+        long requestedAt = System.currentTimeMillis();
+        try (FileChannel channel = FileChannel.open(statePath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock(0, STATE_SIZE, false)) {
+            State state = read(channel);
+            Attempt attempt = attempt(state, requestedAt, fetch);
+            if (attempt.next() != state) {
+                write(channel, attempt.next());
+            }
+            localState = attempt.next();
+            return attempt.outcome();
+        } catch (IOException e) {
+            getLogger().warnEntry()
+                    .message("Public key refetch state is not usable, limiting refetches within this process only")
+                    .field("File", statePath)
+                    .exception(e)
+                    .log();
+            Attempt attempt = attempt(localState, requestedAt, fetch);
+            localState = attempt.next();
+            return attempt.outcome();
+        }
+    }
+
+    private Attempt attempt(State state,
+                            long requestedAt,
+                            Fetch fetch) {
+        long now = System.currentTimeMillis();
+        // A last attempt in the future means the clock was set back; do not let it block refetches.
+        boolean clockWentBack = state.lastAttemptAt() > now + policy.cooldown().toMillis();
+        if (!clockWentBack) {
+            if (state.lastAttemptAt() > requestedAt) {
+                getLogger().debugEntry()
+                        .message("Public key was refetched while waiting, reusing the outcome")
+                        .field("Outcome", state.outcome())
+                        .log();
+                return new Attempt(state.outcome(), state);
+            }
+            if (now < state.openUntil()) {
+                getLogger().warnEntry()
+                        .message("Public key refetch skipped: key server circuit is open")
+                        .field("ConsecutiveFailures", state.consecutiveFailures())
+                        .field("RetryInMs", state.openUntil() - now)
+                        .log();
+                return new Attempt(RefetchOutcome.CIRCUIT_OPEN, state);
+            }
+            if (now - state.lastAttemptAt() < policy.cooldown().toMillis()) {
+                getLogger().infoEntry()
+                        .message("Public key refetch skipped: last attempt is within the cool-down")
+                        .field("LastOutcome", state.outcome())
+                        .log();
+                return new Attempt(RefetchOutcome.RATE_LIMITED, state);
+            }
+        }
+
+        RefetchOutcome outcome;
+        int failures;
+        long openUntil = 0;
+        try {
+            outcome = fetch.fetch() ? RefetchOutcome.REFRESHED : RefetchOutcome.UNCHANGED;
+            failures = 0;
+        } catch (KeyManagerException e) {
+            outcome = RefetchOutcome.FAILED;
+            failures = state.consecutiveFailures() + 1;
+            if (failures >= policy.failureThreshold()) {
+                int doublings = Math.min(failures - policy.failureThreshold(), MAX_OPEN_DOUBLINGS);
+                openUntil = System.currentTimeMillis() + (policy.openDuration().toMillis() << doublings);
+                getLogger().warnEntry()
+                        .message("Opening key server circuit after repeated refetch failures")
+                        .field("ConsecutiveFailures", failures)
+                        .field("OpenForMs", openUntil - System.currentTimeMillis())
+                        .exception(e)
+                        .log();
+            }
+        }
+        return new Attempt(outcome, new State(System.currentTimeMillis(), outcome, failures, openUntil));
+    }
+
+    private static State read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        if (buffer.position() < STATE_SIZE ||
+                buffer.getInt(MAGIC_OFFSET) != MAGIC ||
+                buffer.getInt(VERSION_OFFSET) != VERSION) {
+            return State.INITIAL;
+        }
+        int outcome = buffer.getInt(OUTCOME_OFFSET);
+        if (outcome < 0 || outcome >= RefetchOutcome.values().length) {
+            return State.INITIAL;
+        }
+        return new State(buffer.getLong(LAST_ATTEMPT_OFFSET),
+                RefetchOutcome.values()[outcome],
+                buffer.getInt(FAILURES_OFFSET),
+                buffer.getLong(OPEN_UNTIL_OFFSET));
+    }
+
+    private static void write(FileChannel channel,
+                              State state) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putLong(LAST_ATTEMPT_OFFSET, state.lastAttemptAt());
+        buffer.putInt(OUTCOME_OFFSET, state.outcome().ordinal());
+        buffer.putInt(FAILURES_OFFSET, state.consecutiveFailures());
+        buffer.putLong(OPEN_UNTIL_OFFSET, state.openUntil());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, buffer.position());
+        }
+    }
+
+    private CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    public enum RefetchOutcome {
+        /**
+         * The key was fetched and differs from the previous key file.
+         */
+        REFRESHED,
+        /**
+         * The key was fetched and matches the key file.
+         */
+        UNCHANGED,
+        FAILED,
+        RATE_LIMITED,
+        CIRCUIT_OPEN
+    }
+
+    @FunctionalInterface
+    public interface Fetch {
+        /**
+         * @return whether the key file changed
+         */
+        boolean fetch() throws KeyManagerException;
+    }
+
+    /**
+     * @param cooldown         minimum time between two refetch attempts
+     * @param failureThreshold consecutive failures after which the circuit opens
+     * @param openDuration     how long the circuit stays open after reaching the threshold
+     */
+    public record Policy(Duration cooldown, int failureThreshold, Duration openDuration) {
+    }
+
+    private record State(long lastAttemptAt, RefetchOutcome outcome, int consecutiveFailures, long openUntil) {
+        static final State INITIAL = new State(0, RefetchOutcome.UNCHANGED, 0, 0);
+    }
+
+    private record Attempt(RefetchOutcome outcome, State next) {
+    }
+}
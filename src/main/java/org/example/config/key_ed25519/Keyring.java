@@ -0,0 +1,119 @@
+package org.example.config.key_ed25519;
+
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The set of public keys tokens may be signed with.
+ * <p>
+ * Keys from {@code keyring.json} carry a key id and an optional validity window; the single key in {@code pub.key},
+ * if present, has no id and never expires. A token naming a key id is verified with that key alone, looked up by id;
+ * a token without one is tried against every key active at verification time.
+ */
+public final class Keyring {
+    private final List<Key> keys;
+    private final Map<String, Key> keysById;
+
+    public Keyring(List<Key> keys) throws KeyManagerException {
+        Map<String, Key> byId = new HashMap<>();
+        for (Key key : keys) {
+            if (key.kid() != null && byId.put(key.kid(), key) != null) {
+                throw new KeyManagerException("Duplicate key id in keyring: " + key.kid());
+            }
+        }
+        this.keys = List.copyOf(keys);
+        this.keysById = Collections.unmodifiableMap(byId);
+    }
+
+    /**
+     * @param kid         key id named by the token, or {@code null} to try all active keys
+     * @param nowEpochSec verification time in epoch seconds, checked against the keys' validity windows
+     * @return whether the signature was made by an active key (the named key, if {@code kid} is given)
+     */
+    public boolean verify(String kid,
+                          byte[] message,
+                          byte[] signature,
+                          long nowEpochSec) throws SignatureException {
+        if (kid != null) {
+            Key key = keysById.get(kid);
+            return key != null && key.isActiveAt(nowEpochSec) && key.verifier().verify(message, signature);
+        }
+        for (Key key : keys) {
+            if (key.isActiveAt(nowEpochSec) && key.verifier().verify(message, signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The single key a token's signature has to verify with: the named key if it is active, or the only active key
+     * for a token without a key id. Empty if that is not one key, in which case use {@link #verify}.
+     */
+    public Optional<Ed25519Verifier> resolve(String kid,
+                                             long nowEpochSec) {
+        if (kid != null) {
+            Key key = keysById.get(kid);
+            return key != null && key.isActiveAt(nowEpochSec) ? Optional.of(key.verifier()) : Optional.empty();
+        }
+        Ed25519Verifier only = null;
+        for (Key key : keys) {
+            if (key.isActiveAt(nowEpochSec)) {
+                if (only != null) {
+                    return Optional.empty();
+                }
+                only = key.verifier();
+            }
+        }
+        return Optional.ofNullable(only);
+    }
+
+    public Optional<Key> find(String kid) {
+        return Optional.ofNullable(keysById.get(kid));
+    }
+
+    public List<Key> activeKeys(long nowEpochSec) {
+        List<Key> active = new ArrayList<>();
+        for (Key key : keys) {
+            if (key.isActiveAt(nowEpochSec)) {
+                active.add(key);
+            }
+        }
+        return active;
+    }
+
+    public List<Key> keys() {
+        return keys;
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Key ids of all keys, {@code pub.key} shown as {@code -}, for logging.
+     */
+    public List<String> describe() {
+        List<String> ids = new ArrayList<>();
+        for (Key key : keys) {
+            ids.add(key.kid() == null ? "-" : key.kid());
+        }
+        return ids;
+    }
+
+    /**
+     * @param kid       key id, {@code null} for the key from {@code pub.key}
+     * @param notBefore first epoch second the key is valid, {@link Long#MIN_VALUE} if unbounded
+     * @param notAfter  last epoch second the key is valid, {@link Long#MAX_VALUE} if unbounded
+     */
+    public record Key(String kid, Ed25519Verifier verifier, long notBefore, long notAfter) {
+        public boolean isActiveAt(long epochSec) {
+            return epochSec >= notBefore && epochSec <= notAfter;
+        }
+    }
+}
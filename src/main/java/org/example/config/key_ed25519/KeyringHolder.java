@@ -0,0 +1,173 @@
+package org.example.config.key_ed25519;
+
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Keeps the decoded {@link Keyring} for as long as {@code pub.key} and {@code keyring.json} are unchanged. While
+ * {@code keyring.json} exists {@code pub.key} is ignored, so that adopting a keyring retires the previous single key
+ * even if it could not be removed.
+ * <p>
+ * Each lookup compares both files' modification time, file key (device and inode) and size with the values seen
+ * when the keyring was loaded, so an unchanged keyring costs two {@code stat}s. Long-running processes can call
+ * {@link #watch()} to have a {@link WatchService} flag changes instead, after which lookups do not touch the file
+ * system at all until one of the files changes.
+ */
+public class KeyringHolder {
+    private final Path keyPath;
+    private final Path keyringPath;
+    private final KeyManager keyManager;
+    private volatile Loaded loaded;
+    private volatile boolean watching;
+    private volatile boolean changed = true;
+    private WatchService watchService;
+
+    public KeyringHolder(Path keyPath,
+                         Path keyringPath,
+                         KeyManager keyManager) {
+        this.keyPath = keyPath;
+        this.keyringPath = keyringPath;
+        this.keyManager = keyManager;
+    }
+
+    /**
+     * @return the keyring built from the key files, empty if neither holds a key
+     */
+    public Optional<Keyring> current() throws KeyManagerException {
+        Loaded current = loaded;
+        if (watching && !changed && current != null) {
+            return Optional.of(current.keyring());
+        }
+        changed = false;
+
+        Stamps stamps = new Stamps(FileStamp.of(keyPath), FileStamp.of(keyringPath));
+        if (stamps.keyFile().isEmpty() && stamps.keyringFile().isEmpty()) {
+            loaded = null;
+            return Optional.empty();
+        }
+        if (current != null && current.stamps().equals(stamps)) {
+            return Optional.of(current.keyring());
+        }
+        return reload(stamps);
+    }
+
+    private synchronized Optional<Keyring> reload(Stamps stamps) throws KeyManagerException {
+        Loaded current = loaded;
+        if (current != null && current.stamps().equals(stamps)) {
+            return Optional.of(current.keyring());
+        }
+        // The stamps are taken before reading, so a write racing with this read is picked up by the next lookup.
+        List<Keyring.Key> keys = new ArrayList<>();
+        Optional<String> keyringJson = keyManager.readKeyringFromFile();
+        if (keyringJson.isPresent()) {
+            keys.addAll(keyManager.parseKeyring(keyringJson.get()));
+        }
+        Optional<String> key = keyringJson.isPresent() ? Optional.empty() : keyManager.readKeyFromFile();
+        if (key.isPresent()) {
+            Ed25519Verifier verifier = keyManager.createVerifier(keyManager.convertToPublicKey(key.get()));
+            keys.add(new Keyring.Key(null, verifier, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+        if (keys.isEmpty()) {
+            loaded = null;
+            return Optional.empty();
+        }
+        Keyring keyring = new Keyring(keys);
+        loaded = new Loaded(stamps, keyring);
+        getLogger().infoEntry()
+                .message("Loaded public keys from file")
+                .field("KeyPath", keyPath)
+                .field("KeyringPath", keyringPath)
+                .field("Keys", keyring.describe())
+                .log();
+        return Optional.of(keyring);
+    }
+
+    /**
+     * Forgets the cached keyring, e.g. after a key file was rewritten within the file system's timestamp granularity.
+     */
+    public void invalidate() {
+        loaded = null;
+        changed = true;
+    }
+
+    /**
+     * Starts a daemon thread that watches the key files' directory. Until the watch reports a change to one of the
+     * key files, lookups return the cached keyring without a {@code stat}.
+     */
+    public synchronized void watch() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        Path directory = keyPath.toAbsolutePath().getParent();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        Thread watcher = new Thread(() -> pollWatch(watchService), "public-key-watch");
+        watcher.setDaemon(true);
+        watcher.start();
+        changed = true;
+        watching = true;
+    }
+
+    private void pollWatch(WatchService service) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW ||
+                            keyPath.getFileName().equals(event.context()) ||
+                            keyringPath.getFileName().equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                if (!key.reset()) {
+                    // The directory is gone; fall back to a stat per lookup.
+                    watching = false;
+                    changed = true;
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            watching = false;
+            changed = true;
+        }
+    }
+
+    private CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    private record Loaded(Stamps stamps, Keyring keyring) {
+    }
+
+    private record Stamps(Optional<FileStamp> keyFile, Optional<FileStamp> keyringFile) {
+    }
+
+    private record FileStamp(FileTime lastModified, Object fileKey, long size) {
+        static Optional<FileStamp> of(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return Optional.of(new FileStamp(attributes.lastModifiedTime(), attributes.fileKey(),
+                        attributes.size()));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+    }
+}
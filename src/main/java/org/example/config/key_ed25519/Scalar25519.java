@@ -0,0 +1,183 @@
+package org.example.config.key_ed25519;
+
+import java.math.BigInteger;
+
+/**
+ * Scalars modulo the edwards25519 group order L, as 32-byte little-endian encodings.
+ */
+final class Scalar25519 {
+    static final BigInteger L = BigInteger.ONE.shiftLeft(252)
+            .add(new BigInteger("27742317777372353535851937790883648493"));
+    static final int REDUCE_LIMBS = 24;
+    private static final byte[] L_BYTES = toBytes(L);
+    private static final int LIMB_BITS = 21;
+    private static final long LIMB_MASK = (1L << LIMB_BITS) - 1;
+
+    private Scalar25519() {
+    }
+
+    /**
+     * Whether the 32 bytes encode an integer below L, as RFC 8032 requires of the S half of a signature.
+     */
+    static boolean isCanonical(byte[] bytes,
+                               int offset) {
+        for (int i = 31; i >= 0; i--) {
+            int b = bytes[offset + i] & 0xff;
+            int l = L_BYTES[i] & 0xff;
+            if (b != l) {
+                return b < l;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reduces a 64-byte little-endian integer, such as a SHA-512 digest, modulo L into 32 bytes without allocating.
+     * Works on 21-bit limbs as the reference implementation does: 2^252 = -c (mod L), and -c splits into the six
+     * signed 21-bit limbs folded in by {@link #fold}.
+     *
+     * @param s scratch of {@value #REDUCE_LIMBS} limbs
+     */
+    static void reduce(byte[] out,
+                       byte[] in,
+                       long[] s) {
+        for (int i = 0; i < REDUCE_LIMBS - 1; i++) {
+            s[i] = bits(in, i * LIMB_BITS) & LIMB_MASK;
+        }
+        // The top limb takes the remaining 29 bits.
+        s[REDUCE_LIMBS - 1] = bits(in, (REDUCE_LIMBS - 1) * LIMB_BITS);
+
+        for (int i = 23; i >= 18; i--) {
+            fold(s, i);
+        }
+        carryRounded(s, 6, 16);
+        for (int i = 17; i >= 12; i--) {
+            fold(s, i);
+        }
+        carryRounded(s, 0, 11);
+        fold(s, 12);
+        carryFloor(s, 0, 11);
+        fold(s, 12);
+        carryFloor(s, 0, 10);
+
+        for (int i = 0; i < 32; i++) {
+            out[i] = 0;
+        }
+        for (int i = 0; i < 12; i++) {
+            int start = i * LIMB_BITS;
+            long limb = s[i] << (start & 7);
+            for (int b = start >> 3; limb != 0 && b < 32; b++) {
+                out[b] |= (byte) limb;
+                limb >>>= 8;
+            }
+        }
+    }
+
+    private static long bits(byte[] in,
+                             int start) {
+        long value = 0;
+        int first = start >> 3;
+        int last = Math.min(first + 4, 63);
+        for (int i = last; i >= first; i--) {
+            value = (value << 8) | (in[i] & 0xff);
+        }
+        return value >>> (start & 7);
+    }
+
+    private static void fold(long[] s,
+                             int i) {
+        long v = s[i];
+        s[i - 12] += v * 666643;
+        s[i - 11] += v * 470296;
+        s[i - 10] += v * 654183;
+        s[i - 9] -= v * 997805;
+        s[i - 8] += v * 136657;
+        s[i - 7] -= v * 683901;
+        s[i] = 0;
+    }
+
+    /**
+     * Signed carries from limbs {@code from..to}, first the even then the odd ones, so no limb grows between two
+     * carries.
+     */
+    private static void carryRounded(long[] s,
+                                     int from,
+                                     int to) {
+        for (int parity = 0; parity < 2; parity++) {
+            for (int i = from + parity; i <= to; i += 2) {
+                long carry = (s[i] + (1L << (LIMB_BITS - 1))) >> LIMB_BITS;
+                s[i + 1] += carry;
+                s[i] -= carry << LIMB_BITS;
+            }
+        }
+    }
+
+    private static void carryFloor(long[] s,
+                                   int from,
+                                   int to) {
+        for (int i = from; i <= to; i++) {
+            long carry = s[i] >> LIMB_BITS;
+            s[i + 1] += carry;
+            s[i] -= carry << LIMB_BITS;
+        }
+    }
+
+    static BigInteger toBigInteger(byte[] bytes,
+                                   int offset,
+                                   int length) {
+        byte[] bigEndian = new byte[length + 1];
+        for (int i = 0; i < length; i++) {
+            bigEndian[length - i] = bytes[offset + i];
+        }
+        return new BigInteger(bigEndian);
+    }
+
+    static byte[] toBytes(BigInteger value) {
+        byte[] out = new byte[32];
+        byte[] bigEndian = value.toByteArray();
+        for (int i = 0; i < bigEndian.length && i < 32; i++) {
+            out[i] = bigEndian[bigEndian.length - 1 - i];
+        }
+        return out;
+    }
+
+    /**
+     * Recodes a scalar below 2^255 into signed digits, most of them zero, such that {@code scalar = sum digits[i] 2^i}
+     * and every non-zero digit is odd and below 2^(width - 1) in magnitude. A window of that width then needs the
+     * odd multiples 1P, 3P, ..., (2^(width - 1) - 1)P only.
+     */
+    static void slide(byte[] digits,
+                      byte[] scalar,
+                      int width) {
+        int bound = (1 << (width - 1)) - 1;
+        for (int i = 0; i < 256; i++) {
+            digits[i] = (byte) (1 & (scalar[i >> 3] >> (i & 7)));
+        }
+        for (int i = 0; i < 256; i++) {
+            if (digits[i] == 0) {
+                continue;
+            }
+            for (int b = 1; b <= width + 1 && i + b < 256; b++) {
+                if (digits[i + b] == 0) {
+                    continue;
+                }
+                int shifted = digits[i + b] << b;
+                if (digits[i] + shifted <= bound) {
+                    digits[i] += (byte) shifted;
+                    digits[i + b] = 0;
+                } else if (digits[i] - shifted >= -bound) {
+                    digits[i] -= (byte) shifted;
+                    for (int k = i + b; k < 256; k++) {
+                        if (digits[k] == 0) {
+                            digits[k] = 1;
+                            break;
+                        }
+                        digits[k] = 0;
+                    }
+                } else {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Forwards a token to a running {@link ExecutorServer} and copies its answer through as it arrives. Deliberately
+ * touches neither the configuration nor the logger, so {@code execute} does no start-up work beyond parsing its
+ * arguments when an executor is serving.
+ */
+public final class ExecutorClient {
+    private static final int BUFFER_SIZE = 8192;
+
+    private ExecutorClient() {
+    }
+
+    /**
+     * @return {@code false} if no executor is serving on {@code socketPath}; nothing was sent then and the token can
+     * be run in-process
+     * @throws IOException if the connection broke after the token was sent
+     */
+    public static boolean forward(Path socketPath,
+                                  String token,
+                                  OutputStream out) throws IOException {
+        return send(socketPath, ExecutorServer.EXECUTE_REQUEST + " " + token.trim(), out);
+    }
+
+    /**
+     * Asks a running executor for its operation scheduler statistics.
+     *
+     * @return {@code false} if no executor is serving on {@code socketPath}
+     */
+    public static boolean requestStats(Path socketPath,
+                                       OutputStream out) throws IOException {
+        return send(socketPath, ExecutorServer.STATS_REQUEST, out);
+    }
+
+    private static boolean send(Path socketPath,
+                                String line,
+                                OutputStream out) throws IOException {
+        SocketChannel channel = connect(socketPath);
+        if (channel == null) {
+            return false;
+        }
+        try (channel) {
+            ByteBuffer request = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            while (request.hasRemaining()) {
+                channel.write(request);
+            }
+            // The write side stays open: the server takes its closing as the client giving up on the request.
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            long received = 0;
+            int read;
+            while ((read = channel.read(buffer)) >= 0) {
+                out.write(buffer.array(), 0, read);
+                received += read;
+                buffer.clear();
+            }
+            out.flush();
+            if (received == 0) {
+                throw new IOException("Executor closed the connection without a result");
+            }
+        }
+        return true;
+    }
+
+    static boolean isServing(Path socketPath) {
+        SocketChannel channel = connect(socketPath);
+        if (channel == null) {
+            return false;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Connecting was the check.
+        }
+        return true;
+    }
+
+    private static SocketChannel connect(Path socketPath) {
+        if (!Files.exists(socketPath)) {
+            return null;
+        }
+        try {
+            return SocketChannel.open(UnixDomainSocketAddress.of(socketPath));
+        } catch (IOException e) {
+            // A socket left behind by a stopped executor, or one we may not use.
+            return null;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package org.example.daemon;
+
+import jdk.net.ExtendedSocketOptions;
+import jdk.net.UnixDomainPrincipal;
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+import org.example.operations.Cancellation;
+import org.example.operations.OperationResult;
+import org.example.value_types.TokenDecoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Long-running executor that keeps configuration, keys and the used token ledger warm and runs tokens forwarded by
+ * {@link ExecutorClient} over a Unix domain socket.
+ * <p>
+ * The socket lives in a directory only its owner can enter, and connections from any other user are dropped after
+ * checking the peer's credentials. One request per connection: the client sends {@code execute <token>\n} or
+ * {@code stats\n}, the server answers with the result JSON and closes the connection. The client keeps its side
+ * open until the answer arrives; closing it earlier, e.g. because the SSH session that ran it ended, cancels the
+ * token's operation. Each request runs on its own
+ * virtual thread and operations are limited by the {@link org.example.operations.core.OperationScheduler}; beyond
+ * {@code maxRequests} open requests, new ones are answered with an error instead of waiting.
+ */
+public class ExecutorServer implements Closeable {
+    static final String EXECUTE_REQUEST = "execute";
+    static final String STATS_REQUEST = "stats";
+    static final int MAX_REQUEST_LENGTH = EXECUTE_REQUEST.length() + 2 + TokenDecoder.MAX_ENCODED_LENGTH;
+    private static final String DIRECTORY_PERMISSIONS = "rwx------";
+    private static final String SOCKET_PERMISSIONS = "rw-------";
+    private final Path socketPath;
+    private final BiFunction<String, Cancellation, OperationResult> handler;
+    private final Supplier<OperationResult> stats;
+    private final Semaphore openRequests;
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private ServerSocketChannel server;
+    private volatile boolean closed;
+
+    /**
+     * @param handler runs a token and returns its result, stopping early once the given cancellation fires; called
+     *                concurrently from up to {@code maxRequests} threads
+     * @param stats   answers a {@code stats} request
+     */
+    public ExecutorServer(Path socketPath,
+                          int maxRequests,
+                          BiFunction<String, Cancellation, OperationResult> handler,
+                          Supplier<OperationResult> stats) {
+        this.socketPath = socketPath;
+        this.handler = handler;
+        this.stats = stats;
+        this.openRequests = new Semaphore(maxRequests);
+    }
+
+    /**
+     * Creates the socket, replacing one left behind by an executor that is no longer running.
+     */
+    public synchronized void bind() throws IOException {
+        Path directory = socketPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Files.setPosixFilePermissions(directory, PosixFilePermissions.fromString(DIRECTORY_PERMISSIONS));
+        if (Files.exists(socketPath)) {
+            if (ExecutorClient.isServing(socketPath)) {
+                throw new IOException("An executor is already serving on " + socketPath);
+            }
+            Files.delete(socketPath);
+        }
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socketPath));
+        Files.setPosixFilePermissions(socketPath, PosixFilePermissions.fromString(SOCKET_PERMISSIONS));
+    }
+
+    /**
+     * Accepts connections until {@link #close()} is called.
+     */
+    public void serve() throws IOException {
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (AsynchronousCloseException e) {
+                return;
+            }
+            if (!openRequests.tryAcquire()) {
+                try (channel) {
+                    respond(channel, OperationResult.failure(OperationResult.ExecutionStatus.CONFLICT,
+                            "Executor is busy, try again"));
+                } catch (IOException ignored) {
+                    // The client is gone; nothing to report to.
+                }
+                continue;
+            }
+            threads.execute(() -> {
+                try {
+                    handle(channel);
+                } finally {
+                    openRequests.release();
+                }
+            });
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            if (!isPeerAllowed(channel)) {
+                return;
+            }
+            String request = readRequest(channel);
+            OperationResult result;
+            if (request != null && request.startsWith(EXECUTE_REQUEST + " ")) {
+                result = run(channel, request.substring(EXECUTE_REQUEST.length() + 1));
+            } else if (STATS_REQUEST.equals(request)) {
+                result = stats.get();
+            } else {
+                result = OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                        "Malformed executor request");
+            }
+            respond(channel, result);
+        } catch (IOException e) {
+            getLogger().
+                    warnEntry().message("Executor connection failed").exception(e).log();
+        }
+    }
+
+    private OperationResult run(SocketChannel channel,
+                                String token) {
+        Cancellation cancellation = new Cancellation();
+        Thread.ofVirtual().name("executor-disconnect-watch").start(() -> cancelOnDisconnect(channel, cancellation));
+        try {
+            return handler.apply(token, cancellation);
+        } catch (RuntimeException e) {
+            getLogger().
+                    errorEntry().message("Token execution failed").exception(e).log();
+            return OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for the client to close its side of the connection. Ends without cancelling once the connection is closed
+     * here, after the answer was sent.
+     */
+    private static void cancelOnDisconnect(SocketChannel channel,
+                                           Cancellation cancellation) {
+        ByteBuffer ignored = ByteBuffer.allocate(64);
+        try {
+            while (channel.read(ignored) >= 0) {
+                ignored.clear();
+            }
+        } catch (ClosedChannelException e) {
+            return;
+        } catch (IOException e) {
+            // Reset by the client: as gone as a clean close.
+        }
+        getLogger().
+                infoEntry().message("Client disconnected, cancelling its token").log();
+        cancellation.cancel();
+    }
+
+    private static boolean isPeerAllowed(SocketChannel channel) throws IOException {
+        UnixDomainPrincipal peer;
+        try {
+            peer = channel.getOption(ExtendedSocketOptions.SO_PEERCRED);
+        } catch (UnsupportedOperationException e) {
+            // Only the socket's owner can reach it through its directory.
+            return true;
+        }
+        String owner = System.getProperty("user.name");
+        if (peer.user().getName().equals(owner)) {
+            return true;
+        }
+        getLogger().
+                warnEntry().message("Rejected executor connection from another user")
+                .field("User", peer.user().getName()).log();
+        return false;
+    }
+
+    /**
+     * @return the request line without its newline, or null if it is missing or too long
+     */
+    private static String readRequest(SocketChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_REQUEST_LENGTH + 1);
+        while (buffer.hasRemaining()) {
+            int start = buffer.position();
+            if (channel.read(buffer) < 0) {
+                return null;
+            }
+            for (int i = start; i < buffer.position(); i++) {
+                if (buffer.get(i) == '\n') {
+                    return new String(buffer.array(), 0, i, StandardCharsets.US_ASCII);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static void respond(SocketChannel channel,
+                                OperationResult result) throws IOException {
+        ByteBuffer response = ByteBuffer.wrap((result.toPrettyJson() + "\n").getBytes(StandardCharsets.UTF_8));
+        while (response.hasRemaining()) {
+            channel.write(response);
+        }
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    /**
+     * Stops accepting connections, lets running requests finish and removes the socket.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        threads.shutdown();
+        try {
+            if (server != null) {
+                server.close();
+                Files.deleteIfExists(socketPath);
+            }
+            threads.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
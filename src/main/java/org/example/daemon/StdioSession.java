@@ -0,0 +1,201 @@
+package org.example.daemon;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+import org.example.operations.OperationResult;
+import org.example.value_types.TokenDecoder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Many requests over one pair of streams, so a backend can keep a single SSH channel per host open and pipeline
+ * tokens over it.
+ * <p>
+ * Each input line is {@code <id> <token>}; each output line is the compact result JSON with {@code "id"} added.
+ * Requests run concurrently and their responses are written as they complete, so they may come back in a different
+ * order than they were sent. At most {@code maxInFlight} requests run at once; beyond that the session stops reading
+ * its input until one finishes, which pushes back on the sender through the channel's flow control. The session ends
+ * at end of input once every started request has been answered.
+ */
+public class StdioSession {
+    public static final int MAX_ID_LENGTH = 64;
+    static final int MAX_LINE_LENGTH = MAX_ID_LENGTH + 1 + TokenDecoder.MAX_ENCODED_LENGTH;
+    private final InputStream in;
+    private final OutputStream out;
+    private final int maxInFlight;
+    private final Function<String, OperationResult> handler;
+
+    public StdioSession(InputStream in,
+                        OutputStream out,
+                        int maxInFlight,
+                        Function<String, OperationResult> handler) {
+        this.in = in;
+        this.out = out;
+        this.maxInFlight = maxInFlight;
+        this.handler = handler;
+    }
+
+    /**
+     * Runs until end of input and all responses are written.
+     *
+     * @return number of requests answered
+     */
+    public long run() throws IOException, InterruptedException {
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LineReader lines = new LineReader(in);
+        long requests = 0;
+        try {
+            LineReader.Line next;
+            while ((next = lines.next()) != null) {
+                if (next.tooLong()) {
+                    requests++;
+                    respond(null, OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                            "Request line exceeds " + MAX_LINE_LENGTH + " characters"));
+                    continue;
+                }
+                String line = next.text();
+                if (line.isBlank()) {
+                    continue;
+                }
+                requests++;
+                int separator = line.indexOf(' ');
+                String id = separator < 0 ? line : line.substring(0, separator);
+                if (separator <= 0 || !isValidId(id)) {
+                    respond(null, OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                            "Expected '<id> <token>' with an id of up to " + MAX_ID_LENGTH +
+                                    " printable characters"));
+                    continue;
+                }
+                String token = line.substring(separator + 1);
+                inFlight.acquire();
+                workers.execute(() -> {
+                    try {
+                        respond(id, run(token));
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        return requests;
+    }
+
+    private OperationResult run(String token) {
+        try {
+            return handler.apply(token);
+        } catch (RuntimeException e) {
+            getLogger().
+                    errorEntry().message("Token execution failed").exception(e).log();
+            return OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR, e.getMessage());
+        }
+    }
+
+    private void respond(String id,
+                         OperationResult result) {
+        JsonNode idNode = id == null ? NullNode.getInstance() : TextNode.valueOf(id);
+        byte[] line = (result.toJsonLine("id", idNode) + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            synchronized (out) {
+                out.write(line);
+                out.flush();
+            }
+        } catch (IOException e) {
+            getLogger().
+                    warnEntry().message("Could not write session response").field("Id", id).exception(e).log();
+        }
+    }
+
+    private static boolean isValidId(String id) {
+        if (id.isEmpty() || id.length() > MAX_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c <= ' ' || c > '~') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    /**
+     * Reads lines of at most {@link #MAX_LINE_LENGTH} bytes without buffering an over-long line: the rest of it is
+     * skipped and a {@link Line} marked too long returned in its place.
+     */
+    private static final class LineReader {
+        private static final Line TOO_LONG = new Line("", true);
+        private final InputStream in;
+        private final byte[] buffer = new byte[8192];
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private int position;
+        private int limit;
+
+        LineReader(InputStream in) {
+            this.in = in;
+        }
+
+        Line next() throws IOException {
+            line.reset();
+            boolean overflow = false;
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        if (overflow) {
+                            return TOO_LONG;
+                        }
+                        return line.size() == 0 ? null : current();
+                    }
+                }
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                if (!overflow) {
+                    line.write(buffer, start, position - start);
+                    if (line.size() > MAX_LINE_LENGTH) {
+                        overflow = true;
+                        line.reset();
+                    }
+                }
+                if (position < limit) {
+                    position++;
+                    return overflow ? TOO_LONG : current();
+                }
+            }
+        }
+
+        private Line current() {
+            return new Line(line.toString(StandardCharsets.US_ASCII).strip(), false);
+        }
+
+        /**
+         * @param text    the line without its terminator and surrounding whitespace, empty if it was too long
+         * @param tooLong whether the line exceeded {@link #MAX_LINE_LENGTH} bytes
+         */
+        record Line(String text, boolean tooLong) {
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package org.example;
 
 import org.example.operations.OperationResult;
+import org.example.picocli.subcommands.AdmissionStatsSubCommand;
+import org.example.picocli.subcommands.CheckCryptoSubCommand;
 import org.example.picocli.subcommands.CheckSubCommand;
+import org.example.picocli.subcommands.ExecuteBatchSubCommand;
 import org.example.picocli.subcommands.ExecuteSubCommand;
 import org.example.picocli.subcommands.HealthCheckSubCommand;
 import org.example.picocli.subcommands.InitSubCommand;
+import org.example.picocli.subcommands.LedgerExportSubCommand;
+import org.example.picocli.subcommands.LedgerStatsSubCommand;
+import org.example.picocli.subcommands.SchedulerStatsSubCommand;
+import org.example.picocli.subcommands.ServeSubCommand;
+import org.example.picocli.subcommands.SessionSubCommand;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
@@ -25,9 +33,17 @@ public class main implements Callable<Integer> {
         main app = new main();
         CommandLine commandLine = new CommandLine(app);
         commandLine.addSubcommand(new ExecuteSubCommand(app));
+        commandLine.addSubcommand(new ExecuteBatchSubCommand(app));
         commandLine.addSubcommand(new InitSubCommand(app));
         commandLine.addSubcommand(new HealthCheckSubCommand(app));
         commandLine.addSubcommand(new CheckSubCommand(app));
+        commandLine.addSubcommand(new CheckCryptoSubCommand(app));
+        commandLine.addSubcommand(new LedgerStatsSubCommand(app));
+        commandLine.addSubcommand(new LedgerExportSubCommand(app));
+        commandLine.addSubcommand(new AdmissionStatsSubCommand(app));
+        commandLine.addSubcommand(new ServeSubCommand(app));
+        commandLine.addSubcommand(new SessionSubCommand(app));
+        commandLine.addSubcommand(new SchedulerStatsSubCommand(app));
 
         if (args.length == 0) {
             String sshOriginalCommand = System.getenv("SSH_ORIGINAL_COMMAND");
@@ -0,0 +1,32 @@
+package org.example.operations;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+/**
+ * An operation that runs without holding the caller's thread and can be bounded in time and stopped early. The
+ * deadline and cancellation are passed on to the subprocesses and database statements it runs, so an operation
+ * nobody waits for any more stops using CPU, and independent sub-steps can run at the same time.
+ * <p>
+ * The returned stage completes with a result in all cases: failures, an expired deadline and cancellation are
+ * reported as failed results, not as exceptional completion.
+ */
+public interface AsyncOperation extends Operation {
+    /**
+     * Runs blocking sub-steps, such as JDBC calls, each on its own virtual thread.
+     */
+    Executor BLOCKING = task -> Thread.ofVirtual().name("operation").start(task);
+
+    CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                  Cancellation cancellation);
+
+    @Override
+    default OperationResult execute() {
+        try {
+            return executeAsync(Deadline.none(), Cancellation.none()).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            return OperationResult.internalError("Operation failed: " + e.getCause());
+        }
+    }
+}
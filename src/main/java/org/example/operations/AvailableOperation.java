@@ -16,16 +16,121 @@ public sealed interface AvailableOperation permits AvailableOperation.DNS, Avail
         };
     }
 
+    /**
+     * Looks an operation up by the stable code binary tokens carry, see {@link #code()}.
+     */
+    static AvailableOperation fromCode(int code) {
+        for (AvailableOperation operation : DNS.values()) {
+            if (operation.code() == code) {
+                return operation;
+            }
+        }
+        for (AvailableOperation operation : Plesk.values()) {
+            if (operation.code() == code) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation code: " + code);
+    }
+
+    /**
+     * Stable 16-bit identifier, family in the high byte. Never reuse or renumber a code.
+     */
+    int code();
+
+    /**
+     * The name {@link #valueOf(String)} accepts, e.g. {@code PLESK.GET_LOGIN_LINK}.
+     */
+    String qualifiedName();
+
+    Effect effect();
+
+    /**
+     * Whether the operation changes state on the server. Mutating operations never run concurrently with any other
+     * operation on the same target, and their results are never shared between callers.
+     */
+    default boolean isMutating() {
+        return effect() == Effect.MUTATING;
+    }
+
+    /**
+     * Whether concurrent calls with the same arguments may share one execution and its result.
+     */
+    default boolean isReadOnly() {
+        return effect() == Effect.READ_ONLY;
+    }
+
+    enum Effect {
+        /**
+         * Only reads state; the result depends on nothing but the arguments and the server's state.
+         */
+        READ_ONLY,
+        /**
+         * Changes nothing the other operations see, but every call yields a result of its own, e.g. a one-time
+         * login link.
+         */
+        UNIQUE_RESULT,
+        MUTATING
+    }
+
     enum DNS implements AvailableOperation {
-        REMOVE_ZONE,
-        GET_ZONE_MASTER
+        REMOVE_ZONE(0x0201, Effect.MUTATING),
+        GET_ZONE_MASTER(0x0202, Effect.READ_ONLY);
+
+        private final int code;
+        private final Effect effect;
+
+        DNS(int code,
+            Effect effect) {
+            this.code = code;
+            this.effect = effect;
+        }
+
+        @Override
+        public int code() {
+            return code;
+        }
+
+        @Override
+        public String qualifiedName() {
+            return "DNS." + name();
+        }
+
+        @Override
+        public Effect effect() {
+            return effect;
+        }
     }
 
     enum Plesk implements AvailableOperation {
-        GET_LOGIN_LINK,
-        FETCH_SUBSCRIPTION_INFO,
-        GET_TESTMAIL_CREDENTIALS,
-        RESTART_DNS_SERVICE,
-        GET_SUBSCRIPTION_ID_BY_DOMAIN
+        GET_LOGIN_LINK(0x0101, Effect.UNIQUE_RESULT),
+        FETCH_SUBSCRIPTION_INFO(0x0102, Effect.READ_ONLY),
+        GET_TESTMAIL_CREDENTIALS(0x0103, Effect.MUTATING),
+        RESTART_DNS_SERVICE(0x0104, Effect.MUTATING),
+        GET_SUBSCRIPTION_ID_BY_DOMAIN(0x0105, Effect.READ_ONLY);
+
+        private final int code;
+        private final Effect effect;
+
+        Plesk(int code,
+              Effect effect) {
+            this.code = code;
+            this.effect = effect;
+        }
+
+        @Override
+        public int code() {
+            return code;
+        }
+
+        @Override
+        public String qualifiedName() {
+            return "PLESK." + name();
+        }
+
+        @Override
+        public Effect effect() {
+            return effect;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.example.operations;
+
+import java.util.Optional;
+
+/**
+ * A read-only operation that can tell cheaply whether the data behind its result may have changed, so that a stored
+ * result can be reused across executor invocations.
+ */
+public interface CacheableOperation extends Operation {
+    /**
+     * @return a value that changes whenever the data this operation reads may have changed, such as a file's
+     * modification time, or empty if that cannot be determined right now, in which case nothing is reused. Runs on
+     * every lookup, so it must cost far less than the operation; changes it cannot see are bounded by the TTL
+     */
+    Optional<String> freshnessStamp(Deadline deadline,
+                                    Cancellation cancellation);
+}
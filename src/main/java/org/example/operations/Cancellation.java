@@ -0,0 +1,88 @@
+package org.example.operations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets whoever waits for an operation tell it to stop, e.g. when the client that asked for it has gone away.
+ * Operations register what stops their work in progress, such as destroying a subprocess or cancelling a JDBC
+ * statement, and check {@link #isCancelled()} before starting the next step. Cancelling is idempotent and runs each
+ * registered action once, on the cancelling thread.
+ */
+public class Cancellation {
+    private static final Cancellation NEVER = new Cancellation() {
+        @Override
+        public void cancel() {
+            throw new UnsupportedOperationException("Cancellation.none() cannot be cancelled");
+        }
+
+        @Override
+        public Registration onCancel(Runnable action) {
+            return () -> {
+            };
+        }
+    };
+    private final List<Runnable> actions = new ArrayList<>();
+    private boolean cancelled;
+
+    /**
+     * @return a handle that is never cancelled, for callers that will wait however long it takes
+     */
+    public static Cancellation none() {
+        return NEVER;
+    }
+
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            toRun = List.copyOf(actions);
+            actions.clear();
+        }
+        for (Runnable action : toRun) {
+            action.run();
+        }
+    }
+
+    /**
+     * @return a handle cancelled together with this one that can also be cancelled on its own, to stop one sub-step
+     * without stopping the rest
+     */
+    public Cancellation child() {
+        Cancellation child = new Cancellation();
+        onCancel(child::cancel);
+        return child;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Runs {@code action} on cancellation, or right away if already cancelled. Close the registration once the work
+     * it stops has finished.
+     */
+    public Registration onCancel(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                actions.add(action);
+                return () -> {
+                    synchronized (this) {
+                        actions.remove(action);
+                    }
+                };
+            }
+        }
+        action.run();
+        return () -> {
+        };
+    }
+
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
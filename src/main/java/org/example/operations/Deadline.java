@@ -0,0 +1,59 @@
+package org.example.operations;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which an operation should have finished, measured on the monotonic clock. Immutable; a deadline
+ * handed to sub-steps can only be shortened by them, never extended.
+ */
+public final class Deadline {
+    private static final Deadline NONE = new Deadline(0, false);
+    private final long atNanos;
+    private final boolean bounded;
+
+    private Deadline(long atNanos,
+                     boolean bounded) {
+        this.atNanos = atNanos;
+        this.bounded = bounded;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + Math.max(0, timeout.toNanos()), true);
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - atNanos >= 0;
+    }
+
+    /**
+     * @return time left, zero once expired; {@code fallback} if this deadline is unbounded
+     */
+    public Duration remaining(Duration fallback) {
+        if (!bounded) {
+            return fallback;
+        }
+        return Duration.ofNanos(Math.max(0, atNanos - System.nanoTime()));
+    }
+
+    /**
+     * @return the earlier of this deadline and {@code timeout} from now
+     */
+    public Deadline within(Duration timeout) {
+        Deadline capped = after(timeout);
+        return !bounded || capped.atNanos - atNanos < 0 ? capped : this;
+    }
+
+    @Override
+    public String toString() {
+        return bounded ? TimeUnit.NANOSECONDS.toMillis(atNanos - System.nanoTime()) + "ms left" : "none";
+    }
+}
@@ -2,9 +2,27 @@ package org.example.operations;
 
 
 import java.util.Arrays;
+import java.util.Locale;
 
 public record OperationRequest(AvailableOperation commandName, String[] commandArgs) {
 
+    /**
+     * Identifies a {@linkplain AvailableOperation#isReadOnly() read-only} request by what it reads: the operation
+     * and its arguments, compared case-insensitively and without a trailing dot, as the arguments of all read-only
+     * operations are domain names.
+     */
+    public String canonicalKey() {
+        StringBuilder key = new StringBuilder(commandName.qualifiedName());
+        for (String arg : commandArgs) {
+            String canonical = arg.strip().toLowerCase(Locale.ROOT);
+            if (canonical.endsWith(".")) {
+                canonical = canonical.substring(0, canonical.length() - 1);
+            }
+            key.append(' ').append(canonical);
+        }
+        return key.toString();
+    }
+
     @Override
     public String toString() {
         return commandName + " args:" + Arrays.toString(commandArgs);
@@ -11,8 +11,16 @@ import org.example.logging.facade.LogManager;
 import java.util.Optional;
 
 
-public record OperationResult(ExecutionStatus status, String message, Optional<JsonNode> payload) {
+public record OperationResult(ExecutionStatus status, String message, Optional<JsonNode> payload,
+                              boolean replayed) {
     private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final ObjectMapper LINE_MAPPER = new ObjectMapper();
+
+    public OperationResult(ExecutionStatus status,
+                           String message,
+                           Optional<JsonNode> payload) {
+        this(status, message, payload, false);
+    }
 
     public static OperationResult success(Optional<JsonNode> result) {
         return new OperationResult(ExecutionStatus.OK, "Operation completed successfully", result);
@@ -63,6 +71,36 @@ public record OperationResult(ExecutionStatus status, String message, Optional<J
         return new OperationResult(ExecutionStatus.INTERNAL_ERROR, message, Optional.empty());
     }
 
+    public static OperationResult conflict(String message) {
+        return new OperationResult(ExecutionStatus.CONFLICT, message, Optional.empty());
+    }
+
+    /**
+     * The operation was stopped because it ran past its deadline; the host was too slow rather than the command
+     * wrong, and retrying later may succeed.
+     */
+    public static OperationResult timeout(String message) {
+        return new OperationResult(ExecutionStatus.TIMEOUT, message, Optional.empty());
+    }
+
+    /**
+     * Rebuilds a result from {@link #toJsonNode()} output.
+     */
+    public static OperationResult fromJsonNode(JsonNode node) {
+        JsonNode payload = node.path("payload");
+        return new OperationResult(ExecutionStatus.valueOf(node.path("status").asText()),
+                node.path("message").asText(),
+                payload.isMissingNode() || payload.isNull() ? Optional.empty() : Optional.of(payload),
+                node.path("replayed").asBoolean(false));
+    }
+
+    /**
+     * The same result marked as returned from storage instead of executing the operation again.
+     */
+    public OperationResult asReplay() {
+        return new OperationResult(status, message, payload, true);
+    }
+
     public int getStatusCode() {
         return status.getCode();
     }
@@ -93,6 +131,28 @@ public record OperationResult(ExecutionStatus status, String message, Optional<J
         }
     }
 
+    /**
+     * Single-line JSON for line-delimited output, led by {@code key} so a reader can match the line to its request.
+     */
+    public String toJsonLine(String key,
+                             JsonNode id) {
+        ObjectNode line = LINE_MAPPER.createObjectNode();
+        line.set(key, id);
+        line.setAll((ObjectNode) toJsonNode());
+        try {
+            return LINE_MAPPER.writeValueAsString(line);
+        } catch (JsonProcessingException e) {
+            getLogger().errorEntry().message("Error serializing OperationResult to JSON").exception(e).log();
+            line.removeAll();
+            line.set(key, id);
+            line.put("status", ExecutionStatus.INTERNAL_ERROR.name());
+            line.put("code", ExecutionStatus.INTERNAL_ERROR.getCode());
+            line.put("message", "Serialization failure: " + e.getMessage());
+            line.putNull("payload");
+            return line.toString();
+        }
+    }
+
     public JsonNode toJsonNode() {
         ObjectNode root = MAPPER.createObjectNode();
         root.put("status", status.name());
@@ -104,6 +164,9 @@ public record OperationResult(ExecutionStatus status, String message, Optional<J
         } else {
             root.set("payload", MAPPER.nullNode());
         }
+        if (replayed) {
+            root.put("replayed", true);
+        }
         return root;
     }
 
@@ -114,7 +177,8 @@ public record OperationResult(ExecutionStatus status, String message, Optional<J
     public enum ExecutionStatus {
         OK(200, "OK"), CREATED(201, "Created"), BAD_REQUEST(400, "Bad Request"), UNAUTHORIZED(401,
                 "Unauthorized"), UNPROCCESIBLE_ENTITY(422, "Unprocessable Entity"), NOT_FOUND(404,
-                "Not Found"), INTERNAL_ERROR(500, "Internal Server Error");
+                "Not Found"), CONFLICT(409, "Conflict"), INTERNAL_ERROR(500, "Internal Server Error"), TIMEOUT(504,
+                "Gateway Timeout");
 
 
         private final int code;
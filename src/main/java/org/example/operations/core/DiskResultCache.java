@@ -0,0 +1,257 @@
+package org.example.operations.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.operations.AvailableOperation;
+import org.example.operations.OperationRequest;
+import org.example.operations.OperationResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+/**
+ * Memory-mapped store of read-only operation results shared by executor invocations, for the one-shot
+ * {@code execute} command, where nothing survives in memory between tokens.
+ * <p>
+ * A result is stored together with the operation's {@linkplain org.example.operations.CacheableOperation freshness
+ * stamp} taken before it ran, and reused only while the stamp is unchanged and the result is younger than its
+ * operation's TTL. Since the stamp is taken before the operation reads anything, a change made while it runs
+ * always makes the stored result stale.
+ * <p>
+ * File layout: a {@value #HEADER_SIZE}-byte header (magic, version, slot count, slot size), then {@code slots} slots
+ * of {@code slotSize} bytes. A key always goes to the slot selected by its hash, replacing whatever was there. Each
+ * slot holds a CRC32C, the lengths of key, stamp and result, the time it was written, then the key, stamp and
+ * result JSON. Writers lock the slot's byte range; readers take no lock and treat a slot whose checksum does not
+ * match, e.g. one being rewritten, as a miss. Within a process, writes are serialised since overlapping file locks
+ * cannot be held by one JVM.
+ */
+public class DiskResultCache implements Closeable {
+    static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x52434348; // "RCCH"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOTS_OFFSET = 8;
+    private static final int SLOT_SIZE_OFFSET = 12;
+    private static final int DEFAULT_SLOTS = 1024;
+    private static final int DEFAULT_SLOT_SIZE = 8192;
+    private static final int CRC_OFFSET = 0;
+    private static final int KEY_LENGTH_OFFSET = 4;
+    private static final int STAMP_LENGTH_OFFSET = 8;
+    private static final int VALUE_LENGTH_OFFSET = 12;
+    private static final int STORED_AT_OFFSET = 16;
+    private static final int SLOT_HEADER_SIZE = 24;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final int slotSize;
+    private final Map<AvailableOperation, Long> ttlMillis = new LinkedHashMap<>();
+
+    private DiskResultCache(FileChannel channel,
+                            MappedByteBuffer buffer,
+                            int slots,
+                            int slotSize,
+                            Map<AvailableOperation, Integer> ttlSeconds) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slots = slots;
+        this.slotSize = slotSize;
+        ttlSeconds.forEach((operation, seconds) -> {
+            if (operation.isReadOnly() && seconds > 0) {
+                ttlMillis.put(operation, TimeUnit.SECONDS.toMillis(seconds));
+            }
+        });
+    }
+
+    /**
+     * @param ttlSeconds operations to store and for how long; see {@link ResultCache}
+     */
+    public static DiskResultCache open(Path path,
+                                       Map<AvailableOperation, Integer> ttlSeconds) throws IOException {
+        try {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (FileAlreadyExistsException e) {
+            // Created by an earlier invocation.
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            try (FileLock ignored = channel.lock(0, HEADER_SIZE, false)) {
+                if (channel.size() < HEADER_SIZE) {
+                    initialize(channel);
+                }
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a result cache or unsupported version: " + path);
+            }
+            int slots = header.getInt(SLOTS_OFFSET);
+            int slotSize = header.getInt(SLOT_SIZE_OFFSET);
+            if (Integer.bitCount(slots) != 1 || slotSize <= SLOT_HEADER_SIZE ||
+                    fileSize(slots, slotSize) > Integer.MAX_VALUE || channel.size() < fileSize(slots, slotSize)) {
+                throw new IOException("Result cache header is corrupted: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(slots, slotSize));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new DiskResultCache(channel, buffer, slots, slotSize, ttlSeconds);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void initialize(FileChannel channel) throws IOException {
+        MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                fileSize(DEFAULT_SLOTS, DEFAULT_SLOT_SIZE));
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        file.putInt(MAGIC_OFFSET, MAGIC);
+        file.putInt(VERSION_OFFSET, VERSION);
+        file.putInt(SLOTS_OFFSET, DEFAULT_SLOTS);
+        file.putInt(SLOT_SIZE_OFFSET, DEFAULT_SLOT_SIZE);
+        file.force();
+    }
+
+    private static long fileSize(int slots,
+                                 int slotSize) {
+        return HEADER_SIZE + (long) slots * slotSize;
+    }
+
+    public boolean isCached(AvailableOperation operation) {
+        return ttlMillis.containsKey(operation);
+    }
+
+    /**
+     * @param stamp the operation's freshness stamp taken now
+     * @return the stored result if it was stored under the same stamp and within its TTL
+     */
+    public Optional<OperationResult> get(OperationRequest request,
+                                         String stamp) {
+        Long ttl = ttlMillis.get(request.commandName());
+        if (ttl == null) {
+            return Optional.empty();
+        }
+        byte[] key = request.canonicalKey().getBytes(StandardCharsets.UTF_8);
+        int offset = slotOffset(key);
+        int keyLength = buffer.getInt(offset + KEY_LENGTH_OFFSET);
+        int stampLength = buffer.getInt(offset + STAMP_LENGTH_OFFSET);
+        int valueLength = buffer.getInt(offset + VALUE_LENGTH_OFFSET);
+        if (keyLength != key.length || stampLength < 0 || valueLength <= 0 ||
+                (long) keyLength + stampLength + valueLength > slotSize - SLOT_HEADER_SIZE) {
+            return Optional.empty();
+        }
+        byte[] content = new byte[SLOT_HEADER_SIZE - KEY_LENGTH_OFFSET + keyLength + stampLength + valueLength];
+        int crc = buffer.getInt(offset + CRC_OFFSET);
+        buffer.get(offset + KEY_LENGTH_OFFSET, content);
+        if (crc != checksum(content)) {
+            return Optional.empty();
+        }
+        int keyStart = SLOT_HEADER_SIZE - KEY_LENGTH_OFFSET;
+        long storedAt = buffer.getLong(offset + STORED_AT_OFFSET);
+        long age = System.currentTimeMillis() - storedAt;
+        if (age < 0 || age >= ttl ||
+                !Arrays.equals(content, keyStart, keyStart + keyLength, key, 0, key.length) ||
+                !new String(content, keyStart + keyLength, stampLength, StandardCharsets.UTF_8).equals(stamp)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(OperationResult.fromJsonNode(MAPPER.readTree(content,
+                    keyStart + keyLength + stampLength, valueLength)));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores {@code result} if it is a success and fits a slot.
+     *
+     * @param stamp the operation's freshness stamp taken before it ran
+     */
+    public void put(OperationRequest request,
+                    String stamp,
+                    OperationResult result) throws IOException {
+        if (!isCached(request.commandName()) || result.getStatusCode() / 100 != 2) {
+            return;
+        }
+        byte[] key = request.canonicalKey().getBytes(StandardCharsets.UTF_8);
+        byte[] stampBytes = stamp.getBytes(StandardCharsets.UTF_8);
+        byte[] value = MAPPER.writeValueAsBytes(result.toJsonNode());
+        if ((long) key.length + stampBytes.length + value.length > slotSize - SLOT_HEADER_SIZE) {
+            return;
+        }
+        write(slotOffset(key), key, stampBytes, value, System.currentTimeMillis());
+    }
+
+    /**
+     * Drops stored results {@code mutation} may have changed, like {@link ResultCache#invalidate(OperationRequest)}.
+     */
+    public synchronized void invalidate(OperationRequest mutation) throws IOException {
+        if (mutation.commandArgs().length == 0) {
+            return;
+        }
+        String[] target = {mutation.commandArgs()[0]};
+        for (AvailableOperation operation : ResultCache.invalidatedBy(mutation.commandName())) {
+            byte[] key = new OperationRequest(operation, target).canonicalKey().getBytes(StandardCharsets.UTF_8);
+            int offset = slotOffset(key);
+            try (FileLock ignored = channel.lock(offset, slotSize, false)) {
+                if (buffer.getInt(offset + KEY_LENGTH_OFFSET) == key.length) {
+                    buffer.putInt(offset + VALUE_LENGTH_OFFSET, 0);
+                    buffer.putInt(offset + CRC_OFFSET, 0);
+                }
+            }
+        }
+    }
+
+    private synchronized void write(int offset,
+                       byte[] key,
+                       byte[] stamp,
+                       byte[] value,
+                       long storedAt) throws IOException {
+        byte[] content = new byte[SLOT_HEADER_SIZE - KEY_LENGTH_OFFSET + key.length + stamp.length + value.length];
+        ByteBuffer view = ByteBuffer.wrap(content).order(ByteOrder.LITTLE_ENDIAN);
+        view.putInt(key.length).putInt(stamp.length).putInt(value.length).putLong(storedAt)
+                .put(key).put(stamp).put(value);
+        try (FileLock ignored = channel.lock(offset, slotSize, false)) {
+            // Readers racing with this write see a checksum mismatch, never a mix of old and new entries.
+            buffer.putInt(offset + CRC_OFFSET, 0);
+            buffer.put(offset + KEY_LENGTH_OFFSET, content);
+            buffer.putInt(offset + CRC_OFFSET, checksum(content));
+        }
+    }
+
+    private int slotOffset(byte[] key) {
+        int h = Arrays.hashCode(key);
+        h ^= h >>> 16;
+        return (int) (HEADER_SIZE + (long) (h & (slots - 1)) * slotSize);
+    }
+
+    private static int checksum(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        // Zero marks a slot being written or invalidated.
+        return (int) crc.getValue() | 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
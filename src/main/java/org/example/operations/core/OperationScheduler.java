@@ -0,0 +1,482 @@
+package org.example.operations.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.config.core.AppConfiguration;
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+import org.example.operations.AsyncOperation;
+import org.example.operations.AvailableOperation;
+import org.example.operations.CacheableOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
+import org.example.operations.Operation;
+import org.example.operations.OperationRequest;
+import org.example.operations.OperationResult;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Runs operations under concurrency limits, so that many tokens arriving at once through {@code serve},
+ * {@code session} or {@code execute-batch} cannot overload the server.
+ * <p>
+ * Each {@link AvailableOperation} has its own limit, e.g. at most two concurrent {@code PLESK.GET_LOGIN_LINK}
+ * because each one spawns PHP. Operations are also limited per target, the domain or subscription named by their
+ * first argument: at most {@code perTargetLimit} operations run against one target, and a
+ * {@linkplain AvailableOperation#isMutating() mutating} operation runs alone on its target. The target is acquired
+ * before the operation's own permit, so waiting on a busy domain does not hold back the same operation on other
+ * domains.
+ * <p>
+ * Concurrent {@linkplain AvailableOperation#isReadOnly() read-only} requests with the same
+ * {@linkplain OperationRequest#canonicalKey() canonical arguments} share one execution; only the first takes a slot.
+ * <p>
+ * An operation runs for at most its time budget once it has its slots, and never past the deadline its caller passes,
+ * usually the token's expiry; waiting for a slot is bounded by the caller's deadline as well. An operation stopped by
+ * either is reported with {@link OperationResult.ExecutionStatus#TIMEOUT}.
+ * <p>
+ * With a {@link ResultCache} set, read-only requests are answered from it while fresh, and mutating operations evict
+ * what they changed before releasing their target, so no request sees a result older than a mutation it waited for.
+ * A {@link DiskResultCache} does the same across processes for operations with a freshness stamp.
+ * <p>
+ * Waiting is cheap: callers are expected to run on virtual threads, see {@link #threads()}. Queue depth, running
+ * count, wait times and coalesced requests are kept per operation and reported by {@link #stats()}.
+ */
+public final class OperationScheduler {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static OperationScheduler instance;
+    private final Map<AvailableOperation, Lane> lanes = new LinkedHashMap<>();
+    private final int perTargetLimit;
+    private final ConcurrentHashMap<String, TargetGate> targets = new ConcurrentHashMap<>();
+    private final SingleFlight<String, OperationResult> inFlight = new SingleFlight<>();
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile ResultCache resultCache;
+    private volatile DiskResultCache diskResultCache;
+
+    /**
+     * @param timeoutSeconds time budgets that differ from {@code defaultTimeoutSeconds}
+     */
+    public OperationScheduler(Map<AvailableOperation, Integer> limits,
+                              int defaultLimit,
+                              int perTargetLimit,
+                              Map<AvailableOperation, Integer> timeoutSeconds,
+                              int defaultTimeoutSeconds) {
+        List<AvailableOperation> operations = new ArrayList<>(List.of(AvailableOperation.DNS.values()));
+        operations.addAll(List.of(AvailableOperation.Plesk.values()));
+        for (AvailableOperation operation : operations) {
+            lanes.put(operation, new Lane(limits.getOrDefault(operation, defaultLimit),
+                    Duration.ofSeconds(timeoutSeconds.getOrDefault(operation, defaultTimeoutSeconds))));
+        }
+        this.perTargetLimit = perTargetLimit;
+    }
+
+    public static synchronized OperationScheduler getInstance() {
+        if (instance == null) {
+            AppConfiguration configuration = AppConfiguration.getInstance();
+            instance = new OperationScheduler(configuration.getOperationConcurrencyLimits(),
+                    configuration.getOperationDefaultConcurrency(), configuration.getOperationPerTargetConcurrency(),
+                    configuration.getOperationTimeoutSeconds(), configuration.getOperationDefaultTimeoutSeconds());
+        }
+        return instance;
+    }
+
+    /**
+     * Caches read-only results from now on; meant for long-running executors, where results are asked for again.
+     */
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    /**
+     * Reuses read-only results stored by earlier processes from now on; meant for one-shot invocations.
+     */
+    public void setDiskResultCache(DiskResultCache diskResultCache) {
+        this.diskResultCache = diskResultCache;
+    }
+
+    /**
+     * Virtual-thread executor for callers that run many requests at once. Bound their number yourself; the
+     * scheduler only limits how many operations run, not how many wait.
+     */
+    public ExecutorService threads() {
+        return threads;
+    }
+
+    /**
+     * Runs {@code operation} on the calling thread once its limits allow. A read-only request identical to one
+     * already running waits for that execution and returns its result instead, as does one whose result is cached.
+     */
+    public OperationResult execute(OperationRequest request,
+                                   Operation operation) throws InterruptedException {
+        return execute(request, operation, Deadline.none(), Cancellation.none());
+    }
+
+    /**
+     * Like {@link #execute(OperationRequest, Operation)}, passing {@code deadline} and {@code cancellation} on to an
+     * {@link AsyncOperation}. A request cancelled or past its deadline by the time it gets a slot is not started.
+     * A shared read-only execution is cancelled only once all its callers are; a caller that joined one waits no longer
+     * than its own deadline.
+     */
+    public OperationResult execute(OperationRequest request,
+                                   Operation operation,
+                                   Deadline deadline,
+                                   Cancellation cancellation) throws InterruptedException {
+        if (!request.commandName().isReadOnly()) {
+            return executeLimited(request, operation, deadline, cancellation);
+        }
+        ResultCache cache = resultCache;
+        if (cache != null) {
+            Optional<OperationResult> cached = cache.get(request);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
+        }
+        Lane lane = lanes.get(request.commandName());
+        return inFlight.run(request.canonicalKey(),
+                shared -> executeStored(request, operation, deadline, shared), lane.coalesced::increment, deadline,
+                () -> waitTimedOut(lane, request.commandName()), cancellation);
+    }
+
+    /**
+     * The freshness stamp is taken before the operation runs, so the stored result is outdated by any change made
+     * while it runs.
+     */
+    private OperationResult executeStored(OperationRequest request,
+                                          Operation operation,
+                                          Deadline deadline,
+                                          Cancellation cancellation) throws InterruptedException {
+        DiskResultCache disk = diskResultCache;
+        if (disk == null || !disk.isCached(request.commandName()) ||
+                !(operation instanceof CacheableOperation cacheable)) {
+            return executeLimited(request, operation, deadline, cancellation);
+        }
+        Optional<String> stamp = cacheable.freshnessStamp(deadline, cancellation);
+        if (stamp.isEmpty()) {
+            return executeLimited(request, operation, deadline, cancellation);
+        }
+        Optional<OperationResult> stored = disk.get(request, stamp.get());
+        if (stored.isPresent()) {
+            getLogger().
+                    debugEntry().message("Reusing stored result").field("Operation", request.toString()).log();
+            return stored.get();
+        }
+        OperationResult result = executeLimited(request, operation, deadline, cancellation);
+        try {
+            disk.put(request, stamp.get(), result);
+        } catch (IOException e) {
+            getLogger().
+                    warnEntry().message("Could not store result").field("Operation", request.toString())
+                    .exception(e).log();
+        }
+        return result;
+    }
+
+    private OperationResult executeLimited(OperationRequest request,
+                                           Operation operation,
+                                           Deadline deadline,
+                                           Cancellation cancellation) throws InterruptedException {
+        AvailableOperation name = request.commandName();
+        Lane lane = lanes.get(name);
+        String target = target(request);
+        long queuedAt = System.nanoTime();
+
+        lane.queued.incrementAndGet();
+        TargetGate gate = null;
+        Lock targetLock = null;
+        boolean permitted = false;
+        try {
+            if (target != null) {
+                gate = enter(target);
+                if (!acquire(gate.permits, deadline)) {
+                    return waitTimedOut(lane, name);
+                }
+                targetLock = name.isMutating() ? gate.lock.writeLock() : gate.lock.readLock();
+                if (!lock(targetLock, deadline)) {
+                    return waitTimedOut(lane, name);
+                }
+            }
+            if (!acquire(lane.permits, deadline)) {
+                return waitTimedOut(lane, name);
+            }
+            permitted = true;
+        } finally {
+            lane.queued.decrementAndGet();
+            if (!permitted) {
+                release(target, gate, targetLock);
+            }
+        }
+
+        long waitNanos = System.nanoTime() - queuedAt;
+        lane.recordWait(waitNanos);
+        if (waitNanos > TimeUnit.MILLISECONDS.toNanos(100)) {
+            getLogger().
+                    debugEntry().message("Operation waited for a concurrency slot").field("Operation", name)
+                    .field("Target", target == null ? "-" : target)
+                    .field("WaitMs", TimeUnit.NANOSECONDS.toMillis(waitNanos)).log();
+        }
+        lane.running.incrementAndGet();
+        OperationResult result = null;
+        try {
+            result = run(operation, deadline.within(lane.timeout), cancellation);
+            if (result.status() == OperationResult.ExecutionStatus.TIMEOUT) {
+                lane.timedOut.increment();
+            }
+            return result;
+        } finally {
+            updateCache(request, result);
+            lane.running.decrementAndGet();
+            lane.completed.increment();
+            lane.permits.release();
+            release(target, gate, targetLock);
+        }
+    }
+
+    /**
+     * Runs {@code operation} on a virtual thread once its limits allow.
+     */
+    public CompletableFuture<OperationResult> submit(OperationRequest request,
+                                                     Operation operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return execute(request, operation);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return OperationResult.internalError("Interrupted while waiting to run " + request.commandName());
+            }
+        }, threads);
+    }
+
+    /**
+     * @return per operation its limit, how many calls wait and run right now, how many completed or timed out and
+     * their wait times
+     */
+    public Map<AvailableOperation, LaneStats> stats() {
+        Map<AvailableOperation, LaneStats> stats = new LinkedHashMap<>();
+        lanes.forEach((operation, lane) -> stats.put(operation, lane.snapshot()));
+        return stats;
+    }
+
+    public OperationResult statsResult() {
+        ObjectNode payload = MAPPER.createObjectNode();
+        stats().forEach((operation, stats) -> {
+            ObjectNode lane = payload.putObject(operation.qualifiedName());
+            lane.put("limit", stats.limit());
+            lane.put("queued", stats.queued());
+            lane.put("running", stats.running());
+            lane.put("completed", stats.completed());
+            lane.put("coalesced", stats.coalesced());
+            lane.put("coalesce_ratio", stats.coalesceRatio());
+            lane.put("timed_out", stats.timedOut());
+            lane.put("mean_wait_us", stats.meanWaitMicros());
+            lane.put("max_wait_us", stats.maxWaitMicros());
+        });
+        ResultCache cache = resultCache;
+        if (cache != null) {
+            ResultCache.CacheStats stats = cache.stats();
+            ObjectNode cacheNode = payload.putObject("result_cache");
+            cacheNode.put("max_entries", stats.maxEntries());
+            cacheNode.put("entries", stats.entries());
+            cacheNode.put("estimated_bytes", stats.estimatedBytes());
+            cacheNode.put("hits", stats.hits());
+            cacheNode.put("misses", stats.misses());
+            cacheNode.put("hit_ratio", stats.hitRatio());
+            cacheNode.put("evictions", stats.evictions());
+            cacheNode.put("expirations", stats.expirations());
+            cacheNode.put("invalidations", stats.invalidations());
+        }
+        return OperationResult.success("Operation scheduler statistics", Optional.of(payload));
+    }
+
+    private static OperationResult run(Operation operation,
+                                       Deadline deadline,
+                                       Cancellation cancellation) throws InterruptedException {
+        if (cancellation.isCancelled()) {
+            return OperationResult.internalError("Cancelled before it started");
+        }
+        if (deadline.isExpired()) {
+            return OperationResult.timeout("Deadline passed before it started");
+        }
+        if (!(operation instanceof AsyncOperation async)) {
+            return operation.execute();
+        }
+        Cancellation own = cancellation.child();
+        CompletableFuture<OperationResult> running = async.executeAsync(deadline, own).toCompletableFuture();
+        try {
+            return running.get();
+        } catch (InterruptedException e) {
+            own.cancel();
+            throw e;
+        } catch (ExecutionException e) {
+            return OperationResult.internalError("Operation failed: " + e.getCause());
+        }
+    }
+
+    /**
+     * Runs while the target is still held, so a mutation's invalidation happens before anyone can read the target
+     * again.
+     */
+    private void updateCache(OperationRequest request,
+                             OperationResult result) {
+        DiskResultCache disk = diskResultCache;
+        if (disk != null && request.commandName().isMutating()) {
+            try {
+                disk.invalidate(request);
+            } catch (IOException e) {
+                getLogger().
+                        warnEntry().message("Could not invalidate stored results")
+                        .field("Operation", request.toString()).exception(e).log();
+            }
+        }
+        ResultCache cache = resultCache;
+        if (cache == null) {
+            return;
+        }
+        if (request.commandName().isMutating()) {
+            cache.invalidate(request);
+        } else if (result != null && request.commandName().isReadOnly()) {
+            cache.put(request, result);
+        }
+    }
+
+    private static String target(OperationRequest request) {
+        String[] args = request.commandArgs();
+        if (args.length == 0 || args[0].isBlank()) {
+            return null;
+        }
+        return args[0].toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Waits for a permit for no longer than {@code deadline} allows.
+     */
+    private static boolean acquire(Semaphore permits,
+                                   Deadline deadline) throws InterruptedException {
+        if (!deadline.isBounded()) {
+            permits.acquire();
+            return true;
+        }
+        return permits.tryAcquire(deadline.remaining(Duration.ZERO).toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static boolean lock(Lock lock,
+                                Deadline deadline) throws InterruptedException {
+        if (!deadline.isBounded()) {
+            lock.lockInterruptibly();
+            return true;
+        }
+        return lock.tryLock(deadline.remaining(Duration.ZERO).toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static OperationResult waitTimedOut(Lane lane,
+                                                AvailableOperation name) {
+        lane.timedOut.increment();
+        return OperationResult.timeout("Deadline passed while waiting to run " + name.qualifiedName());
+    }
+
+    private TargetGate enter(String target) {
+        return targets.compute(target, (key, gate) -> {
+            TargetGate current = gate == null ? new TargetGate(perTargetLimit) : gate;
+            current.users++;
+            return current;
+        });
+    }
+
+    private void release(String target,
+                         TargetGate gate,
+                         Lock targetLock) {
+        if (gate == null) {
+            return;
+        }
+        if (targetLock != null) {
+            try {
+                targetLock.unlock();
+            } catch (IllegalMonitorStateException ignored) {
+                // Interrupted before the lock was taken.
+            }
+            gate.permits.release();
+        }
+        targets.computeIfPresent(target, (key, current) -> --current.users == 0 ? null : current);
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    /**
+     * @param completed executions run
+     * @param coalesced requests answered by sharing another request's execution
+     */
+    public record LaneStats(int limit, int queued, int running, long completed, long coalesced, long timedOut,
+                            long totalWaitMicros, long maxWaitMicros) {
+        public long meanWaitMicros() {
+            return completed == 0 ? 0 : totalWaitMicros / completed;
+        }
+
+        /**
+         * @return share of requests that did not need an execution of their own
+         */
+        public double coalesceRatio() {
+            long requests = completed + coalesced;
+            return requests == 0 ? 0 : (double) coalesced / requests;
+        }
+    }
+
+    private static final class Lane {
+        private final int limit;
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final Duration timeout;
+
+        Lane(int limit,
+             Duration timeout) {
+            this.limit = limit;
+            this.timeout = timeout;
+            this.permits = new Semaphore(limit, true);
+        }
+
+        void recordWait(long nanos) {
+            totalWaitNanos.add(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        LaneStats snapshot() {
+            return new LaneStats(limit, queued.get(), running.get(), completed.sum(), coalesced.sum(), timedOut.sum(),
+                    TimeUnit.NANOSECONDS.toMicros(totalWaitNanos.sum()),
+                    TimeUnit.NANOSECONDS.toMicros(maxWaitNanos.get()));
+        }
+    }
+
+    private static final class TargetGate {
+        private final Semaphore permits;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(true);
+        private int users;
+
+        TargetGate(int limit) {
+            this.permits = new Semaphore(limit, true);
+        }
+    }
+}
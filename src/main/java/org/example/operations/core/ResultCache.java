@@ -0,0 +1,169 @@
+package org.example.operations.core;
+
+import org.example.operations.AvailableOperation;
+import org.example.operations.OperationRequest;
+import org.example.operations.OperationResult;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps successful results of {@linkplain AvailableOperation#isReadOnly() read-only} operations for a per-operation
+ * TTL, so that a long-running executor answers repeated lookups without calling Plesk or the DNS server again.
+ * <p>
+ * The cache holds at most {@code maxEntries} results and evicts the least recently used one beyond that. Mutating
+ * operations evict the results they can change: {@code DNS.REMOVE_ZONE} the removed domain's zone master,
+ * {@code PLESK.RESTART_DNS_SERVICE} every DNS lookup for its domain. Entries are keyed by
+ * {@link OperationRequest#canonicalKey()}.
+ */
+public class ResultCache {
+    /**
+     * Read-only operations whose results each mutating operation can change, for the same domain.
+     */
+    private static final Map<AvailableOperation, List<AvailableOperation>> INVALIDATES = Map.of(
+            AvailableOperation.DNS.REMOVE_ZONE, List.of(AvailableOperation.DNS.GET_ZONE_MASTER),
+            AvailableOperation.Plesk.RESTART_DNS_SERVICE, List.of(AvailableOperation.DNS.GET_ZONE_MASTER));
+    // Rough per-entry cost of the map node, entry object and result wrapper.
+    private static final int ENTRY_OVERHEAD_BYTES = 160;
+
+    private final int maxEntries;
+    private final Map<AvailableOperation, Long> ttlNanos = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long estimatedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * @param ttlSeconds operations to cache and for how long; operations that are not read-only or have a TTL of 0
+     *                   are not cached
+     */
+    public ResultCache(int maxEntries,
+                       Map<AvailableOperation, Integer> ttlSeconds) {
+        this.maxEntries = maxEntries;
+        ttlSeconds.forEach((operation, seconds) -> {
+            if (operation.isReadOnly() && seconds > 0) {
+                ttlNanos.put(operation, TimeUnit.SECONDS.toNanos(seconds));
+            }
+        });
+    }
+
+    public boolean isCached(AvailableOperation operation) {
+        return ttlNanos.containsKey(operation);
+    }
+
+    public synchronized Optional<OperationResult> get(OperationRequest request) {
+        if (!isCached(request.commandName())) {
+            return Optional.empty();
+        }
+        String key = request.canonicalKey();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return Optional.empty();
+        }
+        if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            remove(key);
+            expirations++;
+            misses++;
+            return Optional.empty();
+        }
+        hits++;
+        return Optional.of(entry.result());
+    }
+
+    /**
+     * Stores {@code result} if it is a success; failures and not-found answers are never cached.
+     */
+    public synchronized void put(OperationRequest request,
+                                 OperationResult result) {
+        Long ttl = ttlNanos.get(request.commandName());
+        if (ttl == null || result.getStatusCode() / 100 != 2) {
+            return;
+        }
+        String key = request.canonicalKey();
+        remove(key);
+        Entry entry = new Entry(result, System.nanoTime() + ttl, estimateBytes(key, result));
+        entries.put(key, entry);
+        estimatedBytes += entry.bytes();
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            estimatedBytes -= eldest.next().getValue().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Evicts the results {@code mutation} may have changed. Call it once the mutation has run, whatever its outcome.
+     */
+    public synchronized void invalidate(OperationRequest mutation) {
+        List<AvailableOperation> affected = invalidatedBy(mutation.commandName());
+        if (affected.isEmpty() || mutation.commandArgs().length == 0) {
+            return;
+        }
+        String[] target = {mutation.commandArgs()[0]};
+        for (AvailableOperation operation : affected) {
+            if (remove(new OperationRequest(operation, target).canonicalKey())) {
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * @return read-only operations whose results for the same domain {@code mutation} can change
+     */
+    static List<AvailableOperation> invalidatedBy(AvailableOperation mutation) {
+        return INVALIDATES.getOrDefault(mutation, List.of());
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(maxEntries, entries.size(), estimatedBytes, hits, misses, evictions, expirations,
+                invalidations);
+    }
+
+    private boolean remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed == null) {
+            return false;
+        }
+        estimatedBytes -= removed.bytes();
+        return true;
+    }
+
+    /**
+     * Strings count two bytes per character; the payload is measured by its JSON form.
+     */
+    private static long estimateBytes(String key,
+                                      OperationResult result) {
+        return ENTRY_OVERHEAD_BYTES + 2L * key.length() + 2L * result.toJsonNode().toString().length();
+    }
+
+    /**
+     * @param evictions     entries dropped to stay within {@code maxEntries}
+     * @param expirations   entries found past their TTL
+     * @param invalidations entries dropped because a mutating operation changed what they describe
+     */
+    public record CacheStats(int maxEntries, int entries, long estimatedBytes, long hits, long misses, long evictions,
+                             long expirations, long invalidations) {
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    private record Entry(OperationResult result, long expiresAtNanos, long bytes) {
+    }
+}
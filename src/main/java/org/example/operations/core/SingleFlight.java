@@ -0,0 +1,128 @@
+package org.example.operations.core;
+
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent calls for the same key share one execution: the first caller runs the work, callers arriving while
+ * it runs wait for and receive the same value. Nothing is kept once the execution finishes, so a call arriving
+ * afterwards runs the work again.
+ * <p>
+ * The shared execution is cancelled only once every caller waiting for it has been cancelled. A call arriving after
+ * that runs the work on its own rather than joining an execution that is being stopped. A joining caller waits no
+ * longer than its own deadline; one that runs out leaves the execution as if it had been cancelled.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param joined       called when this call shares an execution already in flight instead of running
+     *                     {@code work}
+     * @param deadline     bounds how long this call waits for an execution it joined
+     * @param timedOut     the value returned when {@code deadline} passes before the joined execution finishes
+     * @param cancellation this caller's cancellation; {@code work} receives one that fires when all callers' have
+     */
+    public V run(K key,
+                 Work<V> work,
+                 Runnable joined,
+                 Deadline deadline,
+                 Supplier<V> timedOut,
+                 Cancellation cancellation) throws InterruptedException {
+        Flight<V> own = new Flight<>();
+        own.join();
+        Flight<V> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            if (!running.join()) {
+                return work.run(cancellation);
+            }
+            joined.run();
+            AtomicBoolean left = new AtomicBoolean();
+            Runnable leave = () -> {
+                if (left.compareAndSet(false, true)) {
+                    running.leave();
+                }
+            };
+            try (Cancellation.Registration ignored = cancellation.onCancel(leave)) {
+                return await(running.result, deadline);
+            } catch (TimeoutException e) {
+                leave.run();
+                return timedOut.get();
+            }
+        }
+        try (Cancellation.Registration ignored = cancellation.onCancel(own::leave)) {
+            V value = work.run(own.cancellation);
+            own.result.complete(value);
+            return value;
+        } catch (InterruptedException | RuntimeException | Error e) {
+            own.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> running,
+                               Deadline deadline) throws InterruptedException, TimeoutException {
+        try {
+            if (!deadline.isBounded()) {
+                return running.get();
+            }
+            return running.get(deadline.remaining(Duration.ZERO).toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof InterruptedException) {
+                // The leading caller was interrupted; this one was not.
+                throw new IllegalStateException("Shared execution was interrupted", cause);
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public interface Work<V> {
+        V run(Cancellation cancellation) throws InterruptedException;
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final Cancellation cancellation = new Cancellation();
+        private int waiting;
+        private boolean abandoned;
+
+        /**
+         * @return false if every earlier caller already gave up and the execution is being cancelled
+         */
+        synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiting++;
+            return true;
+        }
+
+        void leave() {
+            boolean last;
+            synchronized (this) {
+                last = --waiting == 0;
+                abandoned |= last;
+            }
+            if (last) {
+                cancellation.cancel();
+            }
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
-import org.example.operations.Operation;
+import org.example.operations.CacheableOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.operations.OperationResult;
 import org.example.value_types.DomainName;
 
@@ -12,12 +14,13 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
-public class DnsGetZoneMaster implements Operation {
+public class DnsGetZoneMaster implements CacheableOperation {
     private static final Path ZONEFILE_PATH_BIND = Paths.get("/var/opt/isc/scls/isc-bind/zones/_default.nzf");
     private static final Path PLESK_BIND_ZONE_DIR = Paths.get("/var/named/run-root/");
     private static final Pattern IP_REGEX = Pattern.compile("((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)\\.?\\b){4}");
@@ -45,6 +48,25 @@ public class DnsGetZoneMaster implements Operation {
         return OperationResult.success(Optional.of(zoneData));
     }
 
+    /**
+     * Both zone sources this operation reads: the BIND zone list and the domain's Plesk zone file.
+     */
+    @Override
+    public Optional<String> freshnessStamp(Deadline deadline,
+                                           Cancellation cancellation) {
+        Path pleskZoneFile = PLESK_BIND_ZONE_DIR.resolve(Paths.get("var", domain.name().toLowerCase()));
+        return Optional.of(fileStamp(ZONEFILE_PATH_BIND) + ";" + fileStamp(pleskZoneFile));
+    }
+
+    private static String fileStamp(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return attributes.lastModifiedTime().toMillis() + ":" + attributes.size() + ":" + attributes.fileKey();
+        } catch (IOException e) {
+            return "absent";
+        }
+    }
+
     private Optional<String> getZoneMasterIp(String domainName) {
         String loweredDomain = domainName.toLowerCase();
         Pattern domainPattern = Pattern.compile("\\b" + Pattern.quote(loweredDomain) + "\\b");
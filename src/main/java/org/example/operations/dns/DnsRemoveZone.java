@@ -3,16 +3,21 @@ package org.example.operations.dns;
 import org.example.config.constants.Executables;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
-import org.example.operations.Operation;
+import org.example.operations.AsyncOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.operations.OperationResult;
 import org.example.utils.CommandFailedException;
+import org.example.utils.CommandTimedOutException;
 import org.example.utils.ShellUtils;
 import org.example.value_types.DomainName;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-public class DnsRemoveZone implements Operation {
+public class DnsRemoveZone implements AsyncOperation {
     private final DomainName domainNameToDelete;
 
     public DnsRemoveZone(DomainName domainName) {
@@ -20,7 +25,13 @@ public class DnsRemoveZone implements Operation {
     }
 
     @Override
-    public OperationResult execute() {
+    public CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                         Cancellation cancellation) {
+        return CompletableFuture.supplyAsync(() -> removeZone(deadline, cancellation), BLOCKING);
+    }
+
+    private OperationResult removeZone(Deadline deadline,
+                                       Cancellation cancellation) {
         Path removeZoneExecutable = Paths.get(Executables.BIND_REMOVE_ZONE_EXECUTABLE);
 
         if (!removeZoneExecutable.toFile().isFile()) {
@@ -32,12 +43,15 @@ public class DnsRemoveZone implements Operation {
         ShellUtils.ExecutionResult result;
 
         try {
-            result = ShellUtils.execute(
+            result = ShellUtils.execute(deadline, cancellation,
                     removeZoneExecutable.toString(),
                     "delzone",
                     "-clean",
                     domainNameToDelete.name()
             );
+        } catch (CommandTimedOutException e) {
+            getLogger().errorEntry().message("Remove DNS zone operation timed out").exception(e).log();
+            return OperationResult.timeout("Remove DNS zone operation timed out.");
         } catch (CommandFailedException e) {
             getLogger().errorEntry().message("Remove DNS zone operation failed with").exception(e).log();
             return OperationResult.internalError("Remove DNS zone operation failed.");
@@ -5,29 +5,43 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
-import org.example.operations.Operation;
+import org.example.operations.AsyncOperation;
+import org.example.operations.CacheableOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.operations.OperationResult;
 import org.example.utils.DbUtils;
 import org.example.value_types.DomainName;
 
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-public class PleskFetchSubscriptionInfo implements Operation {
+public class PleskFetchSubscriptionInfo implements CacheableOperation, AsyncOperation {
     final DomainName domain;
 
     public PleskFetchSubscriptionInfo(DomainName domain) {
         this.domain = domain;
     }
 
-    public OperationResult execute() {
+    @Override
+    public CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                         Cancellation cancellation) {
+        return CompletableFuture.supplyAsync(() -> fetch(deadline, cancellation), BLOCKING);
+    }
+
+    private OperationResult fetch(Deadline deadline,
+                                  Cancellation cancellation) {
         return runSafely(() -> {
             ObjectMapper objectMapper = new ObjectMapper();
             ArrayNode resultArray = objectMapper.createArrayNode();
 
-            Optional<List<String>> subscriptionInfoRaw = DbUtils.fetchSubscriptionInfoByDomain(domain.name());
+            Optional<List<String>> subscriptionInfoRaw = DbUtils.fetchSubscriptionInfoByDomain(domain.name(), deadline,
+                    cancellation);
 
             if (subscriptionInfoRaw.isEmpty()) {
                 return OperationResult.notFound(
@@ -42,9 +56,24 @@ public class PleskFetchSubscriptionInfo implements Operation {
         });
     }
 
+    @Override
+    public Optional<String> freshnessStamp(Deadline deadline,
+                                           Cancellation cancellation) {
+        try {
+            return DbUtils.fetchSubscriptionInfoFingerprint(deadline, cancellation);
+        } catch (SQLException e) {
+            getLogger().debugEntry().message("Subscription info fingerprint unavailable").exception(e).log();
+            return Optional.empty();
+        }
+    }
+
     private OperationResult runSafely(ThrowingSupplier<OperationResult> operation) {
         try {
             return operation.get();
+        } catch (SQLTimeoutException e) {
+            getLogger().errorEntry().message("Timed out fetching subscription info").field("Domain", domain)
+                    .exception(e).log();
+            return OperationResult.timeout("Timed out fetching subscription information for domain: " + domain.name());
         } catch (SQLException e) {
             getLogger().error("Database error while fetching subscription info: {}", e);
             return OperationResult.internalError(
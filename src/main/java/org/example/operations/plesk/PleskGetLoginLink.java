@@ -2,19 +2,25 @@ package org.example.operations.plesk;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import org.example.operations.Operation;
+import org.example.operations.AsyncOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.operations.OperationResult;
 import org.example.utils.CommandFailedException;
+import org.example.utils.CommandTimedOutException;
 import org.example.utils.DbUtils;
 import org.example.utils.ShellUtils;
 import org.example.value_types.LinuxUsername;
 
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import static org.example.config.constants.Executables.PLESK_CLI_EXECUTABLE;
 
-public class PleskGetLoginLink implements Operation {
+public class PleskGetLoginLink implements AsyncOperation {
     final int subscriptionId;
     final LinuxUsername username;
 
@@ -25,54 +31,75 @@ public class PleskGetLoginLink implements Operation {
     }
 
 
-    public OperationResult execute() {
-        ObjectMapper om = new ObjectMapper();
-        ObjectNode jsonArr = om.createObjectNode();
+    /**
+     * {@code plesk login} mints a one-time admin login link, so it is only run once the subscription is known to
+     * exist.
+     */
+    @Override
+    public CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                         Cancellation cancellation) {
+        return CompletableFuture.supplyAsync(() -> generate(deadline, cancellation), BLOCKING);
+    }
 
-        final String REDIRECTION_HEADER = "&success_redirect_url=%2Fadmin%2Fsubscription%2Foverview%2Fid%2F";
+    private OperationResult generate(Deadline deadline,
+                                     Cancellation cancellation) {
         Optional<String> subscriptionName;
-
         try {
-            subscriptionName = DbUtils.fetchSubscriptionNameById(subscriptionId);
-        } catch (SQLException e) {
+            subscriptionName = DbUtils.fetchSubscriptionNameById(subscriptionId, deadline, cancellation);
+        } catch (SQLTimeoutException e) {
+            return OperationResult.timeout("Timed out fetching subscription name by ID " + subscriptionId);
+        } catch (SQLException | RuntimeException e) {
             return OperationResult.internalError("Failed to fetch subscription name by ID " + subscriptionId);
         }
 
-
         if (subscriptionName.isEmpty()) {
             return OperationResult.notFound("Subscription with ID " + subscriptionId + " doesn't exist.");
         }
 
         try {
-            String loginLink = pleskGetUserLoginLink(username.value());
-
-            jsonArr.put("subscription_name", subscriptionName.get());
-            jsonArr.put("login_link", loginLink + REDIRECTION_HEADER + subscriptionId);
+            return toResult(subscriptionName.get(),
+                    ShellUtils.execute(deadline, cancellation, PLESK_CLI_EXECUTABLE, "login", username.value()));
+        } catch (CommandFailedException e) {
+            return toFailure(e);
+        }
+    }
 
-            return OperationResult.success("Subscription login link generated.", Optional.of(jsonArr));
+    private OperationResult toResult(String subscriptionName,
+                                     ShellUtils.ExecutionResult login) {
+        final String REDIRECTION_HEADER = "&success_redirect_url=%2Fadmin%2Fsubscription%2Foverview%2Fid%2F";
+        ObjectMapper om = new ObjectMapper();
+        ObjectNode jsonArr = om.createObjectNode();
+        String loginLink = login.stdout().getFirst();
 
-        } catch (CommandFailedException e) {
-            boolean
-                    isUserNotFound =
-                    e.getStderr()
-                            .stream()
-                            .anyMatch(s -> s.equalsIgnoreCase("You have entered incorrect username or password."));
+        jsonArr.put("subscription_name", subscriptionName);
+        jsonArr.put("login_link", loginLink + REDIRECTION_HEADER + subscriptionId);
 
-            if (isUserNotFound) {
-                return OperationResult.notFound("User " + username + " not found.");
-            }
+        return OperationResult.success("Subscription login link generated.", Optional.of(jsonArr));
+    }
 
-            return OperationResult.internalError("Failed to generate login link for subscription ID " +
+    private OperationResult toFailure(CommandFailedException error) {
+        if (error instanceof CommandTimedOutException) {
+            return OperationResult.timeout("Timed out generating login link for subscription ID " +
                     subscriptionId +
                     " and user " +
                     username +
                     ".");
         }
-    }
+        boolean
+                isUserNotFound =
+                error.getStderr()
+                        .stream()
+                        .anyMatch(s -> s.equalsIgnoreCase("You have entered incorrect username or password."));
+
+        if (isUserNotFound) {
+            return OperationResult.notFound("User " + username + " not found.");
+        }
 
-    private String pleskGetUserLoginLink(String username) throws CommandFailedException {
-        ShellUtils.ExecutionResult result = ShellUtils.execute(PLESK_CLI_EXECUTABLE, "login", username);
-        return result.stdout().getFirst();
+        return OperationResult.internalError("Failed to generate login link for subscription ID " +
+                subscriptionId +
+                " and user " +
+                username +
+                ".");
     }
 
 }
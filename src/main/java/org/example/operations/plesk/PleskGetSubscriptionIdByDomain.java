@@ -5,26 +5,43 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
-import org.example.operations.Operation;
+import org.example.operations.AsyncOperation;
+import org.example.operations.CacheableOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.operations.OperationResult;
 import org.example.utils.DbUtils;
 import org.example.value_types.DomainName;
 
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-public class PleskGetSubscriptionIdByDomain implements Operation {
+public class PleskGetSubscriptionIdByDomain implements CacheableOperation, AsyncOperation {
     private final DomainName domain;
 
     public PleskGetSubscriptionIdByDomain(DomainName domain) {
         this.domain = domain;
     }
 
-    public OperationResult execute() {
+    @Override
+    public CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                         Cancellation cancellation) {
+        return CompletableFuture.supplyAsync(() -> fetch(deadline, cancellation), BLOCKING);
+    }
+
+    private OperationResult fetch(Deadline deadline,
+                                  Cancellation cancellation) {
         Optional<List<String>> subscriptionIdList;
         try {
-            subscriptionIdList = DbUtils.fetchSubscriptionIdByDomain(domain);
+            subscriptionIdList = DbUtils.fetchSubscriptionIdByDomain(domain, deadline, cancellation);
+        } catch (SQLTimeoutException e) {
+            getLogger().errorEntry().message("Timed out fetching subscription ID by domain.").field("Domain", domain)
+                    .log();
+            return OperationResult.timeout("Timed out fetching subscription ID by domain " + domain.name());
         } catch (SQLException e) {
             getLogger().errorEntry().message("Failed to fetch subscription ID by domain.").field("Domain", domain)
                     .log();
@@ -45,6 +62,17 @@ public class PleskGetSubscriptionIdByDomain implements Operation {
         return OperationResult.success(Optional.of(resultJson));
     }
 
+    @Override
+    public Optional<String> freshnessStamp(Deadline deadline,
+                                           Cancellation cancellation) {
+        try {
+            return DbUtils.fetchDomainsFingerprint(deadline, cancellation);
+        } catch (SQLException e) {
+            getLogger().debugEntry().message("Domains fingerprint unavailable").exception(e).log();
+            return Optional.empty();
+        }
+    }
+
     private static CliLogger getLogger() {
         return LogManager.getInstance().getLogger();
     }
@@ -5,9 +5,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
-import org.example.operations.Operation;
+import org.example.operations.AsyncOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.operations.OperationResult;
 import org.example.utils.CommandFailedException;
+import org.example.utils.CommandTimedOutException;
 import org.example.utils.ShellUtils;
 import org.example.utils.Utils;
 import org.example.value_types.DomainName;
@@ -17,12 +20,14 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 import static org.example.config.constants.Executables.PLESK_CLI_EXECUTABLE;
 import static org.example.config.constants.Executables.PLESK_CLI_GET_MAIL_USERS_CREDENTIALS;
 
 
-public class PleskGetTestMailbox implements Operation {
+public class PleskGetTestMailbox implements AsyncOperation {
 
     static final String TEST_MAIL_LOGIN = "testsupportmail";
     static final String
@@ -36,7 +41,13 @@ public class PleskGetTestMailbox implements Operation {
     }
 
     @Override
-    public OperationResult execute() {
+    public CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                         Cancellation cancellation) {
+        return CompletableFuture.supplyAsync(() -> getTestMailbox(deadline, cancellation), BLOCKING);
+    }
+
+    private OperationResult getTestMailbox(Deadline deadline,
+                                           Cancellation cancellation) {
         ObjectMapper om = new ObjectMapper();
         ObjectNode mailCredentials = om.createObjectNode();
         URI loginLink = URI.create(
@@ -46,15 +57,27 @@ public class PleskGetTestMailbox implements Operation {
         boolean newEmailCreated = false;
         String password;
 
-        Optional<String> existingPassword = getEmailPassword(TEST_MAIL_LOGIN, testMailDomain);
+        Optional<String> existingPassword = getEmailPassword(TEST_MAIL_LOGIN, testMailDomain, deadline,
+                cancellation);
+        if (cancellation.isCancelled()) {
+            // The lookup may have been cut short; creating a mailbox now could replace a working password.
+            return OperationResult.internalError("Test mail lookup for " + testMailDomain + " did not finish.");
+        }
+        if (deadline.isExpired()) {
+            return OperationResult.timeout("Test mail lookup for " + testMailDomain + " timed out.");
+        }
 
         if (existingPassword.isPresent()) {
             password = existingPassword.get();
         } else {
             password = Utils.generatePassword(TEST_MAIL_PASSWORD_LENGTH);
             try {
-                createMail(TEST_MAIL_LOGIN, testMailDomain, password, TEST_MAIL_DESCRIPTION);
+                createMail(TEST_MAIL_LOGIN, testMailDomain, password, TEST_MAIL_DESCRIPTION, deadline, cancellation);
                 newEmailCreated = true;
+            } catch (CommandTimedOutException e) {
+                getLogger().errorEntry().message("Timed out creating test mail").field("Domain", testMailDomain)
+                        .exception(e).log();
+                return OperationResult.timeout("Timed out creating test mail account.");
             } catch (CommandFailedException e) {
                 getLogger().errorEntry().message("Failed to create test mail").field("Domain", testMailDomain)
                         .exception(e).log();
@@ -78,11 +101,13 @@ public class PleskGetTestMailbox implements Operation {
     }
 
     private Optional<String> getEmailPassword(String login,
-                                              DomainName mailDomain) {
+                                              DomainName mailDomain,
+                                              Deadline deadline,
+                                              Cancellation cancellation) {
         String emailPassword = "";
         List<String> result;
         try {
-            result = ShellUtils.execute(PLESK_CLI_GET_MAIL_USERS_CREDENTIALS).stdout();
+            result = ShellUtils.execute(deadline, cancellation, PLESK_CLI_GET_MAIL_USERS_CREDENTIALS).stdout();
         } catch (CommandFailedException e) {
             return Optional.empty();
         }
@@ -105,9 +130,12 @@ public class PleskGetTestMailbox implements Operation {
     private void createMail(String login,
                             DomainName mailDomain,
                             String password,
-                            String description) throws CommandFailedException {
+                            String description,
+                            Deadline deadline,
+                            Cancellation cancellation) throws CommandFailedException {
         String email = login + "@" + mailDomain;
-        ShellUtils.execute(PLESK_CLI_EXECUTABLE,
+        ShellUtils.execute(deadline, cancellation,
+                PLESK_CLI_EXECUTABLE,
                 "bin",
                 "mail",
                 "--create",
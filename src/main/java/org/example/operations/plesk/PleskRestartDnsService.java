@@ -3,13 +3,19 @@ package org.example.operations.plesk;
 import org.example.config.constants.Executables;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
-import org.example.operations.Operation;
+import org.example.operations.AsyncOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.operations.OperationResult;
 import org.example.utils.CommandFailedException;
+import org.example.utils.CommandTimedOutException;
 import org.example.utils.ShellUtils;
 import org.example.value_types.DomainName;
 
-public class PleskRestartDnsService implements Operation {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+public class PleskRestartDnsService implements AsyncOperation {
     private final DomainName domain;
 
     public PleskRestartDnsService(DomainName domain) {
@@ -17,14 +23,28 @@ public class PleskRestartDnsService implements Operation {
     }
 
     @Override
-    public OperationResult execute() {
+    public CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                         Cancellation cancellation) {
+        return CompletableFuture.supplyAsync(() -> restart(deadline, cancellation), BLOCKING);
+    }
 
+    /**
+     * Only stopping the service is bounded by {@code deadline} and {@code cancellation}. Once it may have stopped,
+     * starting it again always runs to completion, since giving up there would leave the domain without DNS.
+     */
+    private OperationResult restart(Deadline deadline,
+                                    Cancellation cancellation) {
+        boolean stopTimedOut = false;
         try {
-            ShellUtils.execute(Executables.PLESK_CLI_EXECUTABLE, "bin", "dns", "--off", domain.name());
+            ShellUtils.execute(deadline, cancellation, Executables.PLESK_CLI_EXECUTABLE, "bin", "dns", "--off",
+                    domain.name());
         } catch (CommandFailedException e) {
             getLogger().errorEntry().message("Operation stop DNS service for domain " + domain + " failed.")
                     .exception(e).log();
-            return OperationResult.internalError("Operation stop DNS service for domain " + domain + " failed.");
+            stopTimedOut = e instanceof CommandTimedOutException;
+            if (!stopTimedOut && !cancellation.isCancelled()) {
+                return OperationResult.internalError("Operation stop DNS service for domain " + domain + " failed.");
+            }
         }
 
         try {
@@ -34,6 +54,14 @@ public class PleskRestartDnsService implements Operation {
                     .exception(e).log();
             return OperationResult.internalError("Operation start DNS service for domain " + domain + " failed.");
         }
+        if (stopTimedOut) {
+            return OperationResult.timeout("Operation stop DNS service for domain " + domain +
+                    " timed out; DNS service was started again.");
+        }
+        if (cancellation.isCancelled()) {
+            return OperationResult.internalError("Operation stop DNS service for domain " + domain +
+                    " was interrupted; DNS service was started again.");
+        }
         return OperationResult.success();
     }
 
@@ -0,0 +1,128 @@
+package org.example.operations.program;
+
+import org.example.operations.AvailableOperation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * A short, ordered list of operations carried by one token, e.g.
+ * <pre>
+ * PLESK.GET_SUBSCRIPTION_ID_BY_DOMAIN example.com ; PLESK.GET_LOGIN_LINK $0.id.0 admin
+ * </pre>
+ * Steps are separated by a lone {@code ;} argument. An argument of the form {@code $<step>.<path>} is replaced by a
+ * value from an earlier step's payload: the path is a dot-separated list of field names and array indexes, and must
+ * end at a string, number or boolean. Since a program is the token's operation string, it is covered by the token's
+ * signature like any single operation.
+ */
+public record OperationProgram(List<Step> steps) {
+    public static final int MAX_STEPS = 8;
+    static final String STEP_SEPARATOR = ";";
+    private static final String REFERENCE_PREFIX = "$";
+    private static final Pattern REFERENCE = Pattern.compile("\\$(\\d{1,2})((\\.[A-Za-z0-9_]+)+)");
+
+    public OperationProgram {
+        steps = List.copyOf(steps);
+    }
+
+    /**
+     * @return whether {@code command} has more than one step; single operations keep their plain form
+     */
+    public static boolean isProgram(String command) {
+        return command.contains(" " + STEP_SEPARATOR + " ") || command.endsWith(" " + STEP_SEPARATOR);
+    }
+
+    /**
+     * @return whether {@code argument} is a step separator or a reference, which only a program gives a meaning to
+     */
+    public static boolean isProgramSyntax(String argument) {
+        return argument.equals(STEP_SEPARATOR) || argument.startsWith(REFERENCE_PREFIX);
+    }
+
+    /**
+     * @throws IllegalArgumentException on an unknown operation, an empty step, too many steps or a reference that
+     *                                  is malformed or does not point to an earlier step
+     */
+    public static OperationProgram parse(String command) {
+        List<Step> steps = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (String arg : command.split(" ")) {
+            if (arg.equals(STEP_SEPARATOR)) {
+                steps.add(parseStep(steps.size(), current));
+                current.clear();
+            } else {
+                current.add(arg);
+            }
+        }
+        steps.add(parseStep(steps.size(), current));
+        if (steps.size() > MAX_STEPS) {
+            throw new IllegalArgumentException("A program has at most " + MAX_STEPS + " steps");
+        }
+        return new OperationProgram(steps);
+    }
+
+    private static Step parseStep(int index,
+                                  List<String> words) {
+        if (words.isEmpty() || words.getFirst().isEmpty()) {
+            throw new IllegalArgumentException("Step " + index + " is empty");
+        }
+        AvailableOperation operation;
+        try {
+            operation = AvailableOperation.valueOf(words.getFirst());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operation in step " + index + ": [" + words.getFirst() + "]");
+        }
+        String[] args = words.subList(1, words.size()).toArray(String[]::new);
+        Set<Integer> dependsOn = new TreeSet<>();
+        for (String arg : args) {
+            if (!arg.startsWith(REFERENCE_PREFIX)) {
+                continue;
+            }
+            var matcher = REFERENCE.matcher(arg);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Malformed reference in step " + index + ": " + arg);
+            }
+            int referenced = Integer.parseInt(matcher.group(1));
+            if (referenced >= index) {
+                throw new IllegalArgumentException("Step " + index + " can only reference earlier steps: " + arg);
+            }
+            dependsOn.add(referenced);
+        }
+        return new Step(index, operation, args, Set.copyOf(dependsOn));
+    }
+
+    /**
+     * @param args     arguments as written in the token, references unresolved
+     * @param dependsOn steps whose payloads {@code args} reference
+     */
+    public record Step(int index, AvailableOperation operation, String[] args, Set<Integer> dependsOn) {
+
+        static boolean isReference(String arg) {
+            return arg.startsWith(REFERENCE_PREFIX);
+        }
+
+        /**
+         * @return step index and path segments of a reference argument
+         */
+        static Reference reference(String arg) {
+            var matcher = REFERENCE.matcher(arg);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Malformed reference: " + arg);
+            }
+            return new Reference(Integer.parseInt(matcher.group(1)),
+                    List.of(matcher.group(2).substring(1).split("\\.")));
+        }
+
+        @Override
+        public String toString() {
+            return operation.qualifiedName() + " args:" + Arrays.toString(args);
+        }
+    }
+
+    record Reference(int step, List<String> path) {
+    }
+}
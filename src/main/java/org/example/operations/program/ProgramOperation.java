@@ -0,0 +1,192 @@
+package org.example.operations.program;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+import org.example.operations.AsyncOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
+import org.example.operations.Operation;
+import org.example.operations.OperationRequest;
+import org.example.operations.OperationResult;
+import org.example.operations.core.OperationFactory;
+import org.example.operations.core.OperationScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs an {@link OperationProgram}. Each step starts as soon as the steps it references have finished, so
+ * independent steps run in parallel, within the {@link OperationScheduler}'s limits. A step whose dependency did not
+ * succeed, or whose reference does not resolve to a value, is not run. The result carries every step's result and
+ * timing; it is successful only if all steps were. Once the program is cancelled, steps that have not started are
+ * skipped.
+ */
+public class ProgramOperation implements AsyncOperation {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final OperationProgram program;
+    private final OperationFactory factory;
+    private final OperationScheduler scheduler;
+
+    /**
+     * @param factory builds the operation for one step once its references are resolved
+     */
+    public ProgramOperation(OperationProgram program,
+                            OperationFactory factory) {
+        this(program, factory, OperationScheduler.getInstance());
+    }
+
+    public ProgramOperation(OperationProgram program,
+                            OperationFactory factory,
+                            OperationScheduler scheduler) {
+        this.program = program;
+        this.factory = factory;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public CompletionStage<OperationResult> executeAsync(Deadline deadline,
+                                                         Cancellation cancellation) {
+        List<OperationProgram.Step> steps = program.steps();
+        List<CompletableFuture<StepOutcome>> outcomes = new ArrayList<>(steps.size());
+        long start = System.nanoTime();
+        for (OperationProgram.Step step : steps) {
+            CompletableFuture<?>[] dependencies = step.dependsOn().stream()
+                    .map(outcomes::get)
+                    .toArray(CompletableFuture<?>[]::new);
+            outcomes.add(CompletableFuture.allOf(dependencies)
+                    .thenApplyAsync(ignored -> runStep(step, outcomes, deadline, cancellation),
+                            scheduler.threads()));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(CompletableFuture<?>[]::new))
+                .thenApply(ignored -> collect(outcomes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    private static OperationResult collect(List<CompletableFuture<StepOutcome>> outcomes,
+                                           long elapsedMillis) {
+        ObjectNode payload = MAPPER.createObjectNode();
+        ArrayNode stepResults = payload.putArray("steps");
+        OperationResult firstFailure = null;
+        int firstFailedStep = -1;
+        for (CompletableFuture<StepOutcome> future : outcomes) {
+            StepOutcome outcome = future.join();
+            ObjectNode stepResult = stepResults.addObject();
+            stepResult.put("step", outcome.step().index());
+            stepResult.put("operation", outcome.step().operation().qualifiedName());
+            stepResult.setAll((ObjectNode) outcome.result().toJsonNode());
+            stepResult.put("elapsed_ms", outcome.elapsedMillis());
+            if (firstFailure == null && !outcome.succeeded()) {
+                firstFailure = outcome.result();
+                firstFailedStep = outcome.step().index();
+            }
+        }
+        payload.put("elapsed_ms", elapsedMillis);
+
+        if (firstFailure != null) {
+            return OperationResult.failure(firstFailure.status(),
+                    "Step " + firstFailedStep + " failed: " + firstFailure.getMessage(), Optional.of(payload));
+        }
+        return OperationResult.success("Program completed: " + outcomes.size() + " steps", Optional.of(payload));
+    }
+
+    private StepOutcome runStep(OperationProgram.Step step,
+                                List<CompletableFuture<StepOutcome>> outcomes,
+                                Deadline deadline,
+                                Cancellation cancellation) {
+        long start = System.nanoTime();
+        if (cancellation.isCancelled()) {
+            return new StepOutcome(step, OperationResult.failure(OperationResult.ExecutionStatus.UNPROCCESIBLE_ENTITY,
+                    "Skipped: the program was cancelled"), 0);
+        }
+        OperationResult result;
+        try {
+            result = resolveArgs(step, outcomes)
+                    .map(args -> run(step, args, deadline, cancellation))
+                    .orElseGet(() -> OperationResult.failure(OperationResult.ExecutionStatus.UNPROCCESIBLE_ENTITY,
+                            "Skipped: a step it references did not succeed"));
+        } catch (IllegalArgumentException e) {
+            result = OperationResult.failure(OperationResult.ExecutionStatus.UNPROCCESIBLE_ENTITY, e.getMessage());
+        }
+        return new StepOutcome(step, result, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private OperationResult run(OperationProgram.Step step,
+                                String[] args,
+                                Deadline deadline,
+                                Cancellation cancellation) {
+        OperationRequest request = new OperationRequest(step.operation(), args);
+        Operation operation;
+        try {
+            operation = factory.build(request);
+        } catch (RuntimeException e) {
+            return OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                    "Invalid arguments: " + request);
+        }
+        try {
+            return scheduler.execute(request, operation, deadline, cancellation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return OperationResult.internalError("Interrupted while waiting to run step " + step.index());
+        } catch (RuntimeException e) {
+            getLogger().
+                    errorEntry().message("Program step failed").field("Step", step.index())
+                    .field("Operation", request.toString()).exception(e).log();
+            return OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the step's arguments with references replaced, or empty if a referenced step did not succeed
+     * @throws IllegalArgumentException if a reference does not resolve to a value
+     */
+    private static Optional<String[]> resolveArgs(OperationProgram.Step step,
+                                                  List<CompletableFuture<StepOutcome>> outcomes) {
+        String[] resolved = step.args().clone();
+        for (int i = 0; i < resolved.length; i++) {
+            if (!OperationProgram.Step.isReference(resolved[i])) {
+                continue;
+            }
+            OperationProgram.Reference reference = OperationProgram.Step.reference(resolved[i]);
+            StepOutcome dependency = outcomes.get(reference.step()).join();
+            if (!dependency.succeeded()) {
+                return Optional.empty();
+            }
+            JsonNode value = dependency.result().getPayload().orElse(MAPPER.nullNode());
+            for (String segment : reference.path()) {
+                value = value.isArray() && isIndex(segment) ? value.path(Integer.parseInt(segment))
+                        : value.path(segment);
+            }
+            if (!value.isValueNode() || value.isNull()) {
+                throw new IllegalArgumentException("Reference " + resolved[i] + " does not resolve to a value");
+            }
+            resolved[i] = value.asText();
+        }
+        return Optional.of(resolved);
+    }
+
+    private static boolean isIndex(String segment) {
+        for (int i = 0; i < segment.length(); i++) {
+            if (!Character.isDigit(segment.charAt(i))) {
+                return false;
+            }
+        }
+        return segment.length() < 10;
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    private record StepOutcome(OperationProgram.Step step, OperationResult result, long elapsedMillis) {
+        boolean succeeded() {
+            return result.getStatusCode() / 100 == 2;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.picocli.subcommands;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.config.core.AppConfiguration;
+import org.example.logging.core.LogLevel;
+import org.example.logging.facade.LogManager;
+import org.example.main;
+import org.example.operations.OperationResult;
+import org.example.token_handler.TokenAdmission;
+import picocli.CommandLine;
+
+import java.util.Map;
+import java.util.Optional;
+
+@CommandLine.Command(name = "admissionstats",
+        description = "Reports how many tokens were rejected at each admission stage and how many were admitted.")
+
+public class AdmissionStatsSubCommand extends AbstractSubCommand {
+    @CommandLine.Option(names = {"--debug"}, description = "Enable debug output. Also prints everything logged.")
+    static boolean debug;
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information.")
+    static boolean verbose;
+
+    public AdmissionStatsSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        setupLogging();
+        AppConfiguration.getInstance().initializeLazily();
+
+        Map<TokenAdmission.Stage, Long> counts = TokenAdmission.counts();
+        if (counts.isEmpty()) {
+            System.out.println(OperationResult.internalError("Admission counters could not be read").toPrettyJson());
+            return 1;
+        }
+        ObjectNode stages = new ObjectMapper().createObjectNode();
+        for (Map.Entry<TokenAdmission.Stage, Long> entry : counts.entrySet()) {
+            stages.put(entry.getKey().name().toLowerCase(), entry.getValue());
+        }
+        System.out.println(OperationResult.success("Token admission statistics", Optional.of(stages)).toPrettyJson());
+        return 0;
+    }
+
+    private static void setupLogging() {
+        if (debug) {
+            new LogManager.Builder().globalLogLevel(LogLevel.DEBUG).apply();
+        }
+        if (verbose) {
+            new LogManager.Builder().setVerbose().apply();
+        }
+    }
+}
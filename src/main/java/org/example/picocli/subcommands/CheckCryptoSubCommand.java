@@ -0,0 +1,65 @@
+package org.example.picocli.subcommands;
+
+import org.example.config.key_ed25519.Ed25519SelfTest;
+import org.example.config.key_ed25519.Ed25519Verifier;
+import org.example.config.key_ed25519.KeyManagerException;
+import org.example.logging.core.LogLevel;
+import org.example.logging.facade.LogManager;
+import org.example.main;
+import org.example.operations.OperationResult;
+import picocli.CommandLine;
+
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Optional;
+
+@CommandLine.Command(name = "checkcrypto",
+        description = "checks the built-in Ed25519 verifier against RFC 8032 vectors and the JCA provider")
+
+public class CheckCryptoSubCommand extends AbstractSubCommand {
+    @CommandLine.Option(names = {"--debug"}, description = "Enable debug output. Also prints everything logged.")
+    static boolean debug;
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information.")
+    static boolean verbose;
+    @CommandLine.Option(names = {"--rounds"}, description = "Random messages to compare with the JCA provider.",
+            defaultValue = "1000")
+    static int rounds;
+
+    public CheckCryptoSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        setupLogging();
+
+        Optional<String> failure = Ed25519SelfTest.checkKnownAnswers(Ed25519Verifier.Provider.BUILTIN);
+        if (failure.isPresent()) {
+            System.out.println(OperationResult.failure(failure.get()).toPrettyJson());
+            return 1;
+        }
+        try {
+            Ed25519SelfTest.DifferentialResult result = Ed25519SelfTest.checkAgainstJca(rounds, new SecureRandom());
+            if (result.mismatches() > 0) {
+                System.out.println(OperationResult.failure(result.mismatches() + " of " + result.checks() +
+                        " checks disagree with JCA, first at " + result.firstMismatch().orElse("?")).toPrettyJson());
+                return 1;
+            }
+            System.out.println(OperationResult.success("Built-in Ed25519 verifier passed RFC 8032 vectors and " +
+                    result.checks() + " checks against JCA").toPrettyJson());
+            return 0;
+        } catch (GeneralSecurityException | KeyManagerException e) {
+            System.out.println(OperationResult.failure("Cannot compare with JCA: " + e.getMessage()).toPrettyJson());
+            return 1;
+        }
+    }
+
+    private static void setupLogging() {
+        if (debug) {
+            new LogManager.Builder().globalLogLevel(LogLevel.DEBUG).apply();
+        }
+        if (verbose) {
+            new LogManager.Builder().setVerbose().apply();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.picocli.subcommands;
+
+import com.fasterxml.jackson.databind.node.IntNode;
+import org.example.config.constants.EnvironmentConstants;
+import org.example.config.core.AppConfiguration;
+import org.example.logging.core.LogLevel;
+import org.example.logging.facade.LogManager;
+import org.example.main;
+import org.example.token_handler.TokenBatch;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@CommandLine.Command(name = "execute-batch",
+        description = "Executes signed tokens read one per line from stdin or a file, writing one result JSON line " +
+                "per token as it finishes.")
+
+public class ExecuteBatchSubCommand extends AbstractSubCommand {
+    @CommandLine.Option(names = {"--debug"},
+            description = "Enable debug output. Also prints everything logged to stderr.")
+    static boolean debug;
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information to stderr.")
+    static boolean verbose;
+    @CommandLine.Option(names = {"--file"}, description = "Read tokens from this file instead of stdin.")
+    private Path file;
+    @CommandLine.Option(names = {"--parallelism"}, description = "Operations executed concurrently.")
+    private int parallelism = EnvironmentConstants.DEFAULT_BATCH_PARALLELISM;
+
+    public ExecuteBatchSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        // Result lines own stdout; anything else printed, including logs, goes to stderr.
+        OutputStream out = new FileOutputStream(FileDescriptor.out);
+        System.setOut(System.err);
+        setupLogging();
+        if (parallelism < 1) {
+            System.err.println("--parallelism must be at least 1");
+            return 1;
+        }
+
+        List<String> tokens = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        try (BufferedReader reader = file != null ? Files.newBufferedReader(file, StandardCharsets.US_ASCII)
+                : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (tokens.size() == TokenBatch.MAX_TOKENS) {
+                    System.err.println("A batch holds at most " + TokenBatch.MAX_TOKENS + " tokens");
+                    return 1;
+                }
+                tokens.add(line.trim());
+                lineNumbers.add(lineNumber);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not read tokens: " + e.getMessage());
+            return 1;
+        }
+
+        AppConfiguration.getInstance().initializeLazily();
+        try {
+            TokenBatch.execute(tokens, parallelism, (index, result) -> {
+                byte[] line = (result.toJsonLine("line", IntNode.valueOf(lineNumbers.get(index))) + "\n")
+                        .getBytes(StandardCharsets.UTF_8);
+                try {
+                    out.write(line);
+                    out.flush();
+                } catch (IOException e) {
+                    LogManager.getInstance().getLogger().
+                            warnEntry().message("Could not write batch result").exception(e).log();
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+        return 0;
+    }
+
+    private static void setupLogging() {
+        if (debug) {
+            new LogManager.Builder().globalLogLevel(LogLevel.DEBUG).apply();
+        }
+        if (verbose) {
+            new LogManager.Builder().setVerbose().apply();
+        }
+    }
+}
@@ -1,23 +1,20 @@
 package org.example.picocli.subcommands;
 
+import org.example.config.constants.EnvironmentConstants;
 import org.example.config.core.AppConfiguration;
+import org.example.daemon.ExecutorClient;
 import org.example.logging.core.LogLevel;
 import org.example.logging.facade.LogManager;
 import org.example.main;
-import org.example.operations.AvailableOperation;
-import org.example.operations.Operation;
-import org.example.operations.OperationRequest;
 import org.example.operations.OperationResult;
-import org.example.operations.dns.DnsOperationFactory;
-import org.example.operations.plesk.PleskOperationFactory;
-import org.example.token_handler.TokenProcessor;
-import org.example.value_types.Token;
+import org.example.operations.core.DiskResultCache;
+import org.example.operations.core.OperationScheduler;
+import org.example.token_handler.TokenExecutor;
 import picocli.CommandLine;
 
-import javax.naming.CommunicationException;
-import java.util.ArrayList;
-import java.util.Base64;
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 @CommandLine.Command(
         name = "execute",
@@ -26,12 +23,16 @@ import java.util.List;
 
 
 public class ExecuteSubCommand extends AbstractSubCommand {
+    private static final String RESULT_CACHE_FILENAME = "result.cache";
 
-
-    @CommandLine.Option(names = {"--debug"}, description = "Enable debug output. Also prints everything logged.")
+    @CommandLine.Option(names = {"--debug"},
+            description = "Enable debug output. Also prints everything logged. Implies --no-daemon.")
     static boolean debug;
-    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information.")
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information. Implies --no-daemon.")
     static boolean verbose;
+    @CommandLine.Option(names = {"--no-daemon"},
+            description = "Execute in this process even if a serve executor is running.")
+    static boolean noDaemon;
     @CommandLine.Parameters(index = "0", description = "The signed token")
     private String encodedJson;
     @CommandLine.Unmatched
@@ -45,7 +46,6 @@ public class ExecuteSubCommand extends AbstractSubCommand {
     @Override
     public Integer call() {
         setupLogging();
-        AppConfiguration.getInstance().initializeLazily();
         if (unmatchedArgs != null && !unmatchedArgs.isEmpty()) {
             System.err.println("Unexpected extra arguments: " + unmatchedArgs);
             System.err.println("Usage: execute <signed-token>");
@@ -54,32 +54,39 @@ public class ExecuteSubCommand extends AbstractSubCommand {
             return 1;
         }
 
-        try {
-            OperationRequest operationRequest = decodeAndProcessToken(encodedJson);
+        // A serve executor logs with its own settings, so --debug and --verbose only take effect in-process.
+        if (!noDaemon && !debug && !verbose) {
             try {
-                OperationResult result = executeCommand(operationRequest);
-                System.out.println(result.toPrettyJson());
-                return 0;
-            } catch (IllegalArgumentException e) {
-                List<String> availableCommandsList = getAvailableCommandsList();
-                System.out.println(OperationResult.notFound("Unknown operation: [" +
-                        operationRequest.toString() + "] " +
-                        availableCommandsList).toPrettyJson());
+                if (ExecutorClient.forward(EnvironmentConstants.EXECUTOR_SOCKET_PATH, encodedJson, System.out)) {
+                    return 0;
+                }
+            } catch (IOException e) {
+                // The token may already have run, so it is not retried in-process.
+                System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR,
+                        "Executor connection failed: " + e.getMessage()).toPrettyJson());
                 return 0;
             }
-        } catch (TokenProcessor.SignatureValidationFailException e) {
-            System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.UNAUTHORIZED, e.getMessage())
-                    .toPrettyJson());
-            return 0;
-        } catch (TokenProcessor.TokenUsedException e) {
-            System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST, e.getMessage())
-                    .toPrettyJson());
-            return 0;
-        } catch (Exception e) {
-            System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR,
-                            e.getMessage())
-                    .toPrettyJson());
-            return 0;
+        }
+
+        AppConfiguration configuration = AppConfiguration.getInstance();
+        configuration.initializeLazily();
+        if (configuration.isResultCacheDiskEnabled()) {
+            openDiskResultCache(configuration);
+        }
+        System.out.println(TokenExecutor.execute(encodedJson).toPrettyJson());
+        return 0;
+    }
+
+    private static void openDiskResultCache(AppConfiguration configuration) {
+        Path path = configuration.getUsedTokenStoreDir().resolve(RESULT_CACHE_FILENAME);
+        try {
+            Files.createDirectories(path.getParent());
+            OperationScheduler.getInstance().setDiskResultCache(
+                    DiskResultCache.open(path, configuration.getResultCacheTtlSeconds()));
+        } catch (IOException | RuntimeException e) {
+            LogManager.getInstance().getLogger().
+                    warnEntry().message("Result cache could not be opened, running without it")
+                    .field("Path", path.toString()).exception(e).log();
         }
     }
 
@@ -91,40 +98,4 @@ public class ExecuteSubCommand extends AbstractSubCommand {
             new LogManager.Builder().setVerbose().apply();
         }
     }
-
-    private OperationRequest decodeAndProcessToken(String encodedToken) throws CommunicationException,
-            TokenProcessor.SignatureValidationFailException, TokenProcessor.TokenUsedException {
-        String rawJson = new String(Base64.getDecoder().decode(encodedToken));
-        Token token = Token.fromJson(rawJson);
-        return new TokenProcessor()
-                .processToken(token)
-                .orElseThrow(CommunicationException::new);
-    }
-
-    private OperationResult executeCommand(OperationRequest operationRequest) {
-        Operation executor = getExecutorForCommand(operationRequest);
-        return executor.execute();
-    }
-
-    private List<String> getAvailableCommandsList() {
-        List<String> availableCommands = new ArrayList<>();
-        availableCommands.add("Available commands:");
-        availableCommands.add("PLESK:");
-        for (AvailableOperation.Plesk cmd : AvailableOperation.Plesk.values()) {
-            availableCommands.add("  PLESK." + cmd.name());
-        }
-
-        availableCommands.add("NS:");
-        for (AvailableOperation.DNS cmd : AvailableOperation.DNS.values()) {
-            availableCommands.add("  NS." + cmd.name());
-        }
-        return availableCommands;
-    }
-
-    private Operation getExecutorForCommand(OperationRequest operationRequest) {
-        return switch (operationRequest.commandName()) {
-            case AvailableOperation.Plesk pleskCommand -> new PleskOperationFactory().build(operationRequest);
-            case AvailableOperation.DNS DNSCommand -> new DnsOperationFactory().build(operationRequest);
-        };
-    }
 }
@@ -0,0 +1,111 @@
+package org.example.picocli.subcommands;
+
+import org.example.logging.core.LogLevel;
+import org.example.logging.facade.LogManager;
+import org.example.main;
+import org.example.operations.OperationResult;
+import org.example.token_handler.TokenLifecycleManager;
+import org.example.token_handler.ledger.SignatureIndex;
+import org.example.token_handler.ledger.UsedTokenRecord;
+import org.example.token_handler.ledger.UsedTokenRecordFile;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+
+@CommandLine.Command(name = "ledgerexport",
+        description = "Prints the binary used token records in the human-readable audit log format.")
+
+public class LedgerExportSubCommand extends AbstractSubCommand {
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    @CommandLine.Option(names = {"--debug"}, description = "Enable debug output. Also prints everything logged.")
+    static boolean debug;
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information.")
+    static boolean verbose;
+    @CommandLine.Option(names = {"--file"}, description = "Record file to export. Defaults to the live ledger.")
+    Path file;
+    @CommandLine.Option(names = {"--signature"}, description = "Only print the record with this base64 signature.")
+    String signature;
+    @CommandLine.Option(names = {"--command"},
+            description = "Only print records whose command hash matches this command, rendered in full.")
+    String command;
+
+    public LedgerExportSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        setupLogging();
+
+        Path source = file != null ? file : TokenLifecycleManager.getRecordPath();
+        UsedTokenRecordFile.Records records;
+        try {
+            records = UsedTokenRecordFile.read(source);
+        } catch (IOException e) {
+            System.out.println(OperationResult.notFound("Used token records could not be read: " + source)
+                    .toPrettyJson());
+            return 1;
+        }
+
+        if (signature != null) {
+            UsedTokenRecordFile.Records sorted = records.sortedBySignature();
+            byte[] decoded;
+            try {
+                decoded = Base64.getDecoder().decode(signature);
+            } catch (IllegalArgumentException e) {
+                System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                        "Signature is not valid base64").toPrettyJson());
+                return 1;
+            }
+            if (decoded.length != SignatureIndex.SIGNATURE_LENGTH) {
+                System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                        "Signature must decode to " + SignatureIndex.SIGNATURE_LENGTH + " bytes").toPrettyJson());
+                return 1;
+            }
+            int index = sorted.binarySearch(decoded);
+            if (index < 0) {
+                System.out.println(OperationResult.notFound("No record with this signature").toPrettyJson());
+                return 1;
+            }
+            print(sorted.get(index));
+            return 0;
+        }
+
+        Long commandHash = command != null ? UsedTokenRecord.hashCommand(command) : null;
+        for (int i = 0; i < records.size(); i++) {
+            if (commandHash == null || records.commandHash(i) == commandHash) {
+                print(records.get(i));
+            }
+        }
+        return 0;
+    }
+
+    private void print(UsedTokenRecord record) {
+        String renderedCommand = command != null && record.commandHash() == UsedTokenRecord.hashCommand(command)
+                ? command
+                : "sha256:" + String.format("%016x", record.commandHash());
+        String markedAt = LocalDateTime.ofInstant(Instant.ofEpochSecond(record.markedAt()), ZoneId.systemDefault())
+                .format(TIMESTAMP_FORMAT);
+        System.out.println("[" + markedAt + "] " + String.join("|",
+                Long.toString(record.timestamp()),
+                record.nonce(),
+                Long.toString(record.expiry()),
+                renderedCommand,
+                Base64.getEncoder().encodeToString(record.signature())));
+    }
+
+    private static void setupLogging() {
+        if (debug) {
+            new LogManager.Builder().globalLogLevel(LogLevel.DEBUG).apply();
+        }
+        if (verbose) {
+            new LogManager.Builder().setVerbose().apply();
+        }
+    }
+}
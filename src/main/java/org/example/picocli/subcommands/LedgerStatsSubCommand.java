@@ -0,0 +1,67 @@
+package org.example.picocli.subcommands;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.example.config.core.AppConfiguration;
+import org.example.logging.core.LogLevel;
+import org.example.logging.facade.LogManager;
+import org.example.main;
+import org.example.operations.OperationResult;
+import org.example.token_handler.TokenLifecycleManager;
+import org.example.token_handler.ledger.LedgerSegment;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.util.Optional;
+
+@CommandLine.Command(name = "ledgerstats",
+        description = "Reports used token ledger segments with bloom filter fill and estimated false-positive rate.")
+
+public class LedgerStatsSubCommand extends AbstractSubCommand {
+    @CommandLine.Option(names = {"--debug"}, description = "Enable debug output. Also prints everything logged.")
+    static boolean debug;
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information.")
+    static boolean verbose;
+
+    public LedgerStatsSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        setupLogging();
+        AppConfiguration.getInstance().initializeLazily();
+
+        try {
+            ArrayNode segments = new ObjectMapper().createArrayNode();
+            for (LedgerSegment.Stats stats : TokenLifecycleManager.getLedgerStats()) {
+                ObjectNode segment = segments.addObject();
+                segment.put("bucket_start", stats.bucketStart());
+                segment.put("bucket_end", stats.bucketEnd());
+                segment.put("tokens", stats.tokens());
+                segment.put("index_capacity", stats.capacity());
+                segment.put("bloom_bits", stats.bloom().bits());
+                segment.put("bloom_hashes", stats.bloom().hashes());
+                segment.put("bloom_insertions", stats.bloom().insertions());
+                segment.put("bloom_fill", stats.bloom().fill());
+                segment.put("bloom_estimated_fp_rate", stats.bloom().estimatedFalsePositiveRate());
+            }
+            System.out.println(OperationResult.success("Used token ledger statistics", Optional.of(segments))
+                    .toPrettyJson());
+        } catch (IOException e) {
+            System.out.println(OperationResult.internalError("Used token ledger could not be read").toPrettyJson());
+            return 1;
+        }
+        return 0;
+    }
+
+    private static void setupLogging() {
+        if (debug) {
+            new LogManager.Builder().globalLogLevel(LogLevel.DEBUG).apply();
+        }
+        if (verbose) {
+            new LogManager.Builder().setVerbose().apply();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.picocli.subcommands;
+
+import org.example.config.constants.EnvironmentConstants;
+import org.example.daemon.ExecutorClient;
+import org.example.main;
+import org.example.operations.OperationResult;
+import picocli.CommandLine;
+
+import java.io.IOException;
+
+@CommandLine.Command(name = "schedulerstats",
+        description = "Reports per operation the concurrency limit, queue depth, running count and wait times of " +
+                "the running serve executor.")
+
+public class SchedulerStatsSubCommand extends AbstractSubCommand {
+
+    public SchedulerStatsSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        try {
+            if (ExecutorClient.requestStats(EnvironmentConstants.EXECUTOR_SOCKET_PATH, System.out)) {
+                return 0;
+            }
+        } catch (IOException e) {
+            System.out.println(OperationResult.internalError("Executor connection failed: " + e.getMessage())
+                    .toPrettyJson());
+            return 1;
+        }
+        System.out.println(OperationResult.notFound("No executor is serving on " +
+                EnvironmentConstants.EXECUTOR_SOCKET_PATH).toPrettyJson());
+        return 1;
+    }
+}
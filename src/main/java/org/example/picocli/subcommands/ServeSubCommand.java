@@ -0,0 +1,100 @@
+package org.example.picocli.subcommands;
+
+import org.example.config.AppConfigException;
+import org.example.config.constants.EnvironmentConstants;
+import org.example.config.core.AppConfiguration;
+import org.example.daemon.ExecutorServer;
+import org.example.logging.core.LogLevel;
+import org.example.logging.facade.LogManager;
+import org.example.main;
+import org.example.operations.OperationResult;
+import org.example.operations.core.OperationScheduler;
+import org.example.operations.core.ResultCache;
+import org.example.token_handler.TokenExecutor;
+import picocli.CommandLine;
+
+import java.io.IOException;
+
+@CommandLine.Command(name = "serve",
+        description = "Runs a long-lived executor that execute forwards tokens to over a Unix domain socket.")
+
+public class ServeSubCommand extends AbstractSubCommand {
+    @CommandLine.Option(names = {"--debug"}, description = "Enable debug output. Also prints everything logged.")
+    static boolean debug;
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information.")
+    static boolean verbose;
+    @CommandLine.Option(names = {"--max-requests"},
+            description = "Requests open at once; further ones are answered busy.")
+    private int maxRequests = EnvironmentConstants.DEFAULT_EXECUTOR_MAX_REQUESTS;
+
+    public ServeSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        setupLogging();
+        if (System.getenv("SSH_ORIGINAL_COMMAND") != null) {
+            System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                    "serve cannot be started over SSH").toPrettyJson());
+            return 1;
+        }
+        if (maxRequests < 1) {
+            System.out.println(OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                    "--max-requests must be at least 1").toPrettyJson());
+            return 1;
+        }
+
+        AppConfiguration configuration = AppConfiguration.getInstance();
+        configuration.initializeLazily();
+        configuration.watchPublicKey();
+        try {
+            configuration.getKeyring();
+        } catch (AppConfigException e) {
+            LogManager.getInstance().getLogger().
+                    warnEntry().message("No public key loaded yet, retrying on the first token").exception(e).log();
+        }
+
+        OperationScheduler scheduler = OperationScheduler.getInstance();
+        if (configuration.getResultCacheMaxEntries() > 0) {
+            scheduler.setResultCache(new ResultCache(configuration.getResultCacheMaxEntries(),
+                    configuration.getResultCacheTtlSeconds()));
+        }
+        ExecutorServer server = new ExecutorServer(EnvironmentConstants.EXECUTOR_SOCKET_PATH, maxRequests,
+                TokenExecutor::execute, scheduler::statsResult);
+        try {
+            server.bind();
+        } catch (IOException e) {
+            System.out.println(OperationResult.internalError("Could not start executor: " + e.getMessage())
+                    .toPrettyJson());
+            return 1;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // Shutting down; a stale socket is replaced on the next start.
+            }
+        }));
+        LogManager.getInstance().getLogger().
+                infoEntry().message("Executor serving")
+                .field("Socket", EnvironmentConstants.EXECUTOR_SOCKET_PATH.toString())
+                .field("MaxRequests", maxRequests).log();
+        try {
+            server.serve();
+        } catch (IOException e) {
+            System.out.println(OperationResult.internalError("Executor stopped: " + e.getMessage()).toPrettyJson());
+            return 1;
+        }
+        return 0;
+    }
+
+    private static void setupLogging() {
+        if (debug) {
+            new LogManager.Builder().globalLogLevel(LogLevel.DEBUG).apply();
+        }
+        if (verbose) {
+            new LogManager.Builder().setVerbose().apply();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.picocli.subcommands;
+
+import org.example.config.constants.EnvironmentConstants;
+import org.example.config.core.AppConfiguration;
+import org.example.daemon.StdioSession;
+import org.example.logging.core.LogLevel;
+import org.example.logging.facade.LogManager;
+import org.example.main;
+import org.example.operations.OperationResult;
+import org.example.token_handler.TokenExecutor;
+import picocli.CommandLine;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+@CommandLine.Command(name = "session",
+        description = "Reads '<id> <token>' lines from stdin and writes one result JSON line per request to stdout, " +
+                "running requests concurrently.")
+
+public class SessionSubCommand extends AbstractSubCommand {
+    @CommandLine.Option(names = {"--debug"},
+            description = "Enable debug output. Also prints everything logged to stderr.")
+    static boolean debug;
+    @CommandLine.Option(names = {"--verbose"}, description = "Print logged information to stderr.")
+    static boolean verbose;
+    @CommandLine.Option(names = {"--max-in-flight"}, description = "Requests executed concurrently in this session.")
+    private int maxInFlight = EnvironmentConstants.DEFAULT_SESSION_MAX_IN_FLIGHT;
+
+    public SessionSubCommand(main parent) {
+        super(parent);
+    }
+
+    @Override
+    public Integer call() {
+        // Responses own stdout; anything else printed, including logs, goes to stderr.
+        OutputStream responses = new FileOutputStream(FileDescriptor.out);
+        System.setOut(System.err);
+        setupLogging();
+        if (maxInFlight < 1) {
+            System.err.println("--max-in-flight must be at least 1");
+            return 1;
+        }
+
+        AppConfiguration configuration = AppConfiguration.getInstance();
+        configuration.initializeLazily();
+        configuration.watchPublicKey();
+        try {
+            long requests = new StdioSession(System.in, responses, maxInFlight, TokenExecutor::execute).run();
+            LogManager.getInstance().getLogger().
+                    infoEntry().message("Session ended").field("Requests", requests).log();
+        } catch (IOException e) {
+            System.err.println(OperationResult.internalError("Session input failed: " + e.getMessage())
+                    .toPrettyJson());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+        return 0;
+    }
+
+    private static void setupLogging() {
+        if (debug) {
+            new LogManager.Builder().globalLogLevel(LogLevel.DEBUG).apply();
+        }
+        if (verbose) {
+            new LogManager.Builder().setVerbose().apply();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package org.example.token_handler;
+
+import org.example.config.core.AppConfiguration;
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+import org.example.operations.OperationResult;
+import org.example.operations.program.OperationProgram;
+import org.example.token_handler.ledger.AdmissionCounters;
+import org.example.value_types.Token;
+import org.example.value_types.TokenDecoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Cheap checks a token has to pass before {@link TokenProcessor} spends a signature verification, a possible key
+ * refetch and a ledger lookup on it. In order: input length, Base64 alphabet, token format (size, nesting and field
+ * types, see {@link TokenDecoder}), timestamp/expiry window and a known operation, or a well-formed
+ * {@link OperationProgram}.
+ * <p>
+ * Every outcome, including the signature and replay checks done later by {@link TokenProcessor}, is counted per
+ * {@link Stage} in a counter file next to the used token ledger, so the shape of a flood of bad tokens shows up in
+ * {@code admissionstats} without debug logging.
+ */
+public final class TokenAdmission {
+    private static final String COUNTERS_FILENAME = "admission.counters";
+    private static AdmissionCounters counters;
+    private static boolean countersUnavailable;
+
+    private TokenAdmission() {
+    }
+
+    /**
+     * @param encoded the token as passed on the command line
+     * @return the decoded token, ready for {@link TokenProcessor#processToken}
+     */
+    public static Token screen(String encoded) throws AdmissionRejectedException {
+        if (encoded == null || encoded.isBlank()) {
+            throw reject(Stage.INPUT_LENGTH, OperationResult.ExecutionStatus.BAD_REQUEST, "No token given");
+        }
+        if (encoded.length() > TokenDecoder.MAX_ENCODED_LENGTH) {
+            throw reject(Stage.INPUT_LENGTH, OperationResult.ExecutionStatus.BAD_REQUEST,
+                    "Token exceeds " + TokenDecoder.MAX_ENCODED_LENGTH + " characters");
+        }
+        String trimmed = encoded.trim();
+        if (!isBase64(trimmed)) {
+            throw reject(Stage.BASE64, OperationResult.ExecutionStatus.BAD_REQUEST, "Token is not valid Base64");
+        }
+
+        Token token;
+        try {
+            token = TokenDecoder.decode(trimmed);
+        } catch (IllegalArgumentException e) {
+            throw reject(Stage.FORMAT, OperationResult.ExecutionStatus.BAD_REQUEST, e.getMessage());
+        }
+
+        long now = System.currentTimeMillis() / 1000;
+        if (token.isExpired()) {
+            throw reject(Stage.TIME_WINDOW, OperationResult.ExecutionStatus.UNAUTHORIZED, "Token has expired");
+        }
+        if (token.timestamp() > now + AppConfiguration.getInstance().getTokenClockSkewSeconds()) {
+            throw reject(Stage.TIME_WINDOW, OperationResult.ExecutionStatus.UNAUTHORIZED,
+                    "Token timestamp is in the future");
+        }
+        long maxLifetime = AppConfiguration.getInstance().getTokenMaxLifetimeSeconds();
+        if (maxLifetime > 0 && token.expiry() - token.timestamp() > maxLifetime) {
+            throw reject(Stage.TIME_WINDOW, OperationResult.ExecutionStatus.UNAUTHORIZED,
+                    "Token lifetime exceeds " + maxLifetime + " seconds");
+        }
+
+        if (OperationProgram.isProgram(token.command())) {
+            try {
+                OperationProgram.parse(token.command());
+            } catch (IllegalArgumentException e) {
+                throw reject(Stage.OPERATION, OperationResult.ExecutionStatus.NOT_FOUND, e.getMessage());
+            }
+            return token;
+        }
+        try {
+            TokenProcessor.parseCommand(token.command());
+        } catch (IllegalArgumentException e) {
+            throw reject(Stage.OPERATION, OperationResult.ExecutionStatus.NOT_FOUND,
+                    "Unknown operation: [" + token.command() + "]");
+        }
+        return token;
+    }
+
+    /**
+     * Standard Base64 alphabet with at most two trailing padding characters, checked without decoding.
+     */
+    static boolean isBase64(String value) {
+        int length = value.length();
+        int padding = 0;
+        while (padding < 2 && length - padding > 0 && value.charAt(length - padding - 1) == '=') {
+            padding++;
+        }
+        int data = length - padding;
+        if (data == 0 || data % 4 == 1 || (padding > 0 && length % 4 != 0)) {
+            return false;
+        }
+        for (int i = 0; i < data; i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '+' ||
+                    c == '/')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static AdmissionRejectedException reject(Stage stage,
+                                                     OperationResult.ExecutionStatus status,
+                                                     String message) {
+        record(stage);
+        getLogger().
+                debugEntry().message("Token rejected before signature verification")
+                .field("Stage", stage).field("Reason", message).log();
+        return new AdmissionRejectedException(stage, status, message);
+    }
+
+    /**
+     * Counts one token reaching {@code stage}: a reject at that stage, or {@link Stage#ADMITTED}.
+     */
+    public static void record(Stage stage) {
+        AdmissionCounters current = getCounters();
+        if (current != null) {
+            current.increment(stage.slot());
+        }
+    }
+
+    /**
+     * @return counts per stage since the counter file was created, empty if it cannot be opened
+     */
+    public static Map<Stage, Long> counts() {
+        Map<Stage, Long> counts = new EnumMap<>(Stage.class);
+        AdmissionCounters current = getCounters();
+        if (current != null) {
+            for (Stage stage : Stage.values()) {
+                counts.put(stage, current.get(stage.slot()));
+            }
+        }
+        return counts;
+    }
+
+    private static synchronized AdmissionCounters getCounters() {
+        if (counters == null && !countersUnavailable) {
+            Path storageDir = AppConfiguration.getInstance().getUsedTokenStoreDir();
+            try {
+                Files.createDirectories(storageDir);
+                counters = AdmissionCounters.open(storageDir.resolve(COUNTERS_FILENAME));
+            } catch (IOException e) {
+                countersUnavailable = true;
+                getLogger().
+                        warnEntry().message("Admission counters could not be opened, not counting rejects")
+                        .field("Path", storageDir.resolve(COUNTERS_FILENAME).toString()).exception(e).log();
+            }
+        }
+        return counters;
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    /**
+     * Admission stages in pipeline order. A stage's slot is its counter in the counter file and must never change.
+     */
+    public enum Stage {
+        INPUT_LENGTH(0),
+        BASE64(1),
+        FORMAT(2),
+        TIME_WINDOW(3),
+        OPERATION(4),
+        SIGNATURE(5),
+        REPLAY(6),
+        ADMITTED(7);
+
+        private final int slot;
+
+        Stage(int slot) {
+            this.slot = slot;
+        }
+
+        int slot() {
+            return slot;
+        }
+    }
+
+    public static class AdmissionRejectedException extends Exception {
+        private final Stage stage;
+        private final OperationResult.ExecutionStatus status;
+
+        public AdmissionRejectedException(Stage stage,
+                                          OperationResult.ExecutionStatus status,
+                                          String message) {
+            super(message);
+            this.stage = stage;
+            this.status = status;
+        }
+
+        public Stage getStage() {
+            return stage;
+        }
+
+        public OperationResult toResult() {
+            return OperationResult.failure(status, getMessage());
+        }
+    }
+}
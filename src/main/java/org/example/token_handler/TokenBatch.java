@@ -0,0 +1,114 @@
+package org.example.token_handler;
+
+import org.example.config.AppConfigException;
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+import org.example.operations.OperationResult;
+import org.example.value_types.Token;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs many tokens with the per-token setup done once: configuration and keys are loaded once, all admitted tokens
+ * share one batch signature verification, and the tokens then run on virtual threads, {@code parallelism} at a time
+ * and within the {@link org.example.operations.core.OperationScheduler}'s limits. Each result is handed to the caller
+ * as soon as it is known, so rejected tokens are reported before any operation starts. A failing token never stops
+ * the others.
+ */
+public final class TokenBatch {
+    public static final int MAX_TOKENS = 10_000;
+
+    private TokenBatch() {
+    }
+
+    /**
+     * @param results receives each token's position in {@code encodedTokens} and its result, from several threads
+     *                but never concurrently
+     */
+    public static void execute(List<String> encodedTokens,
+                               int parallelism,
+                               BiConsumer<Integer, OperationResult> results) throws InterruptedException {
+        BiConsumer<Integer, OperationResult> sink = (index, result) -> {
+            synchronized (results) {
+                results.accept(index, result);
+            }
+        };
+
+        List<Token> admitted = new ArrayList<>(encodedTokens.size());
+        List<Integer> positions = new ArrayList<>(encodedTokens.size());
+        for (int i = 0; i < encodedTokens.size(); i++) {
+            try {
+                admitted.add(TokenAdmission.screen(encodedTokens.get(i)));
+                positions.add(i);
+            } catch (TokenAdmission.AdmissionRejectedException e) {
+                sink.accept(i, e.toResult());
+            } catch (RuntimeException e) {
+                sink.accept(i, OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR,
+                        e.getMessage()));
+            }
+        }
+
+        boolean[] verified = verify(admitted);
+        getLogger().
+                infoEntry().message("Executing token batch").field("Tokens", encodedTokens.size())
+                .field("Admitted", admitted.size()).field("Parallelism", parallelism).log();
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        Semaphore running = new Semaphore(parallelism);
+        try {
+            for (int j = 0; j < admitted.size(); j++) {
+                Token token = admitted.get(j);
+                int position = positions.get(j);
+                boolean signatureVerified = verified[j];
+                running.acquire();
+                workers.execute(() -> {
+                    try {
+                        sink.accept(position, run(token, signatureVerified));
+                    } finally {
+                        running.release();
+                    }
+                });
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Tokens failing the batch check are not rejected here: they go through the single-token path, which refetches
+     * the key once before giving up.
+     */
+    private static boolean[] verify(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return new boolean[0];
+        }
+        try {
+            return TokenManager.TokenValidator.areValid(tokens);
+        } catch (AppConfigException e) {
+            getLogger().
+                    warnEntry().message("Batch signature verification unavailable, verifying tokens one by one")
+                    .exception(e).log();
+            return new boolean[tokens.size()];
+        }
+    }
+
+    private static OperationResult run(Token token,
+                                       boolean signatureVerified) {
+        try {
+            return TokenExecutor.execute(token, signatureVerified);
+        } catch (RuntimeException e) {
+            return OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR, e.getMessage());
+        }
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.token_handler;
+
+import org.example.operations.AvailableOperation;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
+import org.example.operations.Operation;
+import org.example.operations.OperationRequest;
+import org.example.operations.OperationResult;
+import org.example.operations.core.OperationScheduler;
+import org.example.operations.dns.DnsOperationFactory;
+import org.example.operations.plesk.PleskOperationFactory;
+import org.example.operations.program.OperationProgram;
+import org.example.operations.program.ProgramOperation;
+import org.example.value_types.Token;
+
+import javax.naming.CommunicationException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs one signed token end to end: admission, signature and replay checks, the operation itself and storing its
+ * result for retries. Shared by {@code execute} and the {@code serve} daemon; safe to call from several threads.
+ * <p>
+ * The operation must finish before the token expires, since the backend no longer waits for it afterwards; one still
+ * running then is stopped and reported as timed out.
+ */
+public final class TokenExecutor {
+
+    private TokenExecutor() {
+    }
+
+    public static OperationResult execute(String encodedToken) {
+        return execute(encodedToken, Cancellation.none());
+    }
+
+    /**
+     * @param cancellation stops the token's operation, e.g. once the client that forwarded it has disconnected; the
+     *                     token stays used and its result records the cancellation
+     */
+    public static OperationResult execute(String encodedToken,
+                                          Cancellation cancellation) {
+        Token token;
+        try {
+            token = TokenAdmission.screen(encodedToken);
+        } catch (TokenAdmission.AdmissionRejectedException e) {
+            return e.toResult();
+        } catch (Exception e) {
+            return OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR, e.getMessage());
+        }
+        return execute(token, false, cancellation);
+    }
+
+    /**
+     * Runs a token that already passed {@link TokenAdmission#screen}.
+     *
+     * @param signatureVerified the signature was already checked and is not verified again
+     */
+    public static OperationResult execute(Token token,
+                                          boolean signatureVerified) {
+        return execute(token, signatureVerified, Cancellation.none());
+    }
+
+    private static OperationResult execute(Token token,
+                                           boolean signatureVerified,
+                                           Cancellation cancellation) {
+        try {
+            processToken(token, signatureVerified);
+        } catch (TokenProcessor.SignatureValidationFailException e) {
+            return OperationResult.failure(OperationResult.ExecutionStatus.UNAUTHORIZED, e.getMessage());
+        } catch (TokenProcessor.TokenUsedException e) {
+            return TokenLifecycleManager.findStoredResult(token)
+                    .orElseGet(() -> OperationResult.failure(OperationResult.ExecutionStatus.BAD_REQUEST,
+                            e.getMessage()));
+        } catch (Exception e) {
+            return OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR, e.getMessage());
+        }
+
+        Deadline deadline = Deadline.after(token.remainingLifetime());
+        OperationResult result;
+        try {
+            result = OperationProgram.isProgram(token.command())
+                    ? new ProgramOperation(OperationProgram.parse(token.command()),
+                    TokenExecutor::getExecutorForCommand).executeAsync(deadline, cancellation)
+                    .toCompletableFuture().join()
+                    : executeCommand(TokenProcessor.parseCommand(token.command()), deadline, cancellation);
+        } catch (IllegalArgumentException e) {
+            List<String> availableCommandsList = getAvailableCommandsList();
+            result = OperationResult.notFound("Unknown operation: [" +
+                    token.command() + "] " +
+                    availableCommandsList);
+        } catch (Exception e) {
+            result = OperationResult.failure(OperationResult.ExecutionStatus.INTERNAL_ERROR, e.getMessage());
+        }
+        TokenLifecycleManager.storeResult(token, result);
+        return result;
+    }
+
+    private static void processToken(Token token,
+                                     boolean signatureVerified) throws CommunicationException,
+            TokenProcessor.SignatureValidationFailException, TokenProcessor.TokenUsedException {
+        if (!new TokenProcessor().processToken(token, signatureVerified)) {
+            throw new CommunicationException();
+        }
+    }
+
+    private static OperationResult executeCommand(OperationRequest operationRequest,
+                                                  Deadline deadline,
+                                                  Cancellation cancellation) throws InterruptedException {
+        Operation executor = getExecutorForCommand(operationRequest);
+        return OperationScheduler.getInstance().execute(operationRequest, executor, deadline, cancellation);
+    }
+
+    private static List<String> getAvailableCommandsList() {
+        List<String> availableCommands = new ArrayList<>();
+        availableCommands.add("Available commands:");
+        availableCommands.add("PLESK:");
+        for (AvailableOperation.Plesk cmd : AvailableOperation.Plesk.values()) {
+            availableCommands.add("  PLESK." + cmd.name());
+        }
+
+        availableCommands.add("NS:");
+        for (AvailableOperation.DNS cmd : AvailableOperation.DNS.values()) {
+            availableCommands.add("  NS." + cmd.name());
+        }
+        return availableCommands;
+    }
+
+    private static Operation getExecutorForCommand(OperationRequest operationRequest) {
+        return switch (operationRequest.commandName()) {
+            case AvailableOperation.Plesk pleskCommand -> new PleskOperationFactory().build(operationRequest);
+            case AvailableOperation.DNS DNSCommand -> new DnsOperationFactory().build(operationRequest);
+        };
+    }
+}
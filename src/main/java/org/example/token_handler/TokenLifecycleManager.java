@@ -1,90 +1,290 @@
 package org.example.token_handler;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.example.config.constants.EnvironmentConstants;
+import org.example.config.core.AppConfiguration;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
+import org.example.operations.OperationResult;
+import org.example.token_handler.ledger.ClaimJournal;
+import org.example.token_handler.ledger.LedgerSegment;
+import org.example.token_handler.ledger.ResultLog;
+import org.example.token_handler.ledger.SignatureBloomFilter;
+import org.example.token_handler.ledger.UsedTokenLedger;
+import org.example.token_handler.ledger.UsedTokenRecord;
+import org.example.token_handler.ledger.UsedTokenRecordFile;
 import org.example.value_types.Token;
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 public class TokenLifecycleManager {
-    private static final Path STORAGE_DIR = Path.of("/tmp/" + EnvironmentConstants.APP_NAME + "/");
+    private static final Path LEGACY_STORAGE_DIR = Path.of("/tmp/" + EnvironmentConstants.APP_NAME + "/");
     private static final String STORAGE_FILENAME = "used_tokens.txt";
-    private static final Path FULLPATH = STORAGE_DIR.resolve(STORAGE_FILENAME);
-    private static final DateTimeFormatter TIMESTAMP_FORMAT =
-            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
-    static {
-        File directory = new File(String.valueOf(STORAGE_DIR));
-        if (!directory.exists()) {
-            directory.mkdirs();
-            getLogger().
-                    info("Created token storage directory: " + STORAGE_DIR);
-        }
-    }
-
-    public static boolean isTokenUsed(Token token) {
-        try (Stream<String> lines = Files.lines(FULLPATH)) {
-
-            return lines.anyMatch(line -> line.contains(token.signature()));
-        } catch (IOException e) {
-            getLogger().
-                    errorEntry().message("Storage file could not be read")
-                    .field("Path", FULLPATH.toString()).log();
-            return false;
-        }
-    }
+    private static final String LEGACY_INDEX_FILENAME = "used_tokens.idx";
+    private static final String RECORD_FILENAME = "used_tokens.rec";
+    private static final String MIGRATION_MARKER_FILENAME = "used_tokens.migrated";
+    private static final Path FULLPATH = LEGACY_STORAGE_DIR.resolve(STORAGE_FILENAME);
+    private static final Path LEGACY_INDEX_PATH = LEGACY_STORAGE_DIR.resolve(LEGACY_INDEX_FILENAME);
+    private static final Path LEGACY_RECORD_PATH = LEGACY_STORAGE_DIR.resolve(RECORD_FILENAME);
+    private static final Duration PENDING_RESULT_WAIT = Duration.ofSeconds(45);
+    private static final long PENDING_RESULT_POLL_MILLIS = 100;
+    private static final ObjectMapper RESULT_MAPPER = new ObjectMapper();
+    private static UsedTokenLedger ledger;
+    private static UsedTokenRecordFile recordFile;
 
     private static CliLogger getLogger() {
         return LogManager.getInstance().getLogger();
     }
 
-    public static void markTokenAsUsed(Token token) throws IOException {
+    /**
+     * Atomically checks that the token has not been used and marks it as used. Safe to call from concurrently
+     * running executor processes: exactly one caller claims a given token.
+     *
+     * @return {@code true} if the token was claimed by this call, {@code false} if it had already been used
+     */
+    public static boolean claimToken(Token token) throws IOException {
         try {
-            Files.createDirectories(STORAGE_DIR);
-
-
-            boolean fileExistsBefore = Files.exists(FULLPATH);
-            if (!fileExistsBefore) {
-                getLogger().
-                        infoEntry()
-                        .message("Token file created")
-                        .field("Path", FULLPATH.toString()).log();
-
+            boolean claimed = getLedger().claim(decodeSignature(token), token.expiry());
+            if (!claimed) {
+                return false;
             }
 
-            Files.write(
-                    FULLPATH,
-                    ("[" + LocalDateTime.now().format(TIMESTAMP_FORMAT) + "] " + token + "\n").getBytes(),
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.APPEND
-            );
-
+            if (AppConfiguration.getInstance().isUsedTokenAuditLogEnabled()) {
+                appendToAuditLog(token);
+            }
 
             getLogger().
                     infoEntry()
                     .message("Token was marked as used")
                     .field("Token", token.value())
                     .log();
+            return true;
 
         } catch (IOException e) {
             getLogger().
                     errorEntry()
                     .message("Failed to mark token as used")
                     .field("Token", token.value())
-                    .field("Path", FULLPATH.toString())
+                    .field("Path", getStorageDir().toString())
                     .exception(e)
                     .log();
             throw new IOException(e);
         }
     }
 
+    /**
+     * Stores the outcome of a claimed token so a retry of the same token gets it back instead of running the
+     * operation again. Kept for as long as the token's ledger segment.
+     */
+    public static void storeResult(Token token,
+                                   OperationResult result) {
+        try {
+            getLedger().storeResult(decodeSignature(token), token.expiry(),
+                    RESULT_MAPPER.writeValueAsBytes(result.toJsonNode()));
+        } catch (IOException e) {
+            getLogger().
+                    errorEntry()
+                    .message("Failed to store operation result")
+                    .field("Token", token.value())
+                    .exception(e)
+                    .log();
+        }
+    }
+
+    /**
+     * Looks up the outcome of an already used token. Waits while the claiming process is still executing it.
+     *
+     * @return the stored result marked as a replay, a conflict if the execution is still running, or an error if
+     * the claiming process died before storing a result; empty if nothing was recorded for the token
+     */
+    public static Optional<OperationResult> findStoredResult(Token token) {
+        long deadline = System.nanoTime() + PENDING_RESULT_WAIT.toNanos();
+        try {
+            while (true) {
+                Optional<ResultLog.Entry> entry = getLedger().findResult(decodeSignature(token), token.expiry());
+                if (entry.isEmpty()) {
+                    return Optional.empty();
+                }
+                if (entry.get().kind() == ResultLog.Kind.RESULT) {
+                    getLogger().
+                            infoEntry().message("Returning stored result for used token")
+                            .field("Token", token.value()).log();
+                    return Optional.of(OperationResult.fromJsonNode(RESULT_MAPPER.readTree(entry.get().payload()))
+                            .asReplay());
+                }
+                if (!entry.get().isOwnerAlive()) {
+                    return Optional.of(OperationResult.internalError(
+                            "Token execution was interrupted before completing; its outcome is unknown").asReplay());
+                }
+                if (System.nanoTime() > deadline) {
+                    return Optional.of(OperationResult.conflict("Token is still being executed"));
+                }
+                Thread.sleep(PENDING_RESULT_POLL_MILLIS);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            getLogger().
+                    errorEntry()
+                    .message("Failed to read stored operation result")
+                    .field("Token", token.value())
+                    .exception(e)
+                    .log();
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    private static void appendToAuditLog(Token token) throws IOException {
+        getRecordFile().append(new UsedTokenRecord(
+                decodeSignature(token),
+                token.expiry(),
+                token.timestamp(),
+                System.currentTimeMillis() / 1000,
+                UsedTokenRecord.hashCommand(token.command()),
+                token.nonce()));
+    }
+
+    private static synchronized UsedTokenRecordFile getRecordFile() throws IOException {
+        if (recordFile == null) {
+            Path recordPath = getRecordPath();
+            Files.createDirectories(recordPath.getParent());
+            if (!Files.exists(recordPath)) {
+                getLogger().
+                        infoEntry()
+                        .message("Used token record file created")
+                        .field("Path", recordPath.toString()).log();
+            }
+            recordFile = UsedTokenRecordFile.open(recordPath);
+        }
+        return recordFile;
+    }
+
+    public static Path getRecordPath() {
+        return getStorageDir().resolve(RECORD_FILENAME);
+    }
+
+    private static Path getStorageDir() {
+        return AppConfiguration.getInstance().getUsedTokenStoreDir();
+    }
+
+    private static synchronized UsedTokenLedger getLedger() throws IOException {
+        if (ledger == null) {
+            Path storageDir = getStorageDir();
+            if (!Files.isDirectory(storageDir)) {
+                Files.createDirectories(storageDir);
+                getLogger().
+                        infoEntry()
+                        .message("Created token storage directory")
+                        .field("Path", storageDir.toString()).log();
+            }
+            ledger = new UsedTokenLedger(storageDir, getBloomSizing(), getJournalOptions());
+            Path migrationMarker = storageDir.resolve(MIGRATION_MARKER_FILENAME);
+            if (!Files.exists(migrationMarker)) {
+                migrateLegacyStore(ledger, storageDir);
+                Files.createFile(migrationMarker);
+            }
+            ledger.purgeExpiredSegments();
+        }
+        return ledger;
+    }
+
+    /**
+     * Carries used tokens over from the earlier stores under {@code /tmp}: the text audit log and the ledger
+     * segments, so tokens used before the upgrade stay rejected.
+     */
+    private static void migrateLegacyStore(UsedTokenLedger target,
+                                           Path storageDir) throws IOException {
+        getLogger().
+                infoEntry()
+                .message("Migrating used tokens from legacy storage")
+                .field("From", LEGACY_STORAGE_DIR.toString())
+                .field("To", storageDir.toString()).log();
+        importAuditLog(target);
+        long imported = target.importSegmentsFrom(LEGACY_STORAGE_DIR);
+        getLogger().
+                infoEntry()
+                .message("Imported used tokens from legacy ledger segments")
+                .field("Count", imported).log();
+
+        Path recordPath = storageDir.resolve(RECORD_FILENAME);
+        if (Files.exists(LEGACY_RECORD_PATH) && !Files.exists(recordPath)) {
+            Files.copy(LEGACY_RECORD_PATH, recordPath);
+        }
+        Files.deleteIfExists(LEGACY_INDEX_PATH);
+    }
+
+    public static List<LedgerSegment.Stats> getLedgerStats() throws IOException {
+        return getLedger().stats();
+    }
+
+    private static SignatureBloomFilter.Sizing getBloomSizing() {
+        AppConfiguration config = AppConfiguration.getInstance();
+        try {
+            return new SignatureBloomFilter.Sizing(config.getUsedTokenBloomExpectedTokens(),
+                    config.getUsedTokenBloomFalsePositiveRate());
+        } catch (IllegalArgumentException e) {
+            getLogger().
+                    warnEntry().message("Invalid used token bloom filter sizing, using defaults")
+                    .field("Reason", e.getMessage()).log();
+            return SignatureBloomFilter.Sizing.DEFAULT;
+        }
+    }
+
+    private static ClaimJournal.Options getJournalOptions() {
+        AppConfiguration config = AppConfiguration.getInstance();
+        try {
+            return new ClaimJournal.Options(ClaimJournal.Durability.parse(config.getUsedTokenDurability()),
+                    Duration.ofMillis(config.getUsedTokenGroupCommitWindowMillis()));
+        } catch (IllegalArgumentException e) {
+            getLogger().
+                    warnEntry().message("Invalid used token durability settings, using group commit")
+                    .field("Reason", e.getMessage()).log();
+            return ClaimJournal.Options.DEFAULT;
+        }
+    }
+
+    private static void importAuditLog(UsedTokenLedger target) throws IOException {
+        if (!Files.exists(FULLPATH)) {
+            return;
+        }
+        long imported = 0;
+        long now = System.currentTimeMillis() / 1000;
+        try (Stream<String> lines = Files.lines(FULLPATH)) {
+            for (String line : (Iterable<String>) lines::iterator) {
+                String[] fields = line.substring(line.indexOf("] ") + 2).split("\\|");
+                try {
+                    long expiry = Long.parseLong(fields[2]);
+                    if (expiry >= now &&
+                            target.importClaim(Base64.getDecoder().decode(fields[fields.length - 1].trim()),
+                                    expiry)) {
+                        imported++;
+                    }
+                } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                    getLogger().
+                            warnEntry().message("Skipping malformed used token entry")
+                            .field("Line", line).log();
+                }
+            }
+        }
+        target.sync();
+        getLogger().
+                infoEntry()
+                .message("Imported unexpired used tokens into ledger")
+                .field("Count", imported)
+                .field("Path", FULLPATH.toString()).log();
+    }
+
+    private static byte[] decodeSignature(Token token) {
+        return token.signatureBytes();
+    }
+
 
 }
@@ -1,90 +1,146 @@
-package org.example.token_handler;
-
-import org.example.config.core.AppConfiguration;
-import org.example.logging.core.CliLogger;
-import org.example.logging.facade.LogManager;
-import org.example.value_types.Token;
-
-import java.nio.charset.StandardCharsets;
-import java.security.*;
-import java.util.Base64;
-
-public class TokenManager {
-    public static class TokenValidator {
-        public static boolean isValid(Token token) {
-
-            try {
-                if (token.isExpired()) {
-                    getLogger().
-                            debugEntry()
-                            .message("Token is expired")
-                            .field("Token", token.toString())
-                            .log();
-                    return false;
-                }
-
-                boolean signatureValid = isSignatureValid(token);
-                getLogger().
-                        debugEntry()
-                        .message("Token signature verification result")
-                        .field("Result", signatureValid ? "True" : "False")
-                        .field("Token", token.toString())
-                        .log();
-
-                return signatureValid;
-
-            } catch (Exception e) {
-                getLogger().
-                        error("Token validation failed", e);
-                return false;
-            }
-        }
-
-        private static CliLogger getLogger() {
-            return LogManager.getInstance().getLogger();
-        }
-
-        private static boolean isSignatureValid(Token token) throws Exception {
-            return verifyDigitalSignature(token.getMessage(), token.signature());
-        }
-
-        private static boolean verifyDigitalSignature(String message,
-                                                      String digitalSignature)
-                throws NoSuchAlgorithmException,
-                InvalidKeyException, SignatureException {
-
-            getLogger().
-                    debugEntry()
-                    .message("Starting signature verification")
-                    .field("SignedMessage", message)
-                    .field("SignatureBase64", digitalSignature)
-                    .log();
-
-            byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
-            byte[] signatureBytes = Base64.getDecoder().decode(digitalSignature);
-
-            if (signatureBytes.length != 64) {
-                getLogger().
-                        warn("Invalid signature length: " + signatureBytes.length);
-                throw new IllegalArgumentException("Invalid signature length: " + signatureBytes.length);
-            }
-
-
-            PublicKey publicKey = AppConfiguration.getInstance().getPublicKey();
-
-            Signature signature = Signature.getInstance("Ed25519");
-            signature.initVerify(publicKey);
-            signature.update(messageBytes);
-
-            boolean valid = signature.verify(signatureBytes);
-
-            getLogger().
-                    debugEntry()
-                    .message("Signature verification completed")
-                    .field("Result", valid ? "True" : "False")
-                    .log();
-
-            return valid;
-        }
-    }
-}
+package org.example.token_handler;
+
+import org.example.config.core.AppConfiguration;
+import org.example.config.key_ed25519.Ed25519BatchVerifier;
+import org.example.config.key_ed25519.Ed25519Verifier;
+import org.example.config.key_ed25519.Keyring;
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+import org.example.value_types.Token;
+
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class TokenManager {
+    public static class TokenValidator {
+        public static boolean isValid(Token token) {
+
+            try {
+                if (token.isExpired()) {
+                    getLogger().
+                            debugEntry()
+                            .message("Token is expired")
+                            .field("Token", token.toString())
+                            .log();
+                    return false;
+                }
+
+                boolean signatureValid = isSignatureValid(token);
+                getLogger().
+                        debugEntry()
+                        .message("Token signature verification result")
+                        .field("Result", signatureValid ? "True" : "False")
+                        .field("Token", token.toString())
+                        .log();
+
+                return signatureValid;
+
+            } catch (Exception e) {
+                getLogger().
+                        error("Token validation failed", e);
+                return false;
+            }
+        }
+
+        /**
+         * Validates many tokens with one batch signature verification. Tokens whose key cannot be resolved to a
+         * single keyring entry are validated on their own with {@link #isValid(Token)}, and so are all tokens unless
+         * the builtin verifier is configured.
+         *
+         * @return per token, whether it is unexpired and correctly signed
+         */
+        public static boolean[] areValid(List<Token> tokens) {
+            boolean[] results = new boolean[tokens.size()];
+            if (AppConfiguration.getInstance().getVerifierProvider() != Ed25519Verifier.Provider.BUILTIN) {
+                for (int i = 0; i < tokens.size(); i++) {
+                    results[i] = isValid(tokens.get(i));
+                }
+                return results;
+            }
+            Keyring keyring = AppConfiguration.getInstance().getKeyring();
+            long now = System.currentTimeMillis() / 1000;
+            List<Ed25519BatchVerifier.Item> items = new ArrayList<>(tokens.size());
+            List<Integer> positions = new ArrayList<>(tokens.size());
+            for (int i = 0; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (token.isExpired()) {
+                    continue;
+                }
+                Optional<Ed25519Verifier> key = keyring.resolve(token.kid(), now);
+                if (key.isEmpty()) {
+                    results[i] = isValid(token);
+                    continue;
+                }
+                byte[] signature;
+                try {
+                    signature = token.signatureBytes();
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                items.add(new Ed25519BatchVerifier.Item(key.get(), token.messageBytes(), signature));
+                positions.add(i);
+            }
+
+            boolean[] verified = Ed25519BatchVerifier.verify(items);
+            for (int j = 0; j < verified.length; j++) {
+                results[positions.get(j)] = verified[j];
+            }
+            getLogger().
+                    debugEntry()
+                    .message("Batch token verification completed")
+                    .field("Tokens", tokens.size())
+                    .field("Batched", items.size())
+                    .log();
+            return results;
+        }
+
+        private static CliLogger getLogger() {
+            return LogManager.getInstance().getLogger();
+        }
+
+        private static boolean isSignatureValid(Token token) throws Exception {
+            return verifyDigitalSignature(token);
+        }
+
+        private static boolean verifyDigitalSignature(Token token) throws SignatureException {
+            String kid = token.kid();
+            getLogger().
+                    debugEntry()
+                    .message("Starting signature verification")
+                    .field("SignedMessage", token.getMessage())
+                    .field("SignatureBase64", token.signature())
+                    .field("KeyId", kid == null ? "-" : kid)
+                    .log();
+
+            byte[] messageBytes = token.messageBytes();
+            byte[] signatureBytes = token.signatureBytes();
+
+            if (signatureBytes.length != 64) {
+                getLogger().
+                        warn("Invalid signature length: " + signatureBytes.length);
+                throw new IllegalArgumentException("Invalid signature length: " + signatureBytes.length);
+            }
+
+
+            Keyring keyring = AppConfiguration.getInstance().getKeyring();
+            if (kid != null && keyring.find(kid).isEmpty()) {
+                getLogger().
+                        warnEntry()
+                        .message("Token names a key id that is not in the keyring")
+                        .field("KeyId", kid)
+                        .log();
+            }
+            boolean valid = keyring.verify(kid, messageBytes, signatureBytes, System.currentTimeMillis() / 1000);
+
+            getLogger().
+                    debugEntry()
+                    .message("Signature verification completed")
+                    .field("Result", valid ? "True" : "False")
+                    .log();
+
+            return valid;
+        }
+    }
+}
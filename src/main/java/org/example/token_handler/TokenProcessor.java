@@ -1,6 +1,7 @@
 package org.example.token_handler;
 
 import org.example.config.core.AppConfiguration;
+import org.example.config.key_ed25519.KeyRefetchGuard;
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
 import org.example.operations.AvailableOperation;
@@ -9,29 +10,43 @@ import org.example.value_types.Token;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.Optional;
 
 
 public class TokenProcessor {
 
-    public Optional<OperationRequest> processToken(Token token) throws SignatureValidationFailException, TokenUsedException {
+    public boolean processToken(Token token) throws SignatureValidationFailException, TokenUsedException {
+        return processToken(token, false);
+    }
+
+    /**
+     * Verifies and claims the token. Its operation string is not interpreted here, since it may hold a program; see
+     * {@link #parseCommand(String)} for a single operation.
+     *
+     * @param signatureVerified the signature was already checked, e.g. by
+     *                          {@link TokenManager.TokenValidator#areValid}, and is not verified again
+     * @return whether the token was claimed, {@code false} if the used-token ledger could not be written
+     */
+    public boolean processToken(Token token,
+                                boolean signatureVerified) throws SignatureValidationFailException,
+            TokenUsedException {
         getLogger().
                 infoEntry().message("Processing command token").field("Token", token.value()).log();
-        Optional<OperationRequest> command = Optional.empty();
 
-        if (!TokenManager.TokenValidator.isValid(token)) {
+        if (!signatureVerified && !TokenManager.TokenValidator.isValid(token)) {
             getLogger().
                     warnEntry().message("Token validation failed").field("Token", token.value())
-                    .field("Key", AppConfiguration.getInstance().getPublicKey()).log();
+                    .field("Keys", AppConfiguration.getInstance().getKeyring().describe()).log();
             getLogger().
                     infoEntry().message("Refetching public key").log();
-            AppConfiguration.getInstance().refetchPublicKey();
+            KeyRefetchGuard.RefetchOutcome refetch = AppConfiguration.getInstance().refetchPublicKey();
 
-            if (!TokenManager.TokenValidator.isValid(token)) {
+            if (refetch != KeyRefetchGuard.RefetchOutcome.REFRESHED || !TokenManager.TokenValidator.isValid(token)) {
                 getLogger().
                         warnEntry().message("Token validation failed after refetching public key.")
-                        .field("Token", token.value()).field("Key", AppConfiguration.getInstance().getPublicKey())
+                        .field("Token", token.value()).field("Refetch", refetch)
+                        .field("Keys", AppConfiguration.getInstance().getKeyring().describe())
                         .log();
+                TokenAdmission.record(TokenAdmission.Stage.SIGNATURE);
                 throw new SignatureValidationFailException();
             }
         }
@@ -39,18 +54,9 @@ public class TokenProcessor {
         getLogger().
                 debugEntry().message("Token signature validated successfully").field("Token", token.value()).log();
 
-        boolean tokenUsed = TokenLifecycleManager.isTokenUsed(token);
-        if (tokenUsed) {
-            getLogger().
-                    warnEntry().message("Token has already been used").field("Token", token.value()).log();
-            throw new TokenUsedException();
-        }
-
-        getLogger().
-                debugEntry().message("Token is not used yet").field("Token", token.value()).log();
-
+        boolean claimed;
         try {
-            TokenLifecycleManager.markTokenAsUsed(token);
+            claimed = TokenLifecycleManager.claimToken(token);
         } catch (IOException e) {
             getLogger().
                     errorEntry()
@@ -58,13 +64,21 @@ public class TokenProcessor {
                     .field("Token", token.value())
                     .exception(e)
                     .log();
-            return command;
+            return false;
+        }
+
+        if (!claimed) {
+            getLogger().
+                    warnEntry().message("Token has already been used").field("Token", token.value()).log();
+            TokenAdmission.record(TokenAdmission.Stage.REPLAY);
+            throw new TokenUsedException();
         }
 
         getLogger().
                 debugEntry().message("Token processed successfully").field("Command", token.command()).log();
+        TokenAdmission.record(TokenAdmission.Stage.ADMITTED);
 
-        return Optional.of(parseCommand(token.command()));
+        return true;
     }
 
     private static CliLogger getLogger() {
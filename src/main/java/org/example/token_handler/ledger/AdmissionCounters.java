@@ -0,0 +1,92 @@
+package org.example.token_handler.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped array of counters shared by all executor processes, used to count token admission outcomes.
+ * <p>
+ * Each counter is a 64-bit word incremented with an atomic add on the shared mapping, so counting costs no system
+ * call and no lock, and concurrent processes never lose increments. Counters are addressed by a fixed slot number;
+ * slots are never reused for a different meaning, so files written by older versions stay readable.
+ */
+public class AdmissionCounters implements Closeable {
+    public static final int SLOTS = 32;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x41444d43; // "ADMC"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOTS_OFFSET = 8;
+    private static final long FILE_SIZE = HEADER_SIZE + (long) SLOTS * Long.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private AdmissionCounters(FileChannel channel,
+                              MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    public static AdmissionCounters open(Path path) throws IOException {
+        LedgerFiles.createIfAbsent(path, AdmissionCounters::initialize);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < FILE_SIZE) {
+                throw new IOException("Admission counters are truncated: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(MAGIC_OFFSET) != MAGIC || buffer.getInt(VERSION_OFFSET) != VERSION ||
+                    buffer.getInt(SLOTS_OFFSET) != SLOTS) {
+                throw new IOException("Not an admission counter file or unsupported version: " + path);
+            }
+            return new AdmissionCounters(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void initialize(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, FILE_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(SLOTS_OFFSET, SLOTS);
+            header.force();
+        }
+    }
+
+    public void increment(int slot) {
+        LONGS.getAndAdd(buffer, offset(slot), 1L);
+    }
+
+    public long get(int slot) {
+        return (long) LONGS.getAcquire(buffer, offset(slot));
+    }
+
+    private static int offset(int slot) {
+        if (slot < 0 || slot >= SLOTS) {
+            throw new IllegalArgumentException("Counter slot out of range: " + slot);
+        }
+        return HEADER_SIZE + slot * Long.BYTES;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,352 @@
+package org.example.token_handler.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of claimed signatures for one ledger segment.
+ * <p>
+ * The memory-mapped index and Bloom filter only live in the page cache, which survives a crashed process but not a
+ * reboot or power loss. Every claim is therefore appended here before it is inserted into the index, and made
+ * durable according to {@link Durability} before the caller may execute the token. The header records the boot the
+ * segment was last recovered in; the first process to open the segment after a reboot truncates a torn tail and
+ * replays the journal into the index and filter.
+ * <p>
+ * In {@link Durability#GROUP_COMMIT} mode one process at a time becomes the sync leader: it waits for the commit
+ * window so that concurrent claims, from any process, can append, then issues a single {@code fsync} and publishes
+ * the durable length in the shared header. The other claimers only wait for that length to cover their entry.
+ */
+public class ClaimJournal implements Closeable {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x434a4e4c; // "CJNL"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int DURABLE_LENGTH_OFFSET = 8;
+    private static final int BOOT_ID_OFFSET = 16;
+    private static final int BOOT_ID_LENGTH = 16;
+    private static final int ENTRY_SIZE = 72;
+    private static final int CHECKSUM_OFFSET = SignatureIndex.SIGNATURE_LENGTH;
+    private static final long SYNC_LOCK_POSITION = 0;
+    private static final long RECOVERY_LOCK_POSITION = 1;
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final byte[] CURRENT_BOOT_ID = readBootId();
+
+    private final Path path;
+    private final Options options;
+    private final FileChannel appendChannel;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private ClaimJournal(Path path,
+                         Options options,
+                         FileChannel appendChannel,
+                         FileChannel channel,
+                         MappedByteBuffer header) {
+        this.path = path;
+        this.options = options;
+        this.appendChannel = appendChannel;
+        this.channel = channel;
+        this.header = header;
+    }
+
+    public static ClaimJournal open(Path path,
+                                    Options options) throws IOException {
+        boolean created = !Files.exists(path);
+        LedgerFiles.createIfAbsent(path, ClaimJournal::initialize);
+        if (created && options.durability() != Durability.NONE) {
+            LedgerFiles.syncDirectory(path.getParent());
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Claim journal is truncated: " + path);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a claim journal or unsupported version: " + path);
+            }
+            return new ClaimJournal(path, options,
+                    FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND), channel, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void initialize(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC_OFFSET, MAGIC);
+            buffer.putInt(VERSION_OFFSET, VERSION);
+            buffer.putLong(DURABLE_LENGTH_OFFSET, HEADER_SIZE);
+            buffer.put(BOOT_ID_OFFSET, CURRENT_BOOT_ID);
+            while (buffer.hasRemaining()) {
+                ch.write(buffer);
+            }
+            ch.force(true);
+        }
+    }
+
+    /**
+     * Appends a claimed signature. Must be called while the signature's index stripe is locked and before the
+     * signature is inserted, so the index never holds a claim the journal lacks.
+     */
+    public void append(byte[] signature) throws IOException {
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        entry.put(0, signature);
+        entry.putInt(CHECKSUM_OFFSET, checksum(signature));
+        appendLock.lock();
+        try {
+            while (entry.hasRemaining()) {
+                appendChannel.write(entry);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until every entry appended before this call is durable under the configured mode.
+     */
+    public void sync() throws IOException {
+        switch (options.durability()) {
+            case NONE -> {
+            }
+            case PER_CLAIM -> appendChannel.force(false);
+            case GROUP_COMMIT -> groupCommit(channel.size());
+        }
+    }
+
+    private void groupCommit(long target) throws IOException {
+        long backoff = MIN_BACKOFF_NANOS;
+        while (durableLength() < target) {
+            if (syncLock.tryLock()) {
+                try {
+                    FileLock leader = channel.tryLock(SYNC_LOCK_POSITION, 1, false);
+                    if (leader != null) {
+                        try {
+                            if (durableLength() < target) {
+                                LockSupport.parkNanos(options.groupCommitWindow().toNanos());
+                                long length = channel.size();
+                                channel.force(false);
+                                publishDurableLength(length);
+                            }
+                            return;
+                        } finally {
+                            leader.release();
+                        }
+                    }
+                } finally {
+                    syncLock.unlock();
+                }
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    private long durableLength() {
+        return (long) LONGS.getAcquire(header, DURABLE_LENGTH_OFFSET);
+    }
+
+    private void publishDurableLength(long length) {
+        long current = durableLength();
+        while (current < length) {
+            long witness = (long) LONGS.compareAndExchangeRelease(header, DURABLE_LENGTH_OFFSET, current, length);
+            if (witness == current) {
+                return;
+            }
+            current = witness;
+        }
+    }
+
+    /**
+     * Replays the journal into {@code target} if the segment has not been recovered since the last boot. Runs once
+     * per boot across all processes; a torn or unchecksummed tail is cut off first so later appends stay contiguous.
+     *
+     * @return number of replayed entries, or {@code -1} if no recovery was needed
+     */
+    public int recoverIfNeeded(Replay target) throws IOException {
+        if (isRecoveredInCurrentBoot()) {
+            return -1;
+        }
+        syncLock.lock();
+        try (FileLock ignored = pollLock(RECOVERY_LOCK_POSITION)) {
+            if (isRecoveredInCurrentBoot()) {
+                return -1;
+            }
+            List<byte[]> signatures = new ArrayList<>();
+            long validLength = readValidEntries(signatures);
+            if (validLength < channel.size()) {
+                channel.truncate(validLength);
+            }
+            channel.force(true);
+            target.replay(signatures);
+            header.putLong(DURABLE_LENGTH_OFFSET, validLength);
+            header.put(BOOT_ID_OFFSET, CURRENT_BOOT_ID);
+            header.force();
+            return signatures.size();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Reads every complete, checksummed entry without changing the file. The caller must keep claims from appending,
+     * e.g. by holding all stripe locks of the segment's index.
+     */
+    List<byte[]> readEntries() throws IOException {
+        List<byte[]> signatures = new ArrayList<>();
+        readValidEntries(signatures);
+        return signatures;
+    }
+
+    private boolean isRecoveredInCurrentBoot() {
+        byte[] bootId = new byte[BOOT_ID_LENGTH];
+        header.get(BOOT_ID_OFFSET, bootId);
+        return Arrays.equals(bootId, CURRENT_BOOT_ID);
+    }
+
+    private long readValidEntries(List<byte[]> signatures) throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        while (position + ENTRY_SIZE <= size) {
+            entry.clear();
+            while (entry.hasRemaining()) {
+                if (channel.read(entry, position + entry.position()) < 0) {
+                    break;
+                }
+            }
+            byte[] signature = new byte[SignatureIndex.SIGNATURE_LENGTH];
+            entry.get(0, signature);
+            if (entry.hasRemaining() || entry.getInt(CHECKSUM_OFFSET) != checksum(signature)) {
+                break;
+            }
+            signatures.add(signature);
+            position += ENTRY_SIZE;
+        }
+        return position;
+    }
+
+    private FileLock pollLock(long position) throws IOException {
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+            FileLock lock = channel.tryLock(position, 1, false);
+            if (lock != null) {
+                return lock;
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    private static int checksum(byte[] signature) {
+        CRC32C crc = new CRC32C();
+        crc.update(signature);
+        // An all-zero entry, as left by a torn append, must never look valid.
+        return (int) crc.getValue() ^ 0x5a5a5a5a;
+    }
+
+    /**
+     * Identifies the current boot so page-cache-only state from before a reboot can be told apart. Uses the kernel
+     * boot id, or the start time of PID 1 where that is unavailable.
+     */
+    private static byte[] readBootId() {
+        String bootId;
+        try {
+            bootId = Files.readString(Path.of("/proc/sys/kernel/random/boot_id")).trim();
+        } catch (IOException | RuntimeException e) {
+            bootId = ProcessHandle.of(1)
+                    .flatMap(init -> init.info().startInstant())
+                    .map(Object::toString)
+                    .orElse("unknown");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bootId.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest, BOOT_ID_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            appendChannel.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    public enum Durability {
+        /**
+         * Leave flushing to the kernel. A reboot may lose recent claims.
+         */
+        NONE,
+        /**
+         * {@code fsync} after every claim.
+         */
+        PER_CLAIM,
+        /**
+         * Batch the {@code fsync}s of claims that arrive within the commit window, across processes.
+         */
+        GROUP_COMMIT;
+
+        public static Durability parse(String value) {
+            return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public record Options(Durability durability, Duration groupCommitWindow) {
+        public static final Options DEFAULT = new Options(Durability.GROUP_COMMIT, Duration.ofMillis(2));
+
+        public Options {
+            if (durability == null) {
+                throw new IllegalArgumentException("Durability mode cannot be null");
+            }
+            if (groupCommitWindow == null || groupCommitWindow.isNegative()) {
+                throw new IllegalArgumentException("Group commit window must not be negative");
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Replay {
+        void replay(List<byte[]> signatures) throws IOException;
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.token_handler.ledger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+final class LedgerFiles {
+    private LedgerFiles() {
+    }
+
+    /**
+     * Creates {@code path} fully initialised, or leaves it alone if another process got there first. The file is
+     * built under a temporary name and published with a hard link, which fails atomically if the target exists,
+     * so readers never observe a half-written header.
+     */
+    static void createIfAbsent(Path path,
+                               Initializer initializer) throws IOException {
+        if (Files.exists(path) && Files.size(path) > 0) {
+            return;
+        }
+        Path tmp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            initializer.initialize(tmp);
+            Files.createLink(path, tmp);
+        } catch (FileAlreadyExistsException e) {
+            // Another process created the file first.
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Makes newly created or renamed entries of {@code directory} survive a power loss.
+     */
+    static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    @FunctionalInterface
+    interface Initializer {
+        void initialize(Path file) throws IOException;
+    }
+}
@@ -0,0 +1,241 @@
+package org.example.token_handler.ledger;
+
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One time bucket of the used-token ledger: the exact {@link SignatureIndex}, its Bloom filter sidecar, the
+ * {@link ClaimJournal} both are rebuilt from after a reboot, and the {@link ResultLog} of the claimed tokens'
+ * execution outcomes.
+ */
+public class LedgerSegment implements Closeable {
+    private static final String BLOOM_SUFFIX = ".bloom";
+    private static final String JOURNAL_SUFFIX = ".jnl";
+    private static final String RESULTS_SUFFIX = ".res";
+    private final long bucket;
+    private final SignatureIndex index;
+    private final SignatureBloomFilter bloom;
+    private final ClaimJournal journal;
+    private final Path resultsPath;
+    private final boolean syncResults;
+    private ResultLog results;
+
+    private LedgerSegment(long bucket,
+                          SignatureIndex index,
+                          SignatureBloomFilter bloom,
+                          ClaimJournal journal,
+                          Path resultsPath,
+                          boolean syncResults) {
+        this.bucket = bucket;
+        this.index = index;
+        this.bloom = bloom;
+        this.journal = journal;
+        this.resultsPath = resultsPath;
+        this.syncResults = syncResults;
+    }
+
+    static LedgerSegment open(long bucket,
+                              Path indexPath,
+                              SignatureBloomFilter.Sizing sizing,
+                              ClaimJournal.Options journalOptions) throws IOException {
+        List<Closeable> opened = new ArrayList<>();
+        try {
+            ClaimJournal journal = track(opened, ClaimJournal.open(journalPath(indexPath), journalOptions));
+            boolean bloomExisted = Files.exists(bloomPath(indexPath));
+            SignatureBloomFilter bloom = track(opened, SignatureBloomFilter.open(bloomPath(indexPath), sizing));
+            SignatureIndex index;
+            boolean rebuilt = false;
+            try {
+                index = track(opened, SignatureIndex.open(indexPath));
+            } catch (IOException e) {
+                // The journal holds every claim, whether or not the segment was already recovered in this boot.
+                getLogger().warnEntry()
+                        .message("Rebuilding unreadable used-token index from its journal")
+                        .field("Path", indexPath)
+                        .exception(e)
+                        .log();
+                index = track(opened, SignatureIndex.rebuild(indexPath, journal::readEntries));
+                rebuilt = true;
+            }
+            LedgerSegment segment = new LedgerSegment(bucket, index, bloom, journal, resultsPath(indexPath),
+                    journalOptions.durability() != ClaimJournal.Durability.NONE);
+            int replayed = journal.recoverIfNeeded(segment::replay);
+            if (replayed >= 0 || rebuilt || !bloomExisted) {
+                // Claims skip the index when the filter rules a signature out, so every indexed signature must be in
+                // the filter, also after a lost filter file or index pages that survived a crash the filter's did not.
+                segment.addIndexToBloom();
+            }
+            if (replayed >= 0) {
+                getLogger().debugEntry()
+                        .message("Recovered used-token segment from journal")
+                        .field("Path", indexPath)
+                        .field("Entries", replayed)
+                        .log();
+            }
+            return segment;
+        } catch (IOException | RuntimeException e) {
+            for (Closeable closeable : opened) {
+                closeable.close();
+            }
+            throw e;
+        }
+    }
+
+    private static <T extends Closeable> T track(List<Closeable> opened,
+                                                 T closeable) {
+        opened.add(0, closeable);
+        return closeable;
+    }
+
+    static List<Path> files(Path indexPath) {
+        return List.of(indexPath, SignatureIndex.lockPath(indexPath), bloomPath(indexPath), journalPath(indexPath),
+                resultsPath(indexPath));
+    }
+
+    static boolean exists(Path indexPath) {
+        return Files.exists(indexPath) || Files.exists(journalPath(indexPath));
+    }
+
+    private static Path bloomPath(Path indexPath) {
+        return indexPath.resolveSibling(indexPath.getFileName() + BLOOM_SUFFIX);
+    }
+
+    private static Path journalPath(Path indexPath) {
+        return indexPath.resolveSibling(indexPath.getFileName() + JOURNAL_SUFFIX);
+    }
+
+    private static Path resultsPath(Path indexPath) {
+        return indexPath.resolveSibling(indexPath.getFileName() + RESULTS_SUFFIX);
+    }
+
+    private void replay(List<byte[]> signatures) throws IOException {
+        index.recountStripes();
+        for (byte[] signature : signatures) {
+            if (!bloom.mightContain(signature)) {
+                bloom.add(signature);
+            }
+            index.claim(signature);
+        }
+    }
+
+    private void addIndexToBloom() throws IOException {
+        index.forEach(signature -> {
+            if (!bloom.mightContain(signature)) {
+                bloom.add(signature);
+            }
+        });
+    }
+
+    /**
+     * Answers "definitely unused" from the Bloom filter alone; only probable hits read the index.
+     */
+    boolean contains(byte[] signature) throws IOException {
+        return bloom.mightContain(signature) && index.contains(signature);
+    }
+
+    /**
+     * Claims the signature for execution by this process. The pending entry is written under the stripe lock before
+     * the signature becomes visible, so a retry that finds the token used always finds the entry as well.
+     */
+    boolean claim(byte[] signature) throws IOException {
+        boolean claimed = claim(signature, true);
+        if (claimed) {
+            journal.sync();
+        }
+        return claimed;
+    }
+
+    /**
+     * Claims without a pending entry or waiting for the journal, for imports.
+     */
+    boolean claimWithoutSync(byte[] signature) throws IOException {
+        return claim(signature, false);
+    }
+
+    /**
+     * A signature the filter has definitely never seen is inserted without probing the index for it, which is the
+     * case for almost every fresh token.
+     */
+    private boolean claim(byte[] signature,
+                          boolean pending) throws IOException {
+        return index.claim(signature, bloom::mightContain, () -> {
+            // The filter is updated before the index so neither a lookup nor a later claim misses a signature the
+            // index already holds.
+            bloom.add(signature);
+            journal.append(signature);
+            if (pending) {
+                recordPending(signature);
+            }
+        });
+    }
+
+    /**
+     * A failure only costs retries the wait for the result, so it does not fail the claim.
+     */
+    private void recordPending(byte[] signature) {
+        try {
+            results().appendPending(signature);
+        } catch (IOException e) {
+            getLogger().warnEntry()
+                    .message("Failed to record token execution start")
+                    .exception(e)
+                    .log();
+        }
+    }
+
+    void sync() throws IOException {
+        journal.sync();
+    }
+
+    void storeResult(byte[] signature,
+                     byte[] result) throws IOException {
+        results().appendResult(signature, result);
+    }
+
+    Optional<ResultLog.Entry> findResult(byte[] signature) throws IOException {
+        if (results == null && !Files.exists(resultsPath)) {
+            return Optional.empty();
+        }
+        return results().find(signature);
+    }
+
+    private synchronized ResultLog results() throws IOException {
+        if (results == null) {
+            results = ResultLog.open(resultsPath, syncResults);
+        }
+        return results;
+    }
+
+    Stats stats(long spanSeconds) throws IOException {
+        return new Stats(bucket, bucket + spanSeconds, index.size(), index.capacity(), bloom.stats());
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (journal; bloom) {
+            index.close();
+        } finally {
+            synchronized (this) {
+                if (results != null) {
+                    results.close();
+                }
+            }
+        }
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    public record Stats(long bucketStart, long bucketEnd, long tokens, int capacity,
+                        SignatureBloomFilter.Stats bloom) {
+    }
+}
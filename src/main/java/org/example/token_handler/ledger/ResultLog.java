@@ -0,0 +1,207 @@
+package org.example.token_handler.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of execution outcomes for claimed tokens, kept next to a ledger segment and purged with it.
+ * <p>
+ * When a token is claimed a {@link Kind#PENDING} entry names the claiming process; once the operation finishes a
+ * {@link Kind#RESULT} entry holds its serialized result. Entries are a fixed {@value #ENTRY_HEADER_SIZE}-byte
+ * header (signature, kind, payload length, owner pid, owner start time, checksum) followed by the payload, and are
+ * appended under a file lock so entries of concurrent processes never interleave. A lookup scans the log and keeps
+ * the last entry for the signature; claims are unique, so a signature has at most one entry of each kind.
+ */
+public class ResultLog implements Closeable {
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x55524553; // "URES"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int ENTRY_HEADER_SIZE = 96;
+    private static final int KIND_OFFSET = 64;
+    private static final int LENGTH_OFFSET = 68;
+    private static final int PID_OFFSET = 72;
+    private static final int STARTED_AT_OFFSET = 80;
+    private static final int CHECKSUM_OFFSET = 88;
+    private static final int MAX_PAYLOAD_LENGTH = 16 * 1024 * 1024;
+    private static final long APPEND_LOCK_POSITION = 0;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final boolean sync;
+
+    private ResultLog(Path path,
+                      FileChannel channel,
+                      boolean sync) {
+        this.path = path;
+        this.channel = channel;
+        this.sync = sync;
+    }
+
+    /**
+     * @param sync whether every append is forced to disk
+     */
+    public static ResultLog open(Path path,
+                                 boolean sync) throws IOException {
+        LedgerFiles.createIfAbsent(path, ResultLog::initialize);
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            if (reader.read(header, 0) < HEADER_SIZE ||
+                    header.getInt(MAGIC_OFFSET) != MAGIC ||
+                    header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a result log or unsupported version: " + path);
+            }
+        }
+        return new ResultLog(path, FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE),
+                sync);
+    }
+
+    private static void initialize(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            while (header.hasRemaining()) {
+                ch.write(header);
+            }
+            ch.force(true);
+        }
+    }
+
+    public void appendPending(byte[] signature) throws IOException {
+        append(signature, Kind.PENDING, new byte[0]);
+    }
+
+    public void appendResult(byte[] signature,
+                             byte[] result) throws IOException {
+        append(signature, Kind.RESULT, result);
+    }
+
+    private void append(byte[] signature,
+                        Kind kind,
+                        byte[] payload) throws IOException {
+        if (payload.length > MAX_PAYLOAD_LENGTH) {
+            throw new IOException("Result is too large to store: " + payload.length + " bytes");
+        }
+        ProcessHandle self = ProcessHandle.current();
+        ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER_SIZE + payload.length).order(ByteOrder.LITTLE_ENDIAN);
+        entry.put(0, signature);
+        entry.putInt(KIND_OFFSET, kind.ordinal());
+        entry.putInt(LENGTH_OFFSET, payload.length);
+        entry.putLong(PID_OFFSET, self.pid());
+        entry.putLong(STARTED_AT_OFFSET, startedAt(self));
+        entry.put(ENTRY_HEADER_SIZE, payload);
+        entry.putInt(CHECKSUM_OFFSET, checksum(entry));
+
+        synchronized (this) {
+            // Only one thread per process waits on the file lock, so blocking cannot report a false deadlock.
+            try (FileLock ignored = channel.lock(APPEND_LOCK_POSITION, 1, false)) {
+                long position = channel.size();
+                while (entry.hasRemaining()) {
+                    position += channel.write(entry, position);
+                }
+            }
+            if (sync) {
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * @return the latest entry for the signature, if any
+     */
+    public Optional<Entry> find(byte[] signature) throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        ByteBuffer header = ByteBuffer.allocate(ENTRY_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] entrySignature = new byte[SignatureIndex.SIGNATURE_LENGTH];
+        Entry found = null;
+        while (position + ENTRY_HEADER_SIZE <= size) {
+            header.clear();
+            if (!readFully(header, position)) {
+                break;
+            }
+            int length = header.getInt(LENGTH_OFFSET);
+            int kind = header.getInt(KIND_OFFSET);
+            if (length < 0 || length > MAX_PAYLOAD_LENGTH || kind < 0 || kind >= Kind.values().length ||
+                    position + ENTRY_HEADER_SIZE + length > size) {
+                break;
+            }
+            header.get(0, entrySignature);
+            if (Arrays.equals(entrySignature, signature)) {
+                ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER_SIZE + length).order(ByteOrder.LITTLE_ENDIAN);
+                if (!readFully(entry, position) || entry.getInt(CHECKSUM_OFFSET) != checksum(entry)) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                entry.get(ENTRY_HEADER_SIZE, payload);
+                found = new Entry(Kind.values()[kind],
+                        header.getLong(PID_OFFSET),
+                        header.getLong(STARTED_AT_OFFSET),
+                        payload);
+            }
+            position += ENTRY_HEADER_SIZE + length;
+        }
+        return Optional.ofNullable(found);
+    }
+
+    private boolean readFully(ByteBuffer buffer,
+                              long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int checksum(ByteBuffer entry) {
+        CRC32C crc = new CRC32C();
+        crc.update(entry.slice(0, CHECKSUM_OFFSET));
+        crc.update(entry.slice(ENTRY_HEADER_SIZE, entry.capacity() - ENTRY_HEADER_SIZE));
+        return (int) crc.getValue();
+    }
+
+    private static long startedAt(ProcessHandle process) {
+        return process.info().startInstant().map(Instant::toEpochMilli).orElse(0L);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public enum Kind {
+        PENDING,
+        RESULT
+    }
+
+    public record Entry(Kind kind, long ownerPid, long ownerStartedAt, byte[] payload) {
+        /**
+         * Whether the process that wrote this entry is still running. Pid reuse is ruled out by its start time.
+         */
+        public boolean isOwnerAlive() {
+            return ProcessHandle.of(ownerPid)
+                    .filter(ProcessHandle::isAlive)
+                    .map(ResultLog::startedAt)
+                    .filter(started -> started == ownerStartedAt)
+                    .isPresent();
+        }
+    }
+}
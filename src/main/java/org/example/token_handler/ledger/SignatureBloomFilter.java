@@ -0,0 +1,194 @@
+package org.example.token_handler.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persistent, memory-mapped Bloom filter placed in front of a {@link SignatureIndex}.
+ * <p>
+ * Bits are set with atomic {@code OR}s on the shared mapping, so concurrent executor processes never lose each
+ * other's updates and the filter never produces a false negative. The bit count and number of hash functions are
+ * fixed in the file header when the filter is created from a {@link Sizing}.
+ */
+public class SignatureBloomFilter implements Closeable {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x53424c4d; // "SBLM"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int HASHES_OFFSET = 8;
+    private static final int BITS_OFFSET = 16;
+    private static final int INSERTIONS_OFFSET = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long bits;
+    private final int hashes;
+
+    private SignatureBloomFilter(FileChannel channel,
+                                 MappedByteBuffer buffer,
+                                 long bits,
+                                 int hashes) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.bits = bits;
+        this.hashes = hashes;
+    }
+
+    public static SignatureBloomFilter open(Path path,
+                                            Sizing sizing) throws IOException {
+        LedgerFiles.createIfAbsent(path, file -> initialize(file, sizing));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Bloom filter is truncated: " + path);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Not a bloom filter or unsupported version: " + path);
+            }
+            int hashes = header.getInt(HASHES_OFFSET);
+            long bits = header.getLong(BITS_OFFSET);
+            if (hashes <= 0 || bits <= 0 || bits % Long.SIZE != 0 || channel.size() < fileSize(bits)) {
+                throw new IOException("Bloom filter header is corrupted: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(bits));
+            return new SignatureBloomFilter(channel, buffer, bits, hashes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static void initialize(Path file,
+                                   Sizing sizing) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(sizing.bits()));
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(HASHES_OFFSET, sizing.hashes());
+            header.putLong(BITS_OFFSET, sizing.bits());
+            header.force();
+        }
+    }
+
+    private static long fileSize(long bits) {
+        return HEADER_SIZE + bits / Byte.SIZE;
+    }
+
+    public void add(byte[] signature) {
+        long h1 = hash1(signature);
+        long h2 = hash2(signature);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            LONGS.getAndBitwiseOr(buffer, wordOffset(bit), 1L << (bit & 63));
+        }
+        LONGS.getAndAdd(buffer, INSERTIONS_OFFSET, 1L);
+    }
+
+    /**
+     * @return {@code false} if the signature was definitely never added
+     */
+    public boolean mightContain(byte[] signature) {
+        long h1 = hash1(signature);
+        long h2 = hash2(signature);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            long word = (long) LONGS.getAcquire(buffer, wordOffset(bit));
+            if ((word & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Stats stats() {
+        long setBits = 0;
+        for (long bit = 0; bit < bits; bit += Long.SIZE) {
+            setBits += Long.bitCount((long) LONGS.getAcquire(buffer, wordOffset(bit)));
+        }
+        double fill = (double) setBits / bits;
+        return new Stats(bits, hashes, (long) LONGS.getAcquire(buffer, INSERTIONS_OFFSET), fill,
+                Math.pow(fill, hashes));
+    }
+
+    private static int wordOffset(long bit) {
+        return Math.toIntExact(HEADER_SIZE + (bit >>> 6) * Long.BYTES);
+    }
+
+    // Signature bytes are uniformly distributed, so two disjoint words give independent hashes for double hashing.
+    private static long hash1(byte[] signature) {
+        return mix(readLong(signature, 8));
+    }
+
+    private static long hash2(byte[] signature) {
+        return mix(readLong(signature, 16)) | 1;
+    }
+
+    private static long readLong(byte[] bytes,
+                                 int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value |= (bytes[offset + i] & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Bloom filter dimensions derived from the expected number of tokens per segment and the target false-positive
+     * rate, using the standard {@code m = -n ln p / (ln 2)^2} and {@code k = m/n ln 2}.
+     */
+    public record Sizing(long expectedInsertions, double falsePositiveRate) {
+        public static final Sizing DEFAULT = new Sizing(10_000, 0.001);
+
+        public Sizing {
+            if (expectedInsertions <= 0) {
+                throw new IllegalArgumentException("Expected insertions must be positive");
+            }
+            if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+                throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+            }
+        }
+
+        long bits() {
+            double ln2 = Math.log(2);
+            long raw = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+            return Math.max(Long.SIZE, (raw + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        }
+
+        int hashes() {
+            return Math.max(1, (int) Math.round((double) bits() / expectedInsertions * Math.log(2)));
+        }
+    }
+
+    public record Stats(long bits, int hashes, long insertions, double fill, double estimatedFalsePositiveRate) {
+    }
+}
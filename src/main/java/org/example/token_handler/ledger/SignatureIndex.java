@@ -0,0 +1,524 @@
+package org.example.token_handler.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Memory-mapped open-addressing hash table of used token signatures, shared between executor processes.
+ * <p>
+ * File layout: a {@value #HEADER_SIZE}-byte header (magic, version, capacity, stripe count, retired flag), one
+ * count per stripe, then {@code capacity} slots of {@value #SIGNATURE_LENGTH} bytes. An all-zero slot is empty.
+ * The slots are split into equally sized stripes selected by the signature prefix, and linear probing never
+ * leaves a stripe, so a {@link #claim(byte[])} only needs the lock of its own stripe. Once a stripe passes
+ * {@link #MAX_LOAD_FACTOR} the whole table is doubled into a new file under all stripe locks, and the old file is
+ * flagged as retired so other processes remap before touching it again.
+ */
+public class SignatureIndex implements Closeable {
+    public static final int SIGNATURE_LENGTH = 64;
+    static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x53494458; // "SIDX"
+    private static final int VERSION = 2;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int STRIPES_OFFSET = 12;
+    private static final int RETIRED_OFFSET = 16;
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int DEFAULT_STRIPES = 64;
+    private static final double MAX_LOAD_FACTOR = 0.5;
+
+    private final Path path;
+    private final StripedFileLock locks;
+    private volatile Mapping mapping;
+
+    private SignatureIndex(Path path,
+                           StripedFileLock locks,
+                           Mapping mapping) {
+        this.path = path;
+        this.locks = locks;
+        this.mapping = mapping;
+    }
+
+    public static SignatureIndex open(Path path) throws IOException {
+        LedgerFiles.createIfAbsent(path, file -> initialize(file, DEFAULT_CAPACITY, DEFAULT_STRIPES));
+        Mapping mapping = Mapping.open(path);
+        StripedFileLock locks = new StripedFileLock(lockPath(path), mapping.stripes);
+        return new SignatureIndex(path, locks, mapping);
+    }
+
+    /**
+     * Replaces an index that cannot be opened with one holding {@code entries}, which are read and inserted under all
+     * stripe locks so that no process claims from the replacement before it is complete. The old file is flagged as
+     * retired where its header can still be written, so processes that mapped it move to the replacement. If another
+     * process rebuilt the index first, that index is opened instead.
+     */
+    public static SignatureIndex rebuild(Path path,
+                                         Entries entries) throws IOException {
+        StripedFileLock locks = new StripedFileLock(lockPath(path), DEFAULT_STRIPES);
+        try {
+            Mapping mapping;
+            try (StripedFileLock.Held ignored = locks.lockAll()) {
+                mapping = rebuildLocked(path, entries);
+            }
+            if (mapping.stripes != DEFAULT_STRIPES) {
+                mapping.close();
+                throw new IOException("Signature index has an unexpected stripe count: " + path);
+            }
+            return new SignatureIndex(path, locks, mapping);
+        } catch (IOException | RuntimeException e) {
+            locks.close();
+            throw e;
+        }
+    }
+
+    private static Mapping rebuildLocked(Path path,
+                                         Entries entries) throws IOException {
+        try {
+            return Mapping.open(path);
+        } catch (IOException e) {
+            // Still unreadable, so this process rebuilds it.
+        }
+        List<byte[]> signatures = entries.read();
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < signatures.size() * 4L) {
+            capacity *= 2;
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".rebuild");
+        initialize(tmp, capacity, DEFAULT_STRIPES);
+        Mapping target = Mapping.open(tmp);
+        try {
+            for (byte[] signature : signatures) {
+                int slot = target.find(signature);
+                if (slot < 0) {
+                    target.insert(~slot, target.stripeOf(hash(signature)), signature);
+                }
+            }
+            target.buffer.force();
+        } finally {
+            target.close();
+        }
+        retireUnreadable(path);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return Mapping.open(path);
+    }
+
+    private static void retireUnreadable(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() >= HEADER_SIZE) {
+                ByteBuffer retired = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(0, 1);
+                channel.write(retired, RETIRED_OFFSET);
+                channel.force(false);
+            }
+        }
+    }
+
+    public static Path lockPath(Path indexPath) {
+        return indexPath.resolveSibling(indexPath.getFileName() + ".lock");
+    }
+
+    private static void initialize(Path file,
+                                   int capacity,
+                                   int stripes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity, stripes));
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(CAPACITY_OFFSET, capacity);
+            header.putInt(STRIPES_OFFSET, stripes);
+            header.force();
+        }
+    }
+
+    private static long fileSize(int capacity,
+                                 int stripes) {
+        return dataOffset(stripes) + (long) capacity * SIGNATURE_LENGTH;
+    }
+
+    private static int dataOffset(int stripes) {
+        return HEADER_SIZE + stripes * Long.BYTES;
+    }
+
+    /**
+     * Lock-free lookup. A concurrent claim of the same signature may or may not be observed; use
+     * {@link #claim(byte[])} when the answer must be authoritative.
+     */
+    public boolean contains(byte[] signature) throws IOException {
+        checkSignature(signature);
+        Mapping current = currentMapping();
+        return current.find(signature) >= 0;
+    }
+
+    /**
+     * Atomically checks and records the signature, across threads and processes.
+     *
+     * @return {@code true} if this call recorded the signature, {@code false} if it was already present
+     */
+    public boolean claim(byte[] signature) throws IOException {
+        return claim(signature, () -> {
+        });
+    }
+
+    /**
+     * Like {@link #claim(byte[])}, running {@code beforeInsert} under the stripe lock once the signature is known to
+     * be new. If the hook fails the signature is not recorded.
+     */
+    public boolean claim(byte[] signature,
+                         ClaimHook beforeInsert) throws IOException {
+        return claim(signature, candidate -> true, beforeInsert);
+    }
+
+    /**
+     * Like {@link #claim(byte[], ClaimHook)}, consulting {@code mightContain} under the stripe lock: when it rules the
+     * signature out, the signature is inserted at the first empty slot of its probe path without being compared to
+     * the signatures stored there. {@code mightContain} must never rule out a recorded signature; a filter that
+     * {@code beforeInsert} updates satisfies this, since claims of one signature hold the same stripe lock.
+     */
+    public boolean claim(byte[] signature,
+                         Predicate<byte[]> mightContain,
+                         ClaimHook beforeInsert) throws IOException {
+        checkSignature(signature);
+        long hash = hash(signature);
+        while (true) {
+            int stripe = mapping.stripeOf(hash);
+            try (StripedFileLock.Held ignored = locks.lock(stripe)) {
+                Mapping current = currentMapping();
+                int slot = mightContain.test(signature) ? current.find(signature) : current.findEmpty(signature);
+                if (slot >= 0) {
+                    return false;
+                }
+                if (current.stripeCount(stripe) + 1 <= current.stripeCapacity * MAX_LOAD_FACTOR) {
+                    beforeInsert.run();
+                    current.insert(~slot, stripe, signature);
+                    return true;
+                }
+            }
+            grow();
+        }
+    }
+
+    /**
+     * Recomputes the per-stripe counts from the slots, which may disagree after page-cache contents were lost.
+     */
+    public void recountStripes() throws IOException {
+        try (StripedFileLock.Held ignored = locks.lockAll()) {
+            currentMapping().recountStripes();
+        }
+    }
+
+    /**
+     * Lock-free scan of every recorded signature; the array passed to {@code action} is reused between calls.
+     */
+    public void forEach(Consumer<byte[]> action) throws IOException {
+        Mapping current = currentMapping();
+        byte[] signature = new byte[SIGNATURE_LENGTH];
+        for (int slot = 0; slot < current.capacity; slot++) {
+            if (!current.isSlotEmpty(slot)) {
+                current.readSlot(slot, signature);
+                action.accept(signature);
+            }
+        }
+    }
+
+    public long size() throws IOException {
+        return currentMapping().size();
+    }
+
+    public int capacity() throws IOException {
+        return currentMapping().capacity;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    private Mapping currentMapping() throws IOException {
+        Mapping current = mapping;
+        if (current.isRetired()) {
+            synchronized (this) {
+                current = mapping;
+                if (current.isRetired()) {
+                    current.close();
+                    current = Mapping.open(path);
+                    mapping = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private void grow() throws IOException {
+        try (StripedFileLock.Held ignored = locks.lockAll()) {
+            Mapping current = currentMapping();
+            if (!current.isAnyStripeFull()) {
+                return;
+            }
+
+            int newCapacity = current.capacity * 2;
+            Path tmp = path.resolveSibling(path.getFileName() + ".grow");
+            initialize(tmp, newCapacity, current.stripes);
+            Mapping target = Mapping.open(tmp);
+            try {
+                byte[] signature = new byte[SIGNATURE_LENGTH];
+                for (int slot = 0; slot < current.capacity; slot++) {
+                    if (!current.isSlotEmpty(slot)) {
+                        current.readSlot(slot, signature);
+                        int newSlot = ~target.find(signature);
+                        target.insert(newSlot, target.stripeOf(hash(signature)), signature);
+                    }
+                }
+                target.buffer.force();
+            } finally {
+                target.close();
+            }
+
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            current.retire();
+            synchronized (this) {
+                mapping = Mapping.open(path);
+            }
+            current.close();
+        }
+    }
+
+    private static long hash(byte[] signature) {
+        long h = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            h |= (signature[i] & 0xFFL) << (8 * i);
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static void checkSignature(byte[] signature) {
+        if (signature == null || signature.length != SIGNATURE_LENGTH) {
+            throw new IllegalArgumentException("Signature must be " + SIGNATURE_LENGTH + " bytes");
+        }
+        for (byte b : signature) {
+            if (b != 0) {
+                return;
+            }
+        }
+        throw new IllegalArgumentException("All-zero signature cannot be indexed");
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            mapping.buffer.force();
+            mapping.close();
+        } finally {
+            locks.close();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ClaimHook {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface Entries {
+        List<byte[]> read() throws IOException;
+    }
+
+    private static final class Mapping {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int capacity;
+        private final int stripes;
+        private final int stripeCapacity;
+        private final int stripeShift;
+        private final int dataOffset;
+
+        private Mapping(FileChannel channel,
+                        MappedByteBuffer buffer,
+                        int capacity,
+                        int stripes) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.capacity = capacity;
+            this.stripes = stripes;
+            this.stripeCapacity = capacity / stripes;
+            this.stripeShift = Long.SIZE - Integer.numberOfTrailingZeros(stripes);
+            this.dataOffset = dataOffset(stripes);
+        }
+
+        static Mapping open(Path path) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                if (channel.size() < HEADER_SIZE) {
+                    throw new IOException("Signature index is truncated: " + path);
+                }
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                header.order(ByteOrder.LITTLE_ENDIAN);
+                if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+                    throw new IOException("Not a signature index or unsupported version: " + path);
+                }
+                int capacity = header.getInt(CAPACITY_OFFSET);
+                int stripes = header.getInt(STRIPES_OFFSET);
+                if (Integer.bitCount(capacity) != 1 ||
+                        Integer.bitCount(stripes) != 1 ||
+                        stripes > capacity ||
+                        channel.size() < fileSize(capacity, stripes)) {
+                    throw new IOException("Signature index header is corrupted: " + path);
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                        fileSize(capacity, stripes));
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                return new Mapping(channel, buffer, capacity, stripes);
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int stripeOf(long hash) {
+            return stripes == 1 ? 0 : (int) (hash >>> stripeShift);
+        }
+
+        /**
+         * @return the slot holding the signature, or the bitwise complement of the first empty slot on its
+         * probe path
+         */
+        int find(byte[] signature) {
+            long hash = hash(signature);
+            int stripeBase = stripeOf(hash) * stripeCapacity;
+            int mask = stripeCapacity - 1;
+            int probe = (int) hash & mask;
+            for (int probes = 0; probes < stripeCapacity; probes++) {
+                int slot = stripeBase + probe;
+                if (isSlotEmpty(slot)) {
+                    return ~slot;
+                }
+                if (slotEquals(slot, signature)) {
+                    return slot;
+                }
+                probe = (probe + 1) & mask;
+            }
+            throw new IllegalStateException("Signature index stripe is full");
+        }
+
+        /**
+         * @return the bitwise complement of the first empty slot on the signature's probe path
+         */
+        int findEmpty(byte[] signature) {
+            long hash = hash(signature);
+            int stripeBase = stripeOf(hash) * stripeCapacity;
+            int mask = stripeCapacity - 1;
+            int probe = (int) hash & mask;
+            for (int probes = 0; probes < stripeCapacity; probes++) {
+                int slot = stripeBase + probe;
+                if (isSlotEmpty(slot)) {
+                    return ~slot;
+                }
+                probe = (probe + 1) & mask;
+            }
+            throw new IllegalStateException("Signature index stripe is full");
+        }
+
+        void insert(int slot,
+                    int stripe,
+                    byte[] signature) {
+            buffer.put(slotOffset(slot), signature);
+            buffer.putLong(stripeCountOffset(stripe), stripeCount(stripe) + 1);
+        }
+
+        long stripeCount(int stripe) {
+            return buffer.getLong(stripeCountOffset(stripe));
+        }
+
+        long size() {
+            long total = 0;
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                total += stripeCount(stripe);
+            }
+            return total;
+        }
+
+        void recountStripes() {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                long count = 0;
+                for (int slot = stripe * stripeCapacity; slot < (stripe + 1) * stripeCapacity; slot++) {
+                    if (!isSlotEmpty(slot)) {
+                        count++;
+                    }
+                }
+                buffer.putLong(stripeCountOffset(stripe), count);
+            }
+        }
+
+        boolean isAnyStripeFull() {
+            for (int stripe = 0; stripe < stripes; stripe++) {
+                if (stripeCount(stripe) + 1 > stripeCapacity * MAX_LOAD_FACTOR) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean isRetired() {
+            return buffer.getInt(RETIRED_OFFSET) != 0;
+        }
+
+        void retire() {
+            buffer.putInt(RETIRED_OFFSET, 1);
+            buffer.force();
+        }
+
+        boolean isSlotEmpty(int slot) {
+            int offset = slotOffset(slot);
+            for (int i = 0; i < SIGNATURE_LENGTH; i += Long.BYTES) {
+                if (buffer.getLong(offset + i) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void readSlot(int slot,
+                      byte[] target) {
+            buffer.get(slotOffset(slot), target);
+        }
+
+        private boolean slotEquals(int slot,
+                                   byte[] signature) {
+            int offset = slotOffset(slot);
+            for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+                if (buffer.get(offset + i) != signature[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int slotOffset(int slot) {
+            return dataOffset + slot * SIGNATURE_LENGTH;
+        }
+
+        private static int stripeCountOffset(int stripe) {
+            return HEADER_SIZE + stripe * Long.BYTES;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
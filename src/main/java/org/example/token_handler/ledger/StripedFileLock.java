@@ -0,0 +1,122 @@
+package org.example.token_handler.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped lock that is exclusive both between threads and between executor processes.
+ * <p>
+ * Each stripe is one byte of a lock file. File locks are held per process, so every stripe is additionally guarded
+ * by a {@link ReentrantLock} for threads of the same JVM. One extra byte past the stripes serialises whole-table
+ * operations such as resizing.
+ * <p>
+ * For the same reason a blocking {@link FileChannel#lock(long, long, boolean)} from several threads makes the kernel
+ * report false deadlocks between two multithreaded processes, so file locks are only ever polled with
+ * {@link FileChannel#tryLock(long, long, boolean)} and a short backoff.
+ */
+final class StripedFileLock implements Closeable {
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private final FileChannel channel;
+    private final ReentrantLock[] stripeLocks;
+    private final ReentrantLock exclusiveLock = new ReentrantLock();
+
+    StripedFileLock(Path lockFile,
+                    int stripes) throws IOException {
+        this.channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.stripeLocks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            stripeLocks[i] = new ReentrantLock();
+        }
+    }
+
+    int stripes() {
+        return stripeLocks.length;
+    }
+
+    Held lock(int stripe) throws IOException {
+        return acquire(stripeLocks[stripe], stripe);
+    }
+
+    /**
+     * Acquires every stripe. Callers must not hold a stripe already; the extra exclusive byte is taken first so
+     * two concurrent callers cannot deadlock on each other's stripes.
+     */
+    Held lockAll() throws IOException {
+        List<Held> held = new ArrayList<>(stripeLocks.length + 1);
+        try {
+            held.add(acquire(exclusiveLock, stripeLocks.length));
+            for (int stripe = 0; stripe < stripeLocks.length; stripe++) {
+                held.add(lock(stripe));
+            }
+        } catch (IOException | RuntimeException e) {
+            release(held);
+            throw e;
+        }
+        return () -> release(held);
+    }
+
+    private Held acquire(ReentrantLock threadLock,
+                         int position) throws IOException {
+        threadLock.lock();
+        try {
+            FileLock fileLock = pollFileLock(position);
+            return () -> {
+                try {
+                    fileLock.release();
+                } finally {
+                    threadLock.unlock();
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            threadLock.unlock();
+            throw e;
+        }
+    }
+
+    private FileLock pollFileLock(int position) throws IOException {
+        long backoff = MIN_BACKOFF_NANOS;
+        while (true) {
+            FileLock fileLock = channel.tryLock(position, 1, false);
+            if (fileLock != null) {
+                return fileLock;
+            }
+            LockSupport.parkNanos(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    private static void release(List<Held> held) throws IOException {
+        IOException failure = null;
+        for (int i = held.size() - 1; i >= 0; i--) {
+            try {
+                held.get(i).close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    interface Held extends AutoCloseable {
+        @Override
+        void close() throws IOException;
+    }
+}
@@ -0,0 +1,310 @@
+package org.example.token_handler.ledger;
+
+import org.example.logging.core.CliLogger;
+import org.example.logging.facade.LogManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Used-token ledger split into time-bucketed {@link LedgerSegment}s.
+ * <p>
+ * A token is stored in the segment covering its expiry. Since the expiry is part of the signed message, a replay
+ * of the same token always maps to the same segment, so a lookup reads exactly one segment. Once a segment's
+ * window plus the clock-skew margin has passed, every token in it would be rejected as expired anyway and the
+ * whole segment is deleted.
+ * <p>
+ * {@link #claim(byte[], long)} is the atomic check-and-mark primitive; it is safe across threads and across
+ * concurrently running executor processes and only serialises claims whose signatures share a lock stripe. A
+ * successful claim is journaled and, depending on the {@link ClaimJournal.Durability}, synced to disk before it
+ * returns.
+ */
+public class UsedTokenLedger implements Closeable {
+    public static final Duration DEFAULT_SEGMENT_SPAN = Duration.ofHours(1);
+    public static final Duration DEFAULT_CLOCK_SKEW = Duration.ofMinutes(5);
+    private static final String SEGMENT_PREFIX = "used_tokens-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final Pattern SEGMENT_NAME = Pattern.compile(
+            Pattern.quote(SEGMENT_PREFIX) + "(\\d+)" + Pattern.quote(SEGMENT_SUFFIX) + "(\\..+)?");
+    private static final long PURGE_INTERVAL_SECONDS = 60;
+
+    private final Path directory;
+    private final long segmentSpanSeconds;
+    private final long clockSkewSeconds;
+    private final SignatureBloomFilter.Sizing bloomSizing;
+    private final ClaimJournal.Options journalOptions;
+    private final Map<Long, LedgerSegment> openSegments = new ConcurrentHashMap<>();
+    private volatile long lastPurgeEpochSecond = Long.MIN_VALUE;
+
+    public UsedTokenLedger(Path directory) {
+        this(directory, SignatureBloomFilter.Sizing.DEFAULT);
+    }
+
+    public UsedTokenLedger(Path directory,
+                           SignatureBloomFilter.Sizing bloomSizing) {
+        this(directory, bloomSizing, ClaimJournal.Options.DEFAULT);
+    }
+
+    public UsedTokenLedger(Path directory,
+                           SignatureBloomFilter.Sizing bloomSizing,
+                           ClaimJournal.Options journalOptions) {
+        this(directory, DEFAULT_SEGMENT_SPAN, DEFAULT_CLOCK_SKEW, bloomSizing, journalOptions);
+    }
+
+    public UsedTokenLedger(Path directory,
+                           Duration segmentSpan,
+                           Duration clockSkew,
+                           SignatureBloomFilter.Sizing bloomSizing,
+                           ClaimJournal.Options journalOptions) {
+        if (segmentSpan.toSeconds() <= 0) {
+            throw new IllegalArgumentException("Segment span must be at least one second");
+        }
+        this.directory = directory;
+        this.segmentSpanSeconds = segmentSpan.toSeconds();
+        this.clockSkewSeconds = clockSkew.toSeconds();
+        this.bloomSizing = bloomSizing;
+        this.journalOptions = journalOptions;
+    }
+
+    public boolean contains(byte[] signature,
+                            long expiry) throws IOException {
+        if (isPastRetention(bucketOf(expiry), nowEpochSecond())) {
+            return false;
+        }
+        Optional<LedgerSegment> segment = existingSegment(bucketOf(expiry));
+        return segment.isPresent() && segment.get().contains(signature);
+    }
+
+    /**
+     * Atomically checks and records the signature in the segment covering {@code expiry}, together with a pending
+     * entry that tells retries the current process is executing it.
+     *
+     * @return {@code true} if this call claimed the signature, {@code false} if it was already recorded
+     */
+    public boolean claim(byte[] signature,
+                         long expiry) throws IOException {
+        purgeExpiredSegmentsIfDue();
+        return segment(bucketOf(expiry)).claim(signature);
+    }
+
+    public void storeResult(byte[] signature,
+                            long expiry,
+                            byte[] result) throws IOException {
+        segment(bucketOf(expiry)).storeResult(signature, result);
+    }
+
+    /**
+     * @return the latest pending or result entry for a claimed token, empty once its segment has been dropped
+     */
+    public Optional<ResultLog.Entry> findResult(byte[] signature,
+                                                long expiry) throws IOException {
+        if (isPastRetention(bucketOf(expiry), nowEpochSecond())) {
+            return Optional.empty();
+        }
+        Optional<LedgerSegment> segment = existingSegment(bucketOf(expiry));
+        return segment.isPresent() ? segment.get().findResult(signature) : Optional.empty();
+    }
+
+    /**
+     * Claims without waiting for the journal to be synced, for bulk imports. Call {@link #sync()} afterwards.
+     */
+    public boolean importClaim(byte[] signature,
+                               long expiry) throws IOException {
+        if (isPastRetention(bucketOf(expiry), nowEpochSecond())) {
+            return false;
+        }
+        return segment(bucketOf(expiry)).claimWithoutSync(signature);
+    }
+
+    /**
+     * Imports every live signature from the segments of another ledger directory, e.g. after moving the store.
+     *
+     * @return number of signatures that were not yet recorded here
+     */
+    public long importSegmentsFrom(Path otherDirectory) throws IOException {
+        if (!Files.isDirectory(otherDirectory) || Files.isSameFile(otherDirectory, directory)) {
+            return 0;
+        }
+        long imported = 0;
+        long now = nowEpochSecond();
+        for (long bucket : bucketsIn(otherDirectory)) {
+            Path file = otherDirectory.resolve(segmentPath(bucket).getFileName());
+            if (isPastRetention(bucket, now) || !Files.exists(file)) {
+                continue;
+            }
+            List<byte[]> signatures = new ArrayList<>();
+            try (SignatureIndex other = SignatureIndex.open(file)) {
+                other.forEach(signature -> signatures.add(signature.clone()));
+            }
+            LedgerSegment target = segment(bucket);
+            for (byte[] signature : signatures) {
+                if (target.claimWithoutSync(signature)) {
+                    imported++;
+                }
+            }
+        }
+        sync();
+        return imported;
+    }
+
+    /**
+     * Makes every claim recorded so far durable under the configured journal mode.
+     */
+    public void sync() throws IOException {
+        for (LedgerSegment segment : openSegments.values()) {
+            segment.sync();
+        }
+    }
+
+    /**
+     * Deletes every segment whose tokens have all expired, including the clock-skew margin.
+     *
+     * @return number of segments dropped
+     */
+    public synchronized int purgeExpiredSegments() throws IOException {
+        long now = nowEpochSecond();
+        lastPurgeEpochSecond = now;
+        int dropped = 0;
+
+        Iterator<Map.Entry<Long, LedgerSegment>> open = openSegments.entrySet().iterator();
+        while (open.hasNext()) {
+            Map.Entry<Long, LedgerSegment> entry = open.next();
+            if (isPastRetention(entry.getKey(), now)) {
+                entry.getValue().close();
+                open.remove();
+            }
+        }
+
+        for (long bucket : bucketsIn(directory)) {
+            if (isPastRetention(bucket, now)) {
+                for (Path segmentFile : LedgerSegment.files(segmentPath(bucket))) {
+                    Files.deleteIfExists(segmentFile);
+                }
+                dropped++;
+                getLogger().debugEntry()
+                        .message("Dropped expired used-token segment")
+                        .field("Path", segmentPath(bucket))
+                        .log();
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Reports size and Bloom filter fill of every segment that can still hold live tokens.
+     */
+    public List<LedgerSegment.Stats> stats() throws IOException {
+        List<LedgerSegment.Stats> stats = new ArrayList<>();
+        long now = nowEpochSecond();
+        for (long bucket : bucketsIn(directory)) {
+            if (!isPastRetention(bucket, now)) {
+                stats.add(segment(bucket).stats(segmentSpanSeconds));
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Buckets that have any segment file in {@code dir}; a journal may outlive a lost index.
+     */
+    private static SortedSet<Long> bucketsIn(Path dir) throws IOException {
+        SortedSet<Long> buckets = new TreeSet<>();
+        if (!Files.isDirectory(dir)) {
+            return buckets;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    buckets.add(Long.parseLong(matcher.group(1)));
+                }
+            }
+        }
+        return buckets;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    private void purgeExpiredSegmentsIfDue() throws IOException {
+        if (isPurgeDue()) {
+            synchronized (this) {
+                if (isPurgeDue()) {
+                    purgeExpiredSegments();
+                }
+            }
+        }
+    }
+
+    private boolean isPurgeDue() {
+        return nowEpochSecond() - lastPurgeEpochSecond >= PURGE_INTERVAL_SECONDS;
+    }
+
+    private Optional<LedgerSegment> existingSegment(long bucket) throws IOException {
+        LedgerSegment segment = openSegments.get(bucket);
+        if (segment == null && LedgerSegment.exists(segmentPath(bucket))) {
+            segment = segment(bucket);
+        }
+        return Optional.ofNullable(segment);
+    }
+
+    private LedgerSegment segment(long bucket) throws IOException {
+        LedgerSegment segment = openSegments.get(bucket);
+        if (segment != null) {
+            return segment;
+        }
+        synchronized (openSegments) {
+            segment = openSegments.get(bucket);
+            if (segment == null) {
+                Files.createDirectories(directory);
+                segment = LedgerSegment.open(bucket, segmentPath(bucket), bloomSizing, journalOptions);
+                openSegments.put(bucket, segment);
+            }
+            return segment;
+        }
+    }
+
+    private Path segmentPath(long bucket) {
+        return directory.resolve(SEGMENT_PREFIX + bucket + SEGMENT_SUFFIX);
+    }
+
+    private long bucketOf(long expiry) {
+        return Math.floorDiv(expiry, segmentSpanSeconds) * segmentSpanSeconds;
+    }
+
+    private boolean isPastRetention(long bucket,
+                                    long now) {
+        return bucket + segmentSpanSeconds + clockSkewSeconds < now;
+    }
+
+    private static long nowEpochSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+
+    private static CliLogger getLogger() {
+        return LogManager.getInstance().getLogger();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (LedgerSegment segment : openSegments.values()) {
+            segment.close();
+        }
+        openSegments.clear();
+    }
+}
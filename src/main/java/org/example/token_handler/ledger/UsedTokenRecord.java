@@ -0,0 +1,105 @@
+package org.example.token_handler.ledger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * One used token as a fixed-width {@value #SIZE}-byte binary record.
+ * <p>
+ * Layout (little endian): signature (64), expiry (8), token timestamp (8), time the token was marked as used (8),
+ * command hash (8), nonce length (2), reserved (6), nonce (up to {@value #MAX_NONCE_LENGTH} UTF-8 bytes). Only the
+ * first 8 bytes of the command's SHA-256 are kept; the command itself is not stored.
+ */
+public record UsedTokenRecord(byte[] signature,
+                              long expiry,
+                              long timestamp,
+                              long markedAt,
+                              long commandHash,
+                              String nonce) {
+    public static final int SIZE = 160;
+    public static final int MAX_NONCE_LENGTH = 56;
+    static final int SIGNATURE_OFFSET = 0;
+    static final int EXPIRY_OFFSET = 64;
+    static final int TIMESTAMP_OFFSET = 72;
+    static final int MARKED_AT_OFFSET = 80;
+    static final int COMMAND_HASH_OFFSET = 88;
+    static final int NONCE_LENGTH_OFFSET = 96;
+    static final int NONCE_OFFSET = 104;
+
+    public UsedTokenRecord {
+        if (signature == null || signature.length != SignatureIndex.SIGNATURE_LENGTH) {
+            throw new IllegalArgumentException("Signature must be " + SignatureIndex.SIGNATURE_LENGTH + " bytes");
+        }
+        if (nonce == null) {
+            throw new IllegalArgumentException("Nonce cannot be null");
+        }
+    }
+
+    public static long hashCommand(String command) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(command.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).order(ByteOrder.LITTLE_ENDIAN).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Writes the record at an absolute offset. Nonces longer than {@value #MAX_NONCE_LENGTH} bytes are truncated.
+     */
+    void writeTo(ByteBuffer buffer,
+                 int offset) {
+        byte[] nonceBytes = nonce.getBytes(StandardCharsets.UTF_8);
+        int nonceLength = Math.min(nonceBytes.length, MAX_NONCE_LENGTH);
+        buffer.put(offset + SIGNATURE_OFFSET, signature);
+        buffer.putLong(offset + EXPIRY_OFFSET, expiry);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+        buffer.putLong(offset + MARKED_AT_OFFSET, markedAt);
+        buffer.putLong(offset + COMMAND_HASH_OFFSET, commandHash);
+        buffer.putShort(offset + NONCE_LENGTH_OFFSET, (short) nonceLength);
+        buffer.put(offset + NONCE_OFFSET, nonceBytes, 0, nonceLength);
+        buffer.put(offset + NONCE_OFFSET + nonceLength, new byte[MAX_NONCE_LENGTH - nonceLength]);
+    }
+
+    static UsedTokenRecord readFrom(ByteBuffer buffer,
+                                    int offset) {
+        byte[] signature = new byte[SignatureIndex.SIGNATURE_LENGTH];
+        buffer.get(offset + SIGNATURE_OFFSET, signature);
+        int nonceLength = Math.min(Short.toUnsignedInt(buffer.getShort(offset + NONCE_LENGTH_OFFSET)),
+                MAX_NONCE_LENGTH);
+        byte[] nonce = new byte[nonceLength];
+        buffer.get(offset + NONCE_OFFSET, nonce);
+        return new UsedTokenRecord(signature,
+                buffer.getLong(offset + EXPIRY_OFFSET),
+                buffer.getLong(offset + TIMESTAMP_OFFSET),
+                buffer.getLong(offset + MARKED_AT_OFFSET),
+                buffer.getLong(offset + COMMAND_HASH_OFFSET),
+                new String(nonce, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof UsedTokenRecord other &&
+                Arrays.equals(signature, other.signature) &&
+                expiry == other.expiry &&
+                timestamp == other.timestamp &&
+                markedAt == other.markedAt &&
+                commandHash == other.commandHash &&
+                nonce.equals(other.nonce);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(signature);
+    }
+
+    @Override
+    public String toString() {
+        return "UsedTokenRecord[expiry=" + expiry + ", timestamp=" + timestamp + ", markedAt=" + markedAt +
+                ", commandHash=" + Long.toHexString(commandHash) + ", nonce=" + nonce + "]";
+    }
+}
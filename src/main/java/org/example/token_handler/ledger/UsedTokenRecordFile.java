@@ -0,0 +1,217 @@
+package org.example.token_handler.ledger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Append-only file of {@link UsedTokenRecord}s.
+ * <p>
+ * A {@value #HEADER_SIZE}-byte header (magic, version, record size) is followed by records at
+ * {@code HEADER_SIZE + i * UsedTokenRecord.SIZE}. Each record is appended with one {@code O_APPEND} write, so
+ * concurrent executor processes never interleave records; a reader ignores a trailing partial record.
+ */
+public class UsedTokenRecordFile implements Closeable {
+    static final int HEADER_SIZE = 64;
+    private static final int MAGIC = 0x55524543; // "UREC"
+    private static final int VERSION = 1;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int RECORD_SIZE_OFFSET = 8;
+
+    private final Path path;
+    private final FileChannel channel;
+
+    private UsedTokenRecordFile(Path path,
+                                FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    public static UsedTokenRecordFile open(Path path) throws IOException {
+        LedgerFiles.createIfAbsent(path, UsedTokenRecordFile::initialize);
+        try (FileChannel reader = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkHeader(path, reader);
+        }
+        return new UsedTokenRecordFile(path, FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND));
+    }
+
+    /**
+     * Maps a read-only snapshot of the records currently in the file.
+     */
+    public static Records read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            checkHeader(path, channel);
+            int count = Math.toIntExact((channel.size() - HEADER_SIZE) / UsedTokenRecord.SIZE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE,
+                    (long) count * UsedTokenRecord.SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new Records(buffer, count, false);
+        }
+    }
+
+    private static void initialize(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC_OFFSET, MAGIC);
+            header.putInt(VERSION_OFFSET, VERSION);
+            header.putInt(RECORD_SIZE_OFFSET, UsedTokenRecord.SIZE);
+            writeFully(ch, header);
+            ch.force(true);
+        }
+    }
+
+    private static void checkHeader(Path path,
+                                    FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) < HEADER_SIZE) {
+            throw new IOException("Used token record file is truncated: " + path);
+        }
+        if (header.getInt(MAGIC_OFFSET) != MAGIC ||
+                header.getInt(VERSION_OFFSET) != VERSION ||
+                header.getInt(RECORD_SIZE_OFFSET) != UsedTokenRecord.SIZE) {
+            throw new IOException("Not a used token record file or unsupported version: " + path);
+        }
+    }
+
+    public void append(UsedTokenRecord record) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(UsedTokenRecord.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        record.writeTo(buffer, 0);
+        writeFully(channel, buffer);
+    }
+
+    private static void writeFully(FileChannel channel,
+                                   ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Records addressed by position. Field accessors read straight from the buffer, so scans and searches do not
+     * materialise {@link UsedTokenRecord}s or Strings.
+     */
+    public static final class Records {
+        private final ByteBuffer buffer;
+        private final int count;
+        private final boolean sortedBySignature;
+
+        private Records(ByteBuffer buffer,
+                        int count,
+                        boolean sortedBySignature) {
+            this.buffer = buffer;
+            this.count = count;
+            this.sortedBySignature = sortedBySignature;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public UsedTokenRecord get(int index) {
+            return UsedTokenRecord.readFrom(buffer, offset(index));
+        }
+
+        public long expiry(int index) {
+            return buffer.getLong(offset(index) + UsedTokenRecord.EXPIRY_OFFSET);
+        }
+
+        public long commandHash(int index) {
+            return buffer.getLong(offset(index) + UsedTokenRecord.COMMAND_HASH_OFFSET);
+        }
+
+        /**
+         * @return a heap copy ordered by unsigned signature bytes, suitable for {@link #binarySearch(byte[])}
+         */
+        public Records sortedBySignature() {
+            if (sortedBySignature) {
+                return this;
+            }
+            Integer[] order = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compareSignature(offset(a), offset(b)));
+
+            ByteBuffer sorted = ByteBuffer.allocate(count * UsedTokenRecord.SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < count; i++) {
+                sorted.put(i * UsedTokenRecord.SIZE, buffer, offset(order[i]), UsedTokenRecord.SIZE);
+            }
+            return new Records(sorted, count, true);
+        }
+
+        /**
+         * @return index of a record with the signature, or {@code -(insertion point) - 1} like
+         * {@link Arrays#binarySearch(int[], int)}
+         * @throws IllegalArgumentException if the signature is not {@value SignatureIndex#SIGNATURE_LENGTH} bytes
+         */
+        public int binarySearch(byte[] signature) {
+            if (!sortedBySignature) {
+                throw new IllegalStateException("Records are not sorted by signature");
+            }
+            if (signature.length != SignatureIndex.SIGNATURE_LENGTH) {
+                throw new IllegalArgumentException("Signature must be " + SignatureIndex.SIGNATURE_LENGTH + " bytes");
+            }
+            int low = 0;
+            int high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = compareSignature(offset(mid), signature);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private int compareSignature(int offset,
+                                     int otherOffset) {
+            for (int i = 0; i < SignatureIndex.SIGNATURE_LENGTH; i++) {
+                int cmp = Byte.compareUnsigned(buffer.get(offset + i), buffer.get(otherOffset + i));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        }
+
+        private int compareSignature(int offset,
+                                     byte[] signature) {
+            for (int i = 0; i < SignatureIndex.SIGNATURE_LENGTH; i++) {
+                int cmp = Byte.compareUnsigned(buffer.get(offset + i), signature[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        }
+
+        private int offset(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return index * UsedTokenRecord.SIZE;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.utils;
+
+/**
+ * A command that was killed, together with the processes it started, because it did not finish before its deadline.
+ */
+public class CommandTimedOutException extends CommandFailedException {
+    public CommandTimedOutException(String message) {
+        super(message);
+    }
+}
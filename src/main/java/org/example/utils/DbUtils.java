@@ -2,9 +2,12 @@ package org.example.utils;
 
 import org.example.config.AppConfigException;
 import org.example.config.core.AppConfiguration;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 import org.example.value_types.DomainName;
 
 import java.sql.*;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -13,18 +16,39 @@ public class DbUtils {
     private DbUtils() {
     }
 
-    public static Optional<String> fetchSubscriptionNameById(int id) throws SQLException {
-        return executeSqlQueryJDBC(prepareFetchSubscriptionNameById(id)).flatMap(list -> list.stream().findFirst());
+    public static Optional<String> fetchSubscriptionNameById(int id,
+                                                             Deadline deadline,
+                                                             Cancellation cancellation) throws SQLException {
+        return executeSqlQueryJDBC(prepareFetchSubscriptionNameById(id), deadline, cancellation)
+                .flatMap(list -> list.stream().findFirst());
 
     }
 
 
-    private static Optional<List<String>> executeSqlQueryJDBC(Query query) throws SQLException {
-        try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement(query.sql())) {
+    /**
+     * Runs {@code query} with a statement timeout taken from {@code deadline}; cancelling {@code cancellation} asks
+     * the server to abort the statement.
+     */
+    private static Optional<List<String>> executeSqlQueryJDBC(Query query,
+                                                              Deadline deadline,
+                                                              Cancellation cancellation) throws SQLException {
+        if (cancellation.isCancelled()) {
+            throw new SQLException("Query cancelled before start");
+        }
+        if (deadline.isExpired()) {
+            throw new SQLTimeoutException("Deadline passed before the query started");
+        }
+        try (Connection conn = getConnection(); PreparedStatement stmt = conn.prepareStatement(query.sql());
+             Cancellation.Registration ignored = cancellation.onCancel(() -> cancelQuietly(stmt))) {
 
             for (int i = 0; i < query.params().length; i++) {
                 stmt.setObject(i + 1, query.params()[i]);
             }
+            if (deadline.isBounded()) {
+                // Whole seconds only; round up so a short remainder does not become "no timeout".
+                long millis = deadline.remaining(Duration.ZERO).toMillis();
+                stmt.setQueryTimeout((int) Math.max(1, (millis + 999) / 1000));
+            }
 
             try (ResultSet rs = stmt.executeQuery()) {
                 ResultSetMetaData meta = rs.getMetaData();
@@ -46,6 +70,14 @@ public class DbUtils {
         }
     }
 
+    private static void cancelQuietly(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException ignored) {
+            // The statement finished or its connection is gone; either way it no longer runs.
+        }
+    }
+
     private static Query prepareFetchSubscriptionNameById(int id) {
         String sql = "SELECT name FROM domains WHERE webspace_id=0 AND id=?";
         return new Query(sql, id);
@@ -71,8 +103,11 @@ public class DbUtils {
         }
     }
 
-    public static Optional<List<String>> fetchSubscriptionInfoByDomain(String domain) throws SQLException {
-        return executeSqlQueryJDBC(prepareFetchSubscriptionInfoByDomain(domain));
+    public static Optional<List<String>> fetchSubscriptionInfoByDomain(String domain,
+                                                                       Deadline deadline,
+                                                                       Cancellation cancellation)
+            throws SQLException {
+        return executeSqlQueryJDBC(prepareFetchSubscriptionInfoByDomain(domain), deadline, cancellation);
 
     }
 
@@ -109,8 +144,11 @@ public class DbUtils {
         return new Query(sql, domain);
     }
 
-    public static Optional<List<String>> fetchSubscriptionIdByDomain(DomainName domain) throws SQLException {
-        return executeSqlQueryJDBC(prepareGetSubscriptionIdByDomain(domain.name()));
+    public static Optional<List<String>> fetchSubscriptionIdByDomain(DomainName domain,
+                                                                     Deadline deadline,
+                                                                     Cancellation cancellation)
+            throws SQLException {
+        return executeSqlQueryJDBC(prepareGetSubscriptionIdByDomain(domain.name()), deadline, cancellation);
     }
 
     private static Query prepareGetSubscriptionIdByDomain(String domain) {
@@ -120,6 +158,35 @@ public class DbUtils {
         return new Query(sql, domain);
     }
 
+    /**
+     * Index-only summary of the {@code domains} table that changes when a domain is added or removed; used to tell
+     * whether a stored subscription lookup may be outdated. Renames and moves between subscriptions are only picked
+     * up once the stored result expires.
+     *
+     * @return row count and highest id, tab-separated
+     */
+    public static Optional<String> fetchDomainsFingerprint(Deadline deadline,
+                                                           Cancellation cancellation) throws SQLException {
+        return executeSqlQueryJDBC(new Query("SELECT COUNT(*), MAX(id) FROM domains"), deadline, cancellation)
+                .flatMap(list -> list.stream().findFirst());
+    }
+
+    /**
+     * Like {@link #fetchDomainsFingerprint}, but also changes when a client is added or removed. Changes to
+     * existing rows, such as disk usage, are only picked up once the stored result expires.
+     *
+     * @return domain count, highest domain id, client count and highest client id, tab-separated
+     */
+    public static Optional<String> fetchSubscriptionInfoFingerprint(Deadline deadline,
+                                                                    Cancellation cancellation)
+            throws SQLException {
+        String sql = """
+                SELECT COUNT(*), MAX(id), (SELECT COUNT(*) FROM clients), (SELECT MAX(id) FROM clients) FROM domains
+                """;
+        return executeSqlQueryJDBC(new Query(sql), deadline, cancellation)
+                .flatMap(list -> list.stream().findFirst());
+    }
+
     public record Query(String sql, Object... params) {
     }
 }
\ No newline at end of file
@@ -2,22 +2,34 @@ package org.example.utils;
 
 import org.example.logging.core.CliLogger;
 import org.example.logging.facade.LogManager;
+import org.example.operations.Cancellation;
+import org.example.operations.Deadline;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 public class ShellUtils {
+    static final long DEFAULT_TIMEOUT_SECONDS = 30;
+    private static final Executor STREAM_READERS = task -> Thread.ofVirtual().name("shell-io").start(task);
+
     private ShellUtils() {
     }
 
@@ -52,68 +64,143 @@ public class ShellUtils {
     }
 
     public static ExecutionResult execute(String... args) throws CommandFailedException {
+        return execute(Deadline.none(), Cancellation.none(), args);
+    }
+
+    /**
+     * Runs a command on the calling thread, see {@link #executeAsync}. Interrupting the caller destroys the process.
+     */
+    public static ExecutionResult execute(Deadline deadline,
+                                          Cancellation cancellation,
+                                          String... args) throws CommandFailedException {
+        Cancellation own = cancellation.child();
+        CompletableFuture<ExecutionResult> execution = executeAsync(deadline, own, args);
         try {
-            getLogger().debugEntry().command(args).log();
-            Process process = new ProcessBuilder(args).start();
-
-            List<String> stdoutLines = new ArrayList<>();
-            List<String> stderrLines = new ArrayList<>();
-
-            try (BufferedReader stdoutReader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-                 BufferedReader stderrReader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-                CompletableFuture<Void>
-                        outputFuture =
-                        CompletableFuture.runAsync(() -> stdoutReader.lines().forEach(stdoutLines::add));
-
-                CompletableFuture<Void>
-                        errorFuture =
-                        CompletableFuture.runAsync(() -> stderrReader.lines().forEach(stderrLines::add));
-
-                boolean completed = process.waitFor(30, TimeUnit.SECONDS);
-                if (!completed) {
-                    process.destroyForcibly();
-                    throw new CommandFailedException("Shell command timed out after " +
-                            TimeUnit.SECONDS +
-                            "s: " +
-                            String.join(" ", args));
-                }
-
-                CompletableFuture.allOf(outputFuture, errorFuture).join();
-
-                int exitCode = process.exitValue();
-                if (exitCode != 0) {
-                    String errorMessage = String.join("\n", stderrLines);
-                    getLogger().warnEntry()
-                            .message("Shell command completed with non-zero exit code")
-                            .field("command", String.join(" ", args))
-                            .field("exitCode", exitCode)
-                            .field("stdout", String.join("\n", stdoutLines))
-                            .field("stderr", errorMessage)
-                            .log();
-                    throw new CommandFailedException(stdoutLines, stderrLines, exitCode);
-                }
-
-                return new ExecutionResult(args,
-                        Collections.unmodifiableList(stdoutLines),
-                        Collections.unmodifiableList(stderrLines),
-                        exitCode);
+            return execution.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CommandFailedException failed) {
+                throw failed;
             }
-        } catch (IOException e) {
+            throw new CommandFailedException("Failed to execute shell command '" + String.join(" ", args) + "'",
+                    e.getCause());
+        } catch (InterruptedException e) {
+            own.cancel();
+            Thread.currentThread().interrupt();
             String
                     errorMessage =
                     String.format("Failed to execute shell command '%s': %s", String.join(" ", args), e.getMessage());
             getLogger().error(errorMessage);
             throw new CommandFailedException(errorMessage, e);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts a command and completes once it has exited and its output has been read. The process is destroyed when
+     * {@code deadline} passes, after {@value #DEFAULT_TIMEOUT_SECONDS} seconds if it has none, or when
+     * {@code cancellation} fires, and so is every process it started. The returned future fails with
+     * {@link CommandTimedOutException} on a timeout, and with {@link CommandFailedException} on a non-zero exit code,
+     * cancellation or a process that could not be started.
+     */
+    public static CompletableFuture<ExecutionResult> executeAsync(Deadline deadline,
+                                                                  Cancellation cancellation,
+                                                                  String... args) {
+        if (cancellation.isCancelled()) {
+            return CompletableFuture.failedFuture(
+                    new CommandFailedException("Shell command cancelled before start: " + String.join(" ", args)));
+        }
+        Process process;
+        try {
+            getLogger().debugEntry().command(args).log();
+            process = new ProcessBuilder(args).start();
+        } catch (IOException e) {
             String
                     errorMessage =
                     String.format("Failed to execute shell command '%s': %s", String.join(" ", args), e.getMessage());
             getLogger().error(errorMessage);
-            throw new CommandFailedException(errorMessage, e);
+            return CompletableFuture.failedFuture(new CommandFailedException(errorMessage, e));
+        }
+
+        List<String> stdoutLines = Collections.synchronizedList(new ArrayList<>());
+        List<String> stderrLines = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> outputFuture = CompletableFuture.runAsync(
+                () -> readLines(process.getInputStream(), stdoutLines), STREAM_READERS);
+        CompletableFuture<Void> errorFuture = CompletableFuture.runAsync(
+                () -> readLines(process.getErrorStream(), stderrLines), STREAM_READERS);
+        Cancellation.Registration registration = cancellation.onCancel(() -> destroyTree(process));
+
+        Duration timeout = deadline.remaining(Duration.ofSeconds(DEFAULT_TIMEOUT_SECONDS));
+        return process.onExit()
+                .orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+                .handleAsync((exited, error) -> {
+                    registration.close();
+                    if (error instanceof TimeoutException) {
+                        int killed = destroyTree(process);
+                        getLogger().warnEntry()
+                                .message("Shell command timed out")
+                                .field("command", String.join(" ", args))
+                                .field("timeoutMs", timeout.toMillis())
+                                .field("descendantsKilled", killed)
+                                .log();
+                        throw new CompletionException(new CommandTimedOutException("Shell command timed out after " +
+                                timeout.toMillis() +
+                                " ms: " +
+                                String.join(" ", args)));
+                    }
+                    if (cancellation.isCancelled()) {
+                        throw new CompletionException(
+                                new CommandFailedException("Shell command cancelled: " + String.join(" ", args)));
+                    }
+                    CompletableFuture.allOf(outputFuture, errorFuture).join();
+                    return toResult(args, stdoutLines, stderrLines, process.exitValue());
+                }, STREAM_READERS);
+    }
+
+    /**
+     * Kills {@code process} and everything it started, such as the PHP workers {@code plesk} runs, which would keep
+     * running after their parent is gone. The tree is listed before the parent is killed, since its children are
+     * re-parented and no longer its descendants afterwards.
+     *
+     * @return the number of descendants found
+     */
+    private static int destroyTree(Process process) {
+        List<ProcessHandle> descendants = process.descendants().toList();
+        process.destroyForcibly();
+        descendants.forEach(ProcessHandle::destroyForcibly);
+        return descendants.size();
+    }
+
+    private static void readLines(InputStream stream,
+                                  List<String> lines) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+            reader.lines().forEach(lines::add);
+        } catch (IOException | UncheckedIOException e) {
+            // The process was destroyed while its output was being read.
         }
     }
 
+    private static ExecutionResult toResult(String[] args,
+                                            List<String> stdoutLines,
+                                            List<String> stderrLines,
+                                            int exitCode) {
+        if (exitCode != 0) {
+            String errorMessage = String.join("\n", stderrLines);
+            getLogger().warnEntry()
+                    .message("Shell command completed with non-zero exit code")
+                    .field("command", String.join(" ", args))
+                    .field("exitCode", exitCode)
+                    .field("stdout", String.join("\n", stdoutLines))
+                    .field("stderr", errorMessage)
+                    .log();
+            throw new CompletionException(new CommandFailedException(List.copyOf(stdoutLines),
+                    List.copyOf(stderrLines), exitCode));
+        }
+
+        return new ExecutionResult(args,
+                List.copyOf(stdoutLines),
+                List.copyOf(stderrLines),
+                exitCode);
+    }
+
     public static String resolveAppUser() {
 
         Optional<String> sudoUser = getSudoUser();
@@ -1,44 +1,110 @@
 package org.example.value_types;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
-import java.util.Map;
+/**
+ * A signed command token. The signed message is encoded once when the token is created, and the signature is
+ * Base64-decoded once on first use, so verification, the used-token ledger and logging do not rebuild them. For JSON
+ * tokens the signed message is {@code timestamp|nonce|expiry|operation} in UTF-8; for {@link TokenEnvelope binary}
+ * tokens it is the envelope itself.
+ */
+public final class Token implements ValueType {
+    private final long timestamp;
+    private final String nonce;
+    private final long expiry;
+    private final String command;
+    private final String signature;
+    private final String kid;
+    private final byte[] message;
+    private volatile byte[] signatureBytes;
+    private String value;
 
-public record Token(
-        long timestamp,
-        String nonce,
-        long expiry,
-        String command,
-        String signature
-) implements ValueType {
-
-    public Token {
+    /**
+     * @param kid id of the signing key in the keyring, {@code null} if the token does not name one. It is not part
+     *            of the signed message; it only selects the key to verify with.
+     */
+    public Token(long timestamp,
+                 String nonce,
+                 long expiry,
+                 String command,
+                 String signature,
+                 String kid) {
         if (nonce == null || command == null || signature == null) {
             throw new IllegalArgumentException("Token fields cannot be null");
         }
+        this.timestamp = timestamp;
+        this.nonce = nonce;
+        this.expiry = expiry;
+        this.command = command;
+        this.signature = signature;
+        this.kid = kid;
+        this.message = (timestamp + "|" + nonce + "|" + expiry + "|" + command).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A token whose signature covers {@code message} rather than the text form of its fields.
+     */
+    Token(long timestamp,
+          String nonce,
+          long expiry,
+          String command,
+          String kid,
+          byte[] message,
+          byte[] signatureBytes) {
+        this.timestamp = timestamp;
+        this.nonce = nonce;
+        this.expiry = expiry;
+        this.command = command;
+        this.signature = Base64.getEncoder().encodeToString(signatureBytes);
+        this.kid = kid;
+        this.message = message;
+        this.signatureBytes = signatureBytes;
+    }
+
+    public Token(long timestamp,
+                 String nonce,
+                 long expiry,
+                 String command,
+                 String signature) {
+        this(timestamp, nonce, expiry, command, signature, null);
     }
 
+    /**
+     * @see TokenDecoder#decodeJson(byte[])
+     */
     public static Token fromJson(String rawMessage) {
         if (rawMessage == null || rawMessage.trim().isEmpty()) {
             throw new IllegalArgumentException("No value is given");
         }
+        return TokenDecoder.decodeJson(rawMessage.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long timestamp() {
+        return timestamp;
+    }
 
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> map = mapper.readValue(rawMessage, new TypeReference<>() {
-            });
+    public String nonce() {
+        return nonce;
+    }
 
-            long timestamp = ((Number) map.get("timestamp")).longValue();
-            String nonce = (String) map.get("nonce");
-            long expiry = ((Number) map.get("expiry")).longValue();
-            String command = (String) map.get("operation");
-            String signature = (String) map.get("signature");
+    public long expiry() {
+        return expiry;
+    }
 
-            return new Token(timestamp, nonce, expiry, command, signature);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid JSON format", e);
-        }
+    public String command() {
+        return command;
+    }
+
+    public String signature() {
+        return signature;
+    }
+
+    public String kid() {
+        return kid;
     }
 
     public boolean isExpired() {
@@ -46,30 +112,69 @@ public record Token(
         return currentTime > expiry;
     }
 
+    /**
+     * @return time left until the token expires, zero if it already has
+     */
+    public Duration remainingLifetime() {
+        return Duration.ofMillis(Math.max(0, TimeUnit.SECONDS.toMillis(expiry) - System.currentTimeMillis()));
+    }
+
+    /**
+     * The fields as {@code timestamp|nonce|expiry|operation}, for logging.
+     */
     public String getMessage() {
-        return String.join("|",
-                Long.toString(timestamp),
-                nonce,
-                Long.toString(expiry),
-                command);
+        return timestamp + "|" + nonce + "|" + expiry + "|" + command;
+    }
+
+    /**
+     * The bytes the signature covers. Shared, must not be modified.
+     */
+    public byte[] messageBytes() {
+        return message;
+    }
+
+    /**
+     * The decoded signature. Shared, must not be modified.
+     *
+     * @throws IllegalArgumentException if the signature is not valid Base64
+     */
+    public byte[] signatureBytes() {
+        byte[] decoded = signatureBytes;
+        if (decoded == null) {
+            decoded = Base64.getDecoder().decode(signature);
+            signatureBytes = decoded;
+        }
+        return decoded;
     }
 
     public String value() {
-        return String.join("|",
-                Long.toString(timestamp),
-                nonce,
-                Long.toString(expiry),
-                command,
-                signature);
+        String joined = value;
+        if (joined == null) {
+            joined = getMessage() + "|" + signature;
+            value = joined;
+        }
+        return joined;
     }
 
     @Override
     public String toString() {
-        return String.join("|",
-                Long.toString(timestamp),
-                nonce,
-                Long.toString(expiry),
-                command,
-                signature);
+        return value();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Token other)) {
+            return false;
+        }
+        return timestamp == other.timestamp && expiry == other.expiry && nonce.equals(other.nonce) &&
+                command.equals(other.command) && signature.equals(other.signature) && Objects.equals(kid, other.kid);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timestamp, nonce, expiry, command, signature, kid);
     }
 }
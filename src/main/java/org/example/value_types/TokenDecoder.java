@@ -0,0 +1,161 @@
+package org.example.value_types;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Decodes a signed token from its Base64 form. Binary {@link TokenEnvelope}s are recognised by their first byte;
+ * anything else is read as JSON
+ * <pre>
+ * {"timestamp": 1718000000, "nonce": "...", "expiry": 1718000060, "operation": "PLESK.GET_LOGIN_LINK ...",
+ *  "signature": "&lt;base64&gt;", "kid": "2025-06"}
+ * </pre>
+ * in one pass of a streaming parser over the decoded bytes. {@code timestamp} and {@code expiry} must be JSON
+ * integers, the other fields strings; {@code kid} is optional. A field may appear only once, so the signed message
+ * cannot differ from what is executed. Other fields are skipped if they hold a scalar. Sizes are bounded before and
+ * during parsing.
+ */
+public final class TokenDecoder {
+    public static final int MAX_ENCODED_LENGTH = 16 * 1024;
+    static final int MAX_NONCE_LENGTH = 256;
+    static final int MAX_COMMAND_LENGTH = 8 * 1024;
+    static final int MAX_SIGNATURE_LENGTH = 128;
+    static final int MAX_KID_LENGTH = 128;
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .streamReadConstraints(StreamReadConstraints.builder()
+                    .maxNestingDepth(1)
+                    .maxStringLength(MAX_COMMAND_LENGTH)
+                    .maxNumberLength(19)
+                    .build())
+            .build();
+
+    private TokenDecoder() {
+    }
+
+    /**
+     * @param encoded the token as passed to {@code execute}: Base64 of the JSON document or binary envelope
+     * @throws IllegalArgumentException if the token is not valid Base64, not a well-formed token or too large
+     */
+    public static Token decode(String encoded) {
+        if (encoded == null || encoded.isBlank()) {
+            throw new IllegalArgumentException("No value is given");
+        }
+        if (encoded.length() > MAX_ENCODED_LENGTH) {
+            throw new IllegalArgumentException("Token exceeds " + MAX_ENCODED_LENGTH + " characters");
+        }
+        byte[] decoded;
+        try {
+            decoded = Base64.getDecoder().decode(encoded.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Token is not valid Base64", e);
+        }
+        return TokenEnvelope.isEnvelope(decoded) ? TokenEnvelope.decode(decoded) : decodeJson(decoded);
+    }
+
+    /**
+     * @param json the token's JSON document, UTF-8 encoded
+     */
+    public static Token decodeJson(byte[] json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            return parse(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid JSON format", e);
+        }
+    }
+
+    private static Token parse(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Token must be a JSON object");
+        }
+        long timestamp = 0;
+        long expiry = 0;
+        boolean hasTimestamp = false;
+        boolean hasExpiry = false;
+        String nonce = null;
+        String command = null;
+        String signature = null;
+        String kid = null;
+        boolean hasKid = false;
+
+        JsonToken next;
+        while ((next = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "timestamp" -> {
+                    requireOnce(field, hasTimestamp);
+                    timestamp = readLong(parser, field, value);
+                    hasTimestamp = true;
+                }
+                case "expiry" -> {
+                    requireOnce(field, hasExpiry);
+                    expiry = readLong(parser, field, value);
+                    hasExpiry = true;
+                }
+                case "nonce" -> {
+                    requireOnce(field, nonce != null);
+                    nonce = readString(parser, field, value, MAX_NONCE_LENGTH);
+                }
+                case "operation" -> {
+                    requireOnce(field, command != null);
+                    command = readString(parser, field, value, MAX_COMMAND_LENGTH);
+                }
+                case "signature" -> {
+                    requireOnce(field, signature != null);
+                    signature = readString(parser, field, value, MAX_SIGNATURE_LENGTH);
+                }
+                case "kid" -> {
+                    requireOnce(field, hasKid);
+                    hasKid = true;
+                    kid = value == JsonToken.VALUE_NULL ? null : readString(parser, field, value, MAX_KID_LENGTH);
+                }
+                default -> {
+                    if (value.isStructStart()) {
+                        throw new IllegalArgumentException("Unexpected nested value in field " + field);
+                    }
+                }
+            }
+        }
+        if (next != JsonToken.END_OBJECT || parser.nextToken() != null) {
+            throw new IllegalArgumentException("Unexpected content after token object");
+        }
+        if (!hasTimestamp || !hasExpiry || nonce == null || command == null || signature == null) {
+            throw new IllegalArgumentException("Token must contain timestamp, nonce, expiry, operation and signature");
+        }
+        return new Token(timestamp, nonce, expiry, command, signature, kid);
+    }
+
+    private static void requireOnce(String field,
+                                    boolean seen) {
+        if (seen) {
+            throw new IllegalArgumentException("Duplicate token field " + field);
+        }
+    }
+
+    private static long readLong(JsonParser parser,
+                                 String field,
+                                 JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT || parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER) {
+            throw new IllegalArgumentException("Token field " + field + " must be an integer");
+        }
+        return parser.getLongValue();
+    }
+
+    private static String readString(JsonParser parser,
+                                     String field,
+                                     JsonToken value,
+                                     int maxLength) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            throw new IllegalArgumentException("Token field " + field + " must be a string");
+        }
+        if (parser.getTextLength() > maxLength) {
+            throw new IllegalArgumentException("Token field " + field + " exceeds " + maxLength + " characters");
+        }
+        return parser.getText();
+    }
+}
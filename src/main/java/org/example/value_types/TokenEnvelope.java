@@ -0,0 +1,214 @@
+package org.example.value_types;
+
+import org.example.operations.AvailableOperation;
+import org.example.operations.program.OperationProgram;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Compact binary token encoding, version 1. All integers are big-endian:
+ * <pre>
+ * u8   magic 0xA5        (never the first byte of a JSON document)
+ * u8   version 1
+ * i64  timestamp         epoch seconds
+ * i64  expiry            epoch seconds
+ * u16  operation         {@link AvailableOperation#code()}
+ * u8   nonce length, then that many bytes
+ * u8   kid length (0 if the token names no key), then that many bytes
+ * u8   argument count, then per argument:
+ *        u8 type 0x01, u16 length, bytes   string
+ *        u8 type 0x02, i64                 integer
+ * 64   Ed25519 signature over all preceding bytes
+ * </pre>
+ * Nonce, key id and string arguments are printable ASCII without spaces. An envelope carries one operation, never an
+ * {@link OperationProgram}: a string argument may not be the step separator {@code ;} or start with the reference
+ * prefix {@code $}. The envelope travels Base64-encoded like a JSON token, and {@link TokenDecoder#decode(String)}
+ * tells the two apart by the first decoded byte.
+ */
+public final class TokenEnvelope {
+    static final byte MAGIC = (byte) 0xA5;
+    static final byte VERSION = 1;
+    static final int MAX_ARGUMENTS = 16;
+    static final int MAX_ARGUMENT_LENGTH = 1024;
+    private static final byte STRING_ARGUMENT = 0x01;
+    private static final byte INTEGER_ARGUMENT = 0x02;
+    private static final int SIGNATURE_LENGTH = 64;
+
+    private TokenEnvelope() {
+    }
+
+    static boolean isEnvelope(byte[] decoded) {
+        return decoded.length > 0 && decoded[0] == MAGIC;
+    }
+
+    /**
+     * @param envelope the decoded envelope, including the signature
+     * @throws IllegalArgumentException if the envelope is malformed or of an unknown version
+     */
+    static Token decode(byte[] envelope) {
+        ByteBuffer buffer = ByteBuffer.wrap(envelope);
+        try {
+            if (buffer.get() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary token");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported binary token version: " + version);
+            }
+            long timestamp = buffer.getLong();
+            long expiry = buffer.getLong();
+            AvailableOperation operation = AvailableOperation.fromCode(Short.toUnsignedInt(buffer.getShort()));
+            String nonce = readText(buffer, Byte.toUnsignedInt(buffer.get()), "nonce");
+            if (nonce.isEmpty()) {
+                throw new IllegalArgumentException("Binary token has no nonce");
+            }
+            int kidLength = Byte.toUnsignedInt(buffer.get());
+            String kid = kidLength == 0 ? null : readText(buffer, kidLength, "kid");
+
+            int count = Byte.toUnsignedInt(buffer.get());
+            if (count > MAX_ARGUMENTS) {
+                throw new IllegalArgumentException("Binary token has more than " + MAX_ARGUMENTS + " arguments");
+            }
+            StringBuilder command = new StringBuilder(operation.qualifiedName());
+            for (int i = 0; i < count; i++) {
+                command.append(' ');
+                byte type = buffer.get();
+                if (type == STRING_ARGUMENT) {
+                    int length = Short.toUnsignedInt(buffer.getShort());
+                    if (length == 0 || length > MAX_ARGUMENT_LENGTH) {
+                        throw new IllegalArgumentException("Invalid binary token argument length: " + length);
+                    }
+                    command.append(requireNoProgramSyntax(readText(buffer, length, "argument")));
+                } else if (type == INTEGER_ARGUMENT) {
+                    command.append(buffer.getLong());
+                } else {
+                    throw new IllegalArgumentException("Unknown binary token argument type: " + type);
+                }
+            }
+
+            if (buffer.remaining() != SIGNATURE_LENGTH) {
+                throw new IllegalArgumentException("Binary token must end with a " + SIGNATURE_LENGTH +
+                        "-byte signature");
+            }
+            int signedLength = buffer.position();
+            byte[] signature = new byte[SIGNATURE_LENGTH];
+            buffer.get(signature);
+            byte[] message = new byte[signedLength];
+            System.arraycopy(envelope, 0, message, 0, signedLength);
+            return new Token(timestamp, nonce, expiry, command.toString(), kid, message, signature);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Binary token is truncated", e);
+        }
+    }
+
+    private static String readText(ByteBuffer buffer,
+                                   int length,
+                                   String field) {
+        int start = buffer.position();
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] array = buffer.array();
+        requirePrintable(array, start, length, field);
+        buffer.position(start + length);
+        return new String(array, start, length, StandardCharsets.US_ASCII);
+    }
+
+    private static void requirePrintable(byte[] bytes,
+                                         int offset,
+                                         int length,
+                                         String field) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] <= ' ' || bytes[i] > '~') {
+                throw new IllegalArgumentException("Binary token " + field + " must be printable ASCII without spaces");
+            }
+        }
+    }
+
+    private static String requireNoProgramSyntax(String argument) {
+        if (OperationProgram.isProgramSyntax(argument)) {
+            throw new IllegalArgumentException("Binary token argument must not be a program separator or reference: " +
+                    argument);
+        }
+        return argument;
+    }
+
+    /**
+     * Encodes the part of an envelope that gets signed.
+     *
+     * @param arguments {@link String} or {@link Long} values
+     * @param kid       key id, {@code null} for none
+     */
+    public static byte[] encodeUnsigned(long timestamp,
+                                        String nonce,
+                                        long expiry,
+                                        AvailableOperation operation,
+                                        List<?> arguments,
+                                        String kid) {
+        if (arguments.size() > MAX_ARGUMENTS) {
+            throw new IllegalArgumentException("At most " + MAX_ARGUMENTS + " arguments are supported");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        ByteBuffer fixed = ByteBuffer.allocate(20)
+                .put(MAGIC)
+                .put(VERSION)
+                .putLong(timestamp)
+                .putLong(expiry)
+                .putShort((short) operation.code());
+        out.writeBytes(fixed.array());
+        writeShortText(out, nonce, "nonce");
+        writeShortText(out, kid == null ? "" : kid, "kid");
+        out.write(arguments.size());
+        for (Object argument : arguments) {
+            if (argument instanceof Long number) {
+                out.write(INTEGER_ARGUMENT);
+                out.writeBytes(ByteBuffer.allocate(Long.BYTES).putLong(number).array());
+            } else if (argument instanceof String text) {
+                byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+                if (bytes.length == 0 || bytes.length > MAX_ARGUMENT_LENGTH) {
+                    throw new IllegalArgumentException("Invalid argument length: " + bytes.length);
+                }
+                requirePrintable(bytes, 0, bytes.length, "argument");
+                requireNoProgramSyntax(text);
+                out.write(STRING_ARGUMENT);
+                out.write(bytes.length >>> 8);
+                out.write(bytes.length);
+                out.writeBytes(bytes);
+            } else {
+                throw new IllegalArgumentException("Arguments must be String or Long, got " + argument);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Appends the signature over {@link #encodeUnsigned} output and encodes the token for {@code execute}.
+     */
+    public static String seal(byte[] unsigned,
+                              byte[] signature) {
+        if (signature.length != SIGNATURE_LENGTH) {
+            throw new IllegalArgumentException("Invalid signature length: " + signature.length);
+        }
+        byte[] envelope = new byte[unsigned.length + SIGNATURE_LENGTH];
+        System.arraycopy(unsigned, 0, envelope, 0, unsigned.length);
+        System.arraycopy(signature, 0, envelope, unsigned.length, SIGNATURE_LENGTH);
+        return Base64.getEncoder().encodeToString(envelope);
+    }
+
+    private static void writeShortText(ByteArrayOutputStream out,
+                                       String text,
+                                       String field) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("Binary token " + field + " exceeds 255 bytes");
+        }
+        requirePrintable(bytes, 0, bytes.length, field);
+        out.write(bytes.length);
+        out.writeBytes(bytes);
+    }
+}
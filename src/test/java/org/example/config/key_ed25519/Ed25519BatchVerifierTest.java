@@ -0,0 +1,113 @@
+package org.example.config.key_ed25519;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Ed25519BatchVerifierTest {
+    private static final int[] BATCH_SIZES = {1, 3, 4, 5, 16, 64, 200};
+    private static final double[] INVALID_RATES = {0.0, 0.01, 0.2, 1.0};
+    private static final int KEYS = 8;
+
+    @Test
+    void findsExactlyTheInvalidItemsOfMixedBatches() throws Exception {
+        for (Ed25519Verifier.Provider provider : Ed25519Verifier.Provider.values()) {
+            Signers signers = new Signers(provider);
+            Random random = new Random(3);
+            for (int size : BATCH_SIZES) {
+                for (double invalidRate : INVALID_RATES) {
+                    List<Ed25519BatchVerifier.Item> items = new ArrayList<>(size);
+                    boolean[] expected = new boolean[size];
+                    for (int i = 0; i < size; i++) {
+                        expected[i] = random.nextDouble() >= invalidRate;
+                        items.add(signers.item(random, expected[i]));
+                    }
+                    String label = provider + ", size " + size + ", invalid rate " + invalidRate;
+                    assertArrayEquals(expected, Ed25519BatchVerifier.verify(items), label);
+                    assertArrayEquals(expected, verifyEach(items), label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void agreesWithSingleVerificationOnSmallOrderComponents() throws Exception {
+        Signers signers = new Signers(Ed25519Verifier.Provider.BUILTIN);
+        Random random = new Random(4);
+        HexFormat hex = HexFormat.of();
+        BigInteger[] scalars = {BigInteger.ZERO, BigInteger.ONE, Scalar25519.L.subtract(BigInteger.ONE)};
+        List<Ed25519BatchVerifier.Item> items = new ArrayList<>();
+        for (String r : Ed25519BuiltinTest.SMALL_ORDER_POINTS) {
+            for (BigInteger s : scalars) {
+                items.add(signers.item(random, true));
+                byte[] signature = new byte[64];
+                System.arraycopy(hex.parseHex(r), 0, signature, 0, 32);
+                System.arraycopy(Scalar25519.toBytes(s), 0, signature, 32, 32);
+                Ed25519Verifier key = signers.verifiers.get(random.nextInt(KEYS));
+                items.add(new Ed25519BatchVerifier.Item(key, new byte[]{(byte) random.nextInt()}, signature));
+            }
+        }
+        boolean[] batch = Ed25519BatchVerifier.verify(items);
+        boolean[] single = verifyEach(items);
+        assertArrayEquals(single, batch);
+        for (int i = 0; i < items.size(); i += 2) {
+            assertTrue(batch[i], "honest item " + i);
+        }
+    }
+
+    private static boolean[] verifyEach(List<Ed25519BatchVerifier.Item> items) {
+        boolean[] results = new boolean[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            Ed25519BatchVerifier.Item item = items.get(i);
+            results[i] = Ed25519BuiltinTest.verifyQuietly(item.key(), item.message(), item.signature());
+        }
+        return results;
+    }
+
+    private static final class Signers {
+        private final List<KeyPair> keyPairs = new ArrayList<>(KEYS);
+        private final List<Ed25519Verifier> verifiers = new ArrayList<>(KEYS);
+        private final Signature signer;
+
+        Signers(Ed25519Verifier.Provider provider) throws Exception {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("Ed25519");
+            for (int i = 0; i < KEYS; i++) {
+                KeyPair keyPair = generator.generateKeyPair();
+                keyPairs.add(keyPair);
+                verifiers.add(new Ed25519Verifier(keyPair.getPublic(), provider));
+            }
+            signer = Signature.getInstance("Ed25519");
+        }
+
+        /**
+         * A signed random message, corrupted in its signature or its message when {@code valid} is false.
+         */
+        Ed25519BatchVerifier.Item item(Random random,
+                                       boolean valid) throws Exception {
+            int key = random.nextInt(KEYS);
+            byte[] message = new byte[1 + random.nextInt(96)];
+            random.nextBytes(message);
+            signer.initSign(keyPairs.get(key).getPrivate());
+            signer.update(message);
+            byte[] signature = signer.sign();
+            if (!valid) {
+                if (random.nextBoolean()) {
+                    signature[random.nextInt(64)] ^= (byte) (1 << random.nextInt(8));
+                } else {
+                    message[random.nextInt(message.length)] ^= 1;
+                }
+            }
+            return new Ed25519BatchVerifier.Item(verifiers.get(key), message, signature);
+        }
+    }
+}
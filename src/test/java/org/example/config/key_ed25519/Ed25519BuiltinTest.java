@@ -0,0 +1,179 @@
+package org.example.config.key_ed25519;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Ed25519BuiltinTest {
+    private static final HexFormat HEX = HexFormat.of();
+    private static final String X509_PREFIX = "302a300506032b6570032100";
+    private static final String[][] RFC8032_VECTORS = {
+            {"d75a980182b10ab7d54bfed3c964073a0ee172f3daa62325af021a68f707511a",
+                    "",
+                    "e5564300c360ac729086e2cc806e828a84877f1eb8e5d974d873e06522490155"
+                            + "5fb8821590a33bacc61e39701cf9b46bd25bf5f0595bbe24655141438e7a100b"},
+            {"3d4017c3e843895a92b70aa74d1b7ebc9c982ccf2ec4968cc0cd55f12af4660c",
+                    "72",
+                    "92a009a9f0d4cab8720e820b5f642540a2b27b5416503f8fb3762223ebdb69da"
+                            + "085ac1e43e15996e458f3613d0f11d8c387b2eaeb4302aeeb00d291612bb0c00"},
+            {"fc51cd8e6218a1a38da47ed00230f0580816ed13ba3303ac5deb911548908025",
+                    "af82",
+                    "6291d657deec24024827e69c3abe01a30ce548a284743a445e3680d7db5ac3ac"
+                            + "18ff9b538d16f290ae67f760984dc6594a7c15e9716ed28dc027beceea1ec40a"},
+    };
+    /**
+     * The points of order 1, 2, 4 and 8, followed by non-canonical encodings of y = 1 and y = 0.
+     */
+    static final List<String> SMALL_ORDER_POINTS = List.of(
+            "0100000000000000000000000000000000000000000000000000000000000000",
+            "ecffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f",
+            "0000000000000000000000000000000000000000000000000000000000000000",
+            "0000000000000000000000000000000000000000000000000000000000000080",
+            "26e8958fc2b227b045c3f489f2ef98f0d5dfac05d3c63339b13802886d53fc05",
+            "26e8958fc2b227b045c3f489f2ef98f0d5dfac05d3c63339b13802886d53fc85",
+            "c7176a703d4dd84fba3c0b760d10670f2a2053fa2cc39ccc64ec7fd7792ac03a",
+            "c7176a703d4dd84fba3c0b760d10670f2a2053fa2cc39ccc64ec7fd7792ac0fa",
+            "eeffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f",
+            "edffffffffffffffffffffffffffffffffffffffffffffffffffffffffffff7f");
+
+    @Test
+    void acceptsRfc8032VectorsAndRejectsCorruptedCopies() throws Exception {
+        for (Ed25519Verifier.Provider provider : Ed25519Verifier.Provider.values()) {
+            for (String[] vector : RFC8032_VECTORS) {
+                Ed25519Verifier verifier = new Ed25519Verifier(rawKey(HEX.parseHex(vector[0])), provider);
+                byte[] message = HEX.parseHex(vector[1]);
+                byte[] signature = HEX.parseHex(vector[2]);
+                assertTrue(verifier.verify(message, signature), provider + " " + vector[2]);
+                for (int bit = 0; bit < signature.length * 8; bit += 7) {
+                    byte[] corrupted = signature.clone();
+                    corrupted[bit / 8] ^= (byte) (1 << (bit % 8));
+                    assertFalse(verifyQuietly(verifier, message, corrupted), provider + " bit " + bit);
+                }
+                byte[] otherMessage = message.length == 0 ? new byte[]{0} : message.clone();
+                otherMessage[0] ^= 1;
+                assertFalse(verifyQuietly(verifier, otherMessage, signature), provider + " other message");
+            }
+            assertTrue(Ed25519SelfTest.checkKnownAnswers(provider).isEmpty(), provider.toString());
+        }
+    }
+
+    @Test
+    void agreesWithJcaOnRandomSignatures() throws Exception {
+        Ed25519SelfTest.DifferentialResult result = Ed25519SelfTest.checkAgainstJca(512, new Random(1));
+        assertEquals(0, result.mismatches(), result.firstMismatch().orElse(""));
+        assertEquals(2048, result.checks());
+    }
+
+    @Test
+    void agreesWithJcaOnNonCanonicalScalarsAndPoints() throws Exception {
+        Random random = new Random(2);
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("Ed25519");
+        Signature signer = Signature.getInstance("Ed25519");
+        BigInteger p = BigInteger.TWO.pow(255).subtract(BigInteger.valueOf(19));
+        for (int round = 0; round < 64; round++) {
+            KeyPair keyPair = generator.generateKeyPair();
+            byte[] message = new byte[random.nextInt(64)];
+            random.nextBytes(message);
+            signer.initSign(keyPair.getPrivate());
+            signer.update(message);
+            byte[] signature = signer.sign();
+
+            byte[] sPlusL = signature.clone();
+            System.arraycopy(Scalar25519.toBytes(Scalar25519.toBigInteger(signature, 32, 32).add(Scalar25519.L)),
+                    0, sPlusL, 32, 32);
+            byte[] sTooLarge = signature.clone();
+            sTooLarge[63] |= (byte) 0xe0;
+            byte[] rWithoutSign = signature.clone();
+            rWithoutSign[31] ^= (byte) 0x80;
+            byte[] rAsFieldOverflow = signature.clone();
+            byte[] y = Scalar25519.toBytes(p.add(BigInteger.valueOf(random.nextInt(19))));
+            System.arraycopy(y, 0, rAsFieldOverflow, 0, 32);
+
+            for (byte[] candidate : List.of(signature, sPlusL, sTooLarge, rWithoutSign, rAsFieldOverflow)) {
+                assertSameAnswer(keyPair.getPublic(), message, candidate);
+            }
+        }
+    }
+
+    @Test
+    void agreesWithJcaOnSmallOrderPoints() throws Exception {
+        KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        byte[] honestKey = keyPair.getPublic().getEncoded();
+        List<byte[]> keys = new ArrayList<>();
+        keys.add(Arrays.copyOfRange(honestKey, honestKey.length - 32, honestKey.length));
+        for (String point : SMALL_ORDER_POINTS) {
+            keys.add(HEX.parseHex(point));
+        }
+        BigInteger[] scalars = {BigInteger.ZERO, BigInteger.ONE, Scalar25519.L.subtract(BigInteger.ONE)};
+        for (byte[] key : keys) {
+            PublicKey publicKey;
+            try {
+                publicKey = rawKey(key);
+            } catch (GeneralSecurityException e) {
+                continue;
+            }
+            for (String r : SMALL_ORDER_POINTS) {
+                for (BigInteger s : scalars) {
+                    byte[] signature = new byte[64];
+                    System.arraycopy(HEX.parseHex(r), 0, signature, 0, 32);
+                    System.arraycopy(Scalar25519.toBytes(s), 0, signature, 32, 32);
+                    for (int message = 0; message < 8; message++) {
+                        assertSameAnswer(publicKey, new byte[]{(byte) message}, signature);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertSameAnswer(PublicKey publicKey,
+                                         byte[] message,
+                                         byte[] signature) {
+        boolean jca = verifyQuietly(publicKey, Ed25519Verifier.Provider.JCA, message, signature);
+        boolean builtin = verifyQuietly(publicKey, Ed25519Verifier.Provider.BUILTIN, message, signature);
+        assertEquals(jca, builtin, "key " + HEX.formatHex(publicKey.getEncoded()) + ", message " +
+                HEX.formatHex(message) + ", signature " + HEX.formatHex(signature));
+    }
+
+    private static boolean verifyQuietly(PublicKey publicKey,
+                                         Ed25519Verifier.Provider provider,
+                                         byte[] message,
+                                         byte[] signature) {
+        try {
+            return verifyQuietly(new Ed25519Verifier(publicKey, provider), message, signature);
+        } catch (KeyManagerException e) {
+            return false;
+        }
+    }
+
+    static boolean verifyQuietly(Ed25519Verifier verifier,
+                                 byte[] message,
+                                 byte[] signature) {
+        try {
+            return verifier.verify(message, signature);
+        } catch (SignatureException e) {
+            return false;
+        }
+    }
+
+    static PublicKey rawKey(byte[] key) throws GeneralSecurityException {
+        byte[] encoded = HEX.parseHex(X509_PREFIX + HEX.formatHex(key));
+        return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encoded));
+    }
+}